@@ -0,0 +1,1020 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic.Kind;
+
+import com.github.thiagotgm.modular_commands.api.ArgumentSchema;
+import com.github.thiagotgm.modular_commands.api.CommandContext;
+import com.github.thiagotgm.modular_commands.api.Cooldown;
+import com.github.thiagotgm.modular_commands.api.FailureReason;
+import com.github.thiagotgm.modular_commands.api.ICommand;
+import com.github.thiagotgm.modular_commands.api.Parameter;
+import com.github.thiagotgm.modular_commands.api.ParameterType;
+import com.github.thiagotgm.modular_commands.api.RateLimit;
+import com.github.thiagotgm.modular_commands.command.CommandBuilder;
+import com.github.thiagotgm.modular_commands.command.annotation.AnnotationParser;
+import com.github.thiagotgm.modular_commands.command.annotation.Arg;
+import com.github.thiagotgm.modular_commands.command.annotation.CommandRegistrar;
+import com.github.thiagotgm.modular_commands.command.annotation.FailureHandler;
+import com.github.thiagotgm.modular_commands.command.annotation.MainCommand;
+import com.github.thiagotgm.modular_commands.command.annotation.MainCommands;
+import com.github.thiagotgm.modular_commands.command.annotation.SubCommand;
+import com.github.thiagotgm.modular_commands.command.annotation.SubCommands;
+import com.github.thiagotgm.modular_commands.command.annotation.SuccessHandler;
+
+import sx.blah.discord.handle.obj.Permissions;
+
+/**
+ * Annotation processor that validates annotated commands and handlers at compile time and
+ * generates a {@link CommandRegistrar} for each class that declares them.
+ * <p>
+ * Everything that {@link AnnotationParser} would reject at runtime (methods with the wrong
+ * parameters, subcommands that do not exist, subcommand loops, repeated names, invalid rate
+ * limits, cooldowns and arguments, etc) is reported as a compile error instead.
+ * The generated registrar creates the commands with a {@link CommandBuilder}, calling the
+ * annotated methods directly, and is used by AnnotationParser in place of reflection.
+ * <p>
+ * Handlers declared in the class itself are called directly by the generated code. Static
+ * handlers (that are registered with {@link AnnotationParser#registerAnnotatedHandlers(Class)})
+ * are always retrieved from the registered handlers when the commands are created, since they
+ * must be registered to be used at runtime, even if they are compiled together with the class.
+ * Static handlers that are compiled together with the class are still checked, but handler
+ * names that are not found (for example, handlers from a library or from a previous compilation)
+ * are only reported as a warning. If a handler is not registered by the time the commands are
+ * created, AnnotationParser reads the annotations through reflection instead, which fails the
+ * same way it would without the registrar.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-25
+ */
+public class CommandProcessor extends AbstractProcessor {
+    
+    private static final List<Class<? extends Annotation>> ANNOTATIONS = Arrays.asList(
+            MainCommand.class, MainCommands.class, SubCommand.class, SubCommands.class,
+            SuccessHandler.class, FailureHandler.class );
+    
+    private static final String INDENT = "    ";
+    
+    private Messager messager;
+    private Elements elements;
+    private Types types;
+    
+    private TypeMirror contextType;
+    private TypeMirror reasonType;
+    private TypeMirror runtimeExceptionType;
+    private TypeMirror errorType;
+    
+    /** Static success handlers found so far, by name. */
+    private final Map<String, ExecutableElement> staticSuccessHandlers = new HashMap<>();
+    /** Static failure handlers found so far, by name. */
+    private final Map<String, ExecutableElement> staticFailureHandlers = new HashMap<>();
+    
+    @Override
+    public synchronized void init( ProcessingEnvironment processingEnv ) {
+        
+        super.init( processingEnv );
+        this.messager = processingEnv.getMessager();
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+        
+        this.contextType = elements.getTypeElement( CommandContext.class.getCanonicalName() ).asType();
+        this.reasonType = elements.getTypeElement( FailureReason.class.getCanonicalName() ).asType();
+        this.runtimeExceptionType = elements.getTypeElement( RuntimeException.class.getCanonicalName() ).asType();
+        this.errorType = elements.getTypeElement( Error.class.getCanonicalName() ).asType();
+        
+    }
+    
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        
+        Set<String> names = new HashSet<>();
+        for ( Class<? extends Annotation> annotation : ANNOTATIONS ) {
+            
+            names.add( annotation.getCanonicalName() );
+            
+        }
+        return names;
+        
+    }
+    
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        
+        return SourceVersion.latestSupported();
+        
+    }
+    
+    @Override
+    public boolean process( Set<? extends TypeElement> annotations, RoundEnvironment roundEnv ) {
+        
+        /* Find the classes that have annotated methods */
+        Set<TypeElement> classes = new LinkedHashSet<>();
+        for ( Class<? extends Annotation> annotation : ANNOTATIONS ) {
+            
+            for ( Element element : roundEnv.getElementsAnnotatedWith( annotation ) ) {
+                
+                if ( element.getKind() == ElementKind.METHOD ) {
+                    classes.add( (TypeElement) element.getEnclosingElement() );
+                }
+                
+            }
+            
+        }
+        
+        /* Collect static handlers first, so any class can use them */
+        for ( TypeElement type : classes ) {
+            
+            for ( ExecutableElement method : ElementFilter.methodsIn( type.getEnclosedElements() ) ) {
+                
+                if ( !method.getModifiers().contains( Modifier.STATIC ) ) {
+                    continue; // Instance methods are handlers for the class only.
+                }
+                SuccessHandler success = method.getAnnotation( SuccessHandler.class );
+                if ( ( success != null ) && checkMethod( method, false, contextType ) &&
+                        checkStaticAccess( method ) ) {
+                    addHandler( staticSuccessHandlers, success.value(), method, "static success" );
+                }
+                FailureHandler failure = method.getAnnotation( FailureHandler.class );
+                if ( ( failure != null ) && checkMethod( method, false, contextType, reasonType ) &&
+                        checkStaticAccess( method ) ) {
+                    addHandler( staticFailureHandlers, failure.value(), method, "static failure" );
+                }
+                
+            }
+            
+        }
+        
+        for ( TypeElement type : classes ) { // Generate the registrar of each class.
+            
+            new ClassProcessor( type ).process();
+            
+        }
+        return false;
+        
+    }
+    
+    /**
+     * Adds a handler to a map of handlers, reporting an error if there is already a handler with
+     * the same name.
+     *
+     * @param handlers The map of handlers.
+     * @param name The name of the handler.
+     * @param method The handler method.
+     * @param kind The kind of handler, for error messages.
+     * @return true if the handler was added, false if the name is repeated.
+     */
+    private boolean addHandler( Map<String, ExecutableElement> handlers, String name,
+            ExecutableElement method, String kind ) {
+        
+        if ( handlers.containsKey( name ) ) {
+            messager.printMessage( Kind.ERROR, "Repeated " + kind + " handler name \"" + name + "\".",
+                    method );
+            return false;
+        }
+        handlers.put( name, method );
+        return true;
+        
+    }
+    
+    /**
+     * Checks that an annotated method can be used, reporting an error if it can't.
+     *
+     * @param method The method.
+     * @param isStatic Whether the method must be static (if false, it must not be static).
+     * @param parameterTypes The parameter types that the method must have.
+     * @return true if the method is valid, false otherwise.
+     */
+    private boolean checkMethod( ExecutableElement method, boolean isStatic, TypeMirror... parameterTypes ) {
+        
+        List<? extends VariableElement> parameters = method.getParameters();
+        boolean valid = parameters.size() == parameterTypes.length;
+        for ( int i = 0; valid && ( i < parameterTypes.length ); i++ ) {
+            
+            valid = types.isSameType( parameters.get( i ).asType(), parameterTypes[i] );
+            
+        }
+        if ( !valid ) {
+            messager.printMessage( Kind.ERROR, "Method parameters are not valid.", method );
+            return false;
+        }
+        if ( isStatic && !method.getModifiers().contains( Modifier.STATIC ) ) {
+            messager.printMessage( Kind.ERROR, "Method is not static.", method );
+            return false;
+        }
+        if ( method.getModifiers().contains( Modifier.PRIVATE ) ) {
+            messager.printMessage( Kind.ERROR, "Method is private.", method );
+            return false;
+        }
+        return true;
+        
+    }
+    
+    /**
+     * Checks that a static handler can be called from any package, reporting an error if it can't.
+     *
+     * @param method The handler method.
+     * @return true if the method is accessible, false otherwise.
+     */
+    private boolean checkStaticAccess( ExecutableElement method ) {
+        
+        Element element = method;
+        while ( element.getKind() != ElementKind.PACKAGE ) {
+            
+            if ( !element.getModifiers().contains( Modifier.PUBLIC ) ) {
+                messager.printMessage( Kind.ERROR, "Static handler must be public and declared in a "
+                        + "public class.", method );
+                return false;
+            }
+            element = element.getEnclosingElement();
+            
+        }
+        return true;
+        
+    }
+    
+    /**
+     * Determines if a method declares checked exceptions.
+     *
+     * @param method The method.
+     * @return true if it throws checked exceptions, false otherwise.
+     */
+    private boolean throwsChecked( ExecutableElement method ) {
+        
+        for ( TypeMirror thrown : method.getThrownTypes() ) {
+            
+            if ( !types.isSubtype( thrown, runtimeExceptionType ) && !types.isSubtype( thrown, errorType ) ) {
+                return true;
+            }
+            
+        }
+        return false;
+        
+    }
+    
+    /**
+     * Creates a Java string literal with the given value.
+     *
+     * @param value The value.
+     * @return The literal.
+     */
+    private static String literal( String value ) {
+        
+        StringBuilder literal = new StringBuilder( "\"" );
+        for ( char c : value.toCharArray() ) { // Escape each character that needs it.
+            
+            switch ( c ) {
+                
+                case '"':
+                    literal.append( "\\\"" );
+                    break;
+                
+                case '\\':
+                    literal.append( "\\\\" );
+                    break;
+                
+                case '\n':
+                    literal.append( "\\n" );
+                    break;
+                
+                case '\r':
+                    literal.append( "\\r" );
+                    break;
+                
+                case '\t':
+                    literal.append( "\\t" );
+                    break;
+                
+                default:
+                    if ( ( c < ' ' ) || ( c > '~' ) ) {
+                        literal.append( String.format( "\\u%04x", (int) c ) );
+                    } else {
+                        literal.append( c );
+                    }
+                
+            }
+            
+        }
+        return literal.append( '"' ).toString();
+        
+    }
+    
+    /**
+     * Creates the expression that builds an EnumSet with the given permissions.
+     *
+     * @param permissions The permissions.
+     * @return The expression.
+     */
+    private static String permissionSet( Permissions[] permissions ) {
+        
+        String type = Permissions.class.getCanonicalName();
+        if ( permissions.length == 0 ) {
+            return "java.util.EnumSet.noneOf( " + type + ".class )";
+        }
+        StringBuilder set = new StringBuilder( "java.util.EnumSet.of( " );
+        for ( int i = 0; i < permissions.length; i++ ) {
+            
+            set.append( ( i > 0 ) ? ", " : "" ).append( type ).append( '.' ).append( permissions[i].name() );
+            
+        }
+        return set.append( " )" ).toString();
+        
+    }
+    
+    /**
+     * Validates and generates the registrar of a single class.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2017-09-25
+     */
+    private class ClassProcessor {
+        
+        private final TypeElement type;
+        private final Map<String, ExecutableElement> successHandlers;
+        private final Map<String, ExecutableElement> failureHandlers;
+        private final Map<String, ExecutableElement> subCommandMethods;
+        private final Map<String, SubCommand> subCommands;
+        private final Map<ExecutableElement, List<MainCommand>> mainCommands;
+        /** Subcommands in an order where each comes after its own subcommands. */
+        private final List<String> subCommandOrder;
+        private boolean valid;
+        
+        /**
+         * Creates a processor for the given class.
+         *
+         * @param type The class.
+         */
+        ClassProcessor( TypeElement type ) {
+            
+            this.type = type;
+            this.successHandlers = new HashMap<>();
+            this.failureHandlers = new HashMap<>();
+            this.subCommandMethods = new HashMap<>();
+            this.subCommands = new LinkedHashMap<>();
+            this.mainCommands = new LinkedHashMap<>();
+            this.subCommandOrder = new ArrayList<>();
+            this.valid = true;
+            
+        }
+        
+        /**
+         * Reports an error.
+         *
+         * @param message The error message.
+         * @param element The element that caused the error.
+         */
+        private void error( String message, Element element ) {
+            
+            messager.printMessage( Kind.ERROR, message, element );
+            valid = false;
+            
+        }
+        
+        /**
+         * Validates the class and, if everything is valid, generates its registrar.
+         */
+        void process() {
+            
+            checkClass();
+            collect();
+            for ( Map.Entry<String, SubCommand> subCommand : subCommands.entrySet() ) {
+                
+                check( subCommandMethods.get( subCommand.getKey() ), subCommand.getValue().name(),
+                        subCommand.getValue().aliases(), subCommand.getValue().onSuccessDelay(),
+                        subCommand.getValue().successHandler(), subCommand.getValue().failureHandler(),
+                        subCommand.getValue().subCommands(), subCommand.getValue().rateLimit(),
+                        subCommand.getValue().cooldown() );
+                for ( String sub : subCommand.getValue().subCommands() ) {
+                    
+                    if ( sub.equals( subCommand.getKey() ) ) {
+                        error( "Subcommand cannot be its own subcommand.",
+                                subCommandMethods.get( subCommand.getKey() ) );
+                    }
+                    
+                }
+                
+            }
+            for ( Map.Entry<ExecutableElement, List<MainCommand>> method : mainCommands.entrySet() ) {
+                
+                for ( MainCommand annotation : method.getValue() ) {
+                    
+                    check( method.getKey(), annotation.name(), annotation.aliases(),
+                            annotation.onSuccessDelay(), annotation.successHandler(),
+                            annotation.failureHandler(), annotation.subCommands(), annotation.rateLimit(),
+                            annotation.cooldown() );
+                    
+                }
+                
+            }
+            Set<String> visiting = new HashSet<>();
+            for ( String subCommand : subCommands.keySet() ) {
+                
+                order( subCommand, visiting );
+                
+            }
+            if ( valid && !( mainCommands.isEmpty() && subCommands.isEmpty() ) ) {
+                generate(); // Only generate if there are commands.
+            }
+            
+        }
+        
+        /**
+         * Checks that the generated registrar can use the class.
+         */
+        private void checkClass() {
+            
+            if ( ( type.getNestingKind() != NestingKind.TOP_LEVEL ) &&
+                    ( type.getNestingKind() != NestingKind.MEMBER ) ) {
+                error( "Annotated commands can only be declared in top-level or member classes.", type );
+                return;
+            }
+            for ( Element element = type; element.getKind() != ElementKind.PACKAGE;
+                    element = element.getEnclosingElement() ) {
+                
+                if ( element.getModifiers().contains( Modifier.PRIVATE ) ) {
+                    error( "Class with annotated commands cannot be private.", type );
+                    return;
+                }
+                
+            }
+            
+        }
+        
+        /**
+         * Collects the annotated methods of the class.
+         */
+        private void collect() {
+            
+            for ( ExecutableElement method : ElementFilter.methodsIn( type.getEnclosedElements() ) ) {
+                
+                boolean isStatic = method.getModifiers().contains( Modifier.STATIC );
+                SuccessHandler success = method.getAnnotation( SuccessHandler.class );
+                if ( ( success != null ) && !isStatic && checkMethod( method, false, contextType ) ) {
+                    if ( !addHandler( successHandlers, success.value(), method, "success" ) ) {
+                        valid = false;
+                    }
+                }
+                FailureHandler failure = method.getAnnotation( FailureHandler.class );
+                if ( ( failure != null ) && !isStatic &&
+                        checkMethod( method, false, contextType, reasonType ) ) {
+                    if ( !addHandler( failureHandlers, failure.value(), method, "failure" ) ) {
+                        valid = false;
+                    }
+                }
+                
+                SubCommand[] subs = method.getAnnotationsByType( SubCommand.class );
+                MainCommand[] mains = method.getAnnotationsByType( MainCommand.class );
+                if ( ( subs.length > 0 ) || ( mains.length > 0 ) ) {
+                    if ( isStatic ) {
+                        error( "Method is static.", method );
+                        continue;
+                    }
+                    if ( !checkMethod( method, false, contextType ) ) {
+                        valid = false;
+                        continue;
+                    }
+                    checkArguments( method );
+                }
+                for ( SubCommand sub : subs ) {
+                    
+                    if ( subCommands.containsKey( sub.name() ) ) {
+                        error( "Subcommand with repeated name \"" + sub.name() + "\".", method );
+                    } else {
+                        subCommands.put( sub.name(), sub );
+                        subCommandMethods.put( sub.name(), method );
+                    }
+                    
+                }
+                if ( mains.length > 0 ) {
+                    mainCommands.put( method, Arrays.asList( mains ) );
+                }
+                
+            }
+            
+        }
+        
+        /**
+         * Checks the properties of a command.
+         *
+         * @param method The method of the command.
+         * @param name The name of the command.
+         * @param aliases The aliases of the command.
+         * @param onSuccessDelay The delay before the success handler.
+         * @param successHandler The name of the success handler.
+         * @param failureHandler The name of the failure handler.
+         * @param subCommandNames The names of the subcommands.
+         * @param rateLimit The rate limit.
+         * @param cooldown The cooldown.
+         */
+        private void check( ExecutableElement method, String name, String[] aliases, long onSuccessDelay,
+                String successHandler, String failureHandler, String[] subCommandNames, String rateLimit,
+                String cooldown ) {
+            
+            if ( name.isEmpty() ) {
+                error( "Command name cannot be empty.", method );
+            }
+            if ( aliases.length == 0 ) {
+                error( "\"" + name + "\": Command must have at least one alias.", method );
+            }
+            for ( String alias : aliases ) {
+                
+                if ( alias.isEmpty() ) {
+                    error( "\"" + name + "\": Alias cannot be empty.", method );
+                }
+                
+            }
+            if ( onSuccessDelay < 0 ) {
+                error( "\"" + name + "\": Success delay cannot be negative.", method );
+            }
+            if ( !successHandler.isEmpty() && !successHandlers.containsKey( successHandler ) &&
+                    !staticSuccessHandlers.containsKey( successHandler ) ) { // Might be registered.
+                messager.printMessage( Kind.WARNING, "\"" + name + "\": Success handler \"" + successHandler
+                        + "\" not found. It must be registered before the commands are created.", method );
+            }
+            if ( !failureHandler.isEmpty() && !failureHandlers.containsKey( failureHandler ) &&
+                    !staticFailureHandlers.containsKey( failureHandler ) ) { // Might be registered.
+                messager.printMessage( Kind.WARNING, "\"" + name + "\": Failure handler \"" + failureHandler
+                        + "\" not found. It must be registered before the commands are created.", method );
+            }
+            for ( String subCommand : subCommandNames ) {
+                
+                if ( !subCommands.containsKey( subCommand ) ) {
+                    error( "\"" + name + "\": Invalid subcommand \"" + subCommand + "\".", method );
+                }
+                
+            }
+            try {
+                if ( !rateLimit.isEmpty() ) {
+                    RateLimit.parse( rateLimit );
+                }
+                if ( !cooldown.isEmpty() ) {
+                    Cooldown.parse( cooldown );
+                }
+            } catch ( IllegalArgumentException e ) {
+                error( "\"" + name + "\": " + e.getMessage(), method );
+            }
+            
+        }
+        
+        /**
+         * Checks that the {@link Arg} annotations of a method form a valid argument schema.
+         *
+         * @param method The method.
+         */
+        private void checkArguments( ExecutableElement method ) {
+            
+            List<Parameter> parameters = new ArrayList<>();
+            for ( Arg arg : method.getAnnotationsByType( Arg.class ) ) {
+                
+                TypeMirror enumType = getEnumType( arg );
+                boolean isEnum = ( enumType.getKind() == TypeKind.DECLARED ) &&
+                        ( ( (DeclaredType) enumType ).asElement().getKind() == ElementKind.ENUM );
+                if ( ( arg.type() == ParameterType.ENUM ) && !isEnum ) {
+                    error( "Parameter \"" + arg.name() + "\" must specify an enum type.", method );
+                } else if ( ( arg.type() != ParameterType.ENUM ) && ( enumType.getKind() != TypeKind.VOID ) ) {
+                    error( "Parameter \"" + arg.name() + "\" is not an enum parameter.", method );
+                }
+                try { // Enum types are only known at runtime, check as a string parameter.
+                    parameters.add( new Parameter( arg.name(),
+                            ( arg.type() == ParameterType.ENUM ) ? ParameterType.STRING : arg.type(),
+                            arg.arity() ) );
+                } catch ( IllegalArgumentException e ) {
+                    error( "Parameter \"" + arg.name() + "\": " + e.getMessage(), method );
+                }
+                
+            }
+            try {
+                new ArgumentSchema( parameters );
+            } catch ( IllegalArgumentException e ) {
+                error( e.getMessage(), method );
+            }
+            
+        }
+        
+        /**
+         * Retrieves the enum type of an Arg annotation.
+         *
+         * @param arg The annotation.
+         * @return The enum type.
+         */
+        private TypeMirror getEnumType( Arg arg ) {
+            
+            try {
+                arg.enumType();
+                throw new IllegalStateException( "Class values are not available at compile time." );
+            } catch ( MirroredTypeException e ) {
+                return e.getTypeMirror();
+            }
+            
+        }
+        
+        /**
+         * Adds a subcommand to the subcommand order after its own subcommands, reporting an
+         * error if there is a subcommand loop.
+         *
+         * @param name The name of the subcommand.
+         * @param visiting The subcommands whose own subcommands are being ordered.
+         */
+        private void order( String name, Set<String> visiting ) {
+            
+            if ( subCommandOrder.contains( name ) || !subCommands.containsKey( name ) ) {
+                return; // Already ordered, or invalid (reported already).
+            }
+            if ( !visiting.add( name ) ) {
+                error( "Subcommand loop including \"" + name + "\".", subCommandMethods.get( name ) );
+                return;
+            }
+            for ( String subCommand : subCommands.get( name ).subCommands() ) {
+                
+                if ( !subCommand.equals( name ) ) {
+                    order( subCommand, visiting );
+                }
+                
+            }
+            visiting.remove( name );
+            subCommandOrder.add( name );
+            
+        }
+        
+        /**
+         * Generates the registrar of the class.
+         */
+        private void generate() {
+            
+            PackageElement pkg = elements.getPackageOf( type );
+            String binaryName = elements.getBinaryName( type ).toString();
+            String registrarName = binaryName.substring( binaryName.lastIndexOf( '.' ) + 1 )
+                    + CommandRegistrar.SUFFIX; // Nested classes are separated by '$'.
+            String qualifiedName = pkg.isUnnamed() ? registrarName :
+                    pkg.getQualifiedName() + "." + registrarName;
+            String typeName = wildcardType( type ).toString();
+            
+            StringBuilder code = new StringBuilder();
+            if ( !pkg.isUnnamed() ) {
+                code.append( "package " ).append( pkg.getQualifiedName() ).append( ";\n\n" );
+            }
+            code.append( "/**\n" )
+                .append( " * Creates the annotated commands of {@link " ).append( types.erasure( type.asType() ) )
+                .append( "}.\n" )
+                .append( " * <p>\n" )
+                .append( " * Generated by ModularCommands-processor. Do not edit.\n" )
+                .append( " */\n" )
+                .append( "public final class " ).append( registrarName ).append( " implements " )
+                .append( CommandRegistrar.class.getCanonicalName() ).append( '<' ).append( typeName )
+                .append( "> {\n\n" )
+                .append( INDENT ).append( "@Override\n" )
+                .append( INDENT ).append( "public java.util.List<" ).append( ICommand.class.getCanonicalName() )
+                .append( "> parse( " ).append( typeName ).append( " obj ) {\n\n" );
+            
+            Map<String, String> subCommandVariables = new HashMap<>();
+            for ( String name : subCommandOrder ) { // Build each subcommand.
+                
+                String variable = "subCommand" + subCommandVariables.size();
+                subCommandVariables.put( name, variable );
+                SubCommand annotation = subCommands.get( name );
+                code.append( INDENT ).append( INDENT ).append( ICommand.class.getCanonicalName() )
+                    .append( ' ' ).append( variable ).append( " = new " )
+                    .append( CommandBuilder.class.getCanonicalName() ).append( "( " )
+                    .append( literal( name ) ).append( " ).subCommand( true )" );
+                appendCommon( code, subCommandMethods.get( name ), annotation.essential(), annotation.aliases(),
+                        annotation.description(), annotation.usage(), annotation.onSuccessDelay(),
+                        annotation.successHandler(), annotation.failureHandler(), annotation.replyPrivately(),
+                        annotation.ignorePublic(), annotation.ignorePrivate(), annotation.ignoreBots(),
+                        annotation.deleteCommand(), annotation.requiresOwner(), annotation.NSFW() );
+                appendCall( code, "executeParent", annotation.executeParent() );
+                appendCall( code, "requiresParentPermissions", annotation.requiresParentPermissions() );
+                appendRest( code, subCommandMethods.get( name ), annotation.requiredPermissions(),
+                        annotation.requiredGuildPermissions(), annotation.subCommands(), subCommandVariables,
+                        annotation.rateLimit(), annotation.cooldown(), annotation.canModifySubCommands(),
+                        annotation.priority(), ";" );
+                
+            }
+            
+            code.append( INDENT ).append( INDENT ).append( "java.util.List<" )
+                .append( ICommand.class.getCanonicalName() )
+                .append( "> mainCommands = new java.util.ArrayList<>();\n" );
+            for ( Map.Entry<ExecutableElement, List<MainCommand>> method : mainCommands.entrySet() ) {
+                
+                for ( MainCommand annotation : method.getValue() ) { // Build each main command.
+                    
+                    code.append( INDENT ).append( INDENT ).append( "mainCommands.add( new " )
+                        .append( CommandBuilder.class.getCanonicalName() ).append( "( " )
+                        .append( literal( annotation.name() ) ).append( " )" );
+                    if ( !annotation.prefix().isEmpty() ) {
+                        code.append( "\n" ).append( INDENT ).append( INDENT ).append( INDENT )
+                            .append( ".withPrefix( " ).append( literal( annotation.prefix() ) ).append( " )" );
+                    }
+                    appendCommon( code, method.getKey(), annotation.essential(), annotation.aliases(),
+                            annotation.description(), annotation.usage(), annotation.onSuccessDelay(),
+                            annotation.successHandler(), annotation.failureHandler(),
+                            annotation.replyPrivately(), annotation.ignorePublic(), annotation.ignorePrivate(),
+                            annotation.ignoreBots(), annotation.deleteCommand(), annotation.requiresOwner(),
+                            annotation.NSFW() );
+                    appendCall( code, "overrideable", annotation.overrideable() );
+                    appendRest( code, method.getKey(), annotation.requiredPermissions(),
+                            annotation.requiredGuildPermissions(), annotation.subCommands(), subCommandVariables,
+                            annotation.rateLimit(), annotation.cooldown(), annotation.canModifySubCommands(),
+                            annotation.priority(), " );" ); // Close the add() call too.
+                    
+                }
+                
+            }
+            code.append( INDENT ).append( INDENT ).append( "return mainCommands;\n\n" )
+                .append( INDENT ).append( "}\n\n" )
+                .append( "}\n" );
+            
+            try ( Writer writer = processingEnv.getFiler().createSourceFile( qualifiedName, type ).openWriter() ) {
+                writer.write( code.toString() );
+            } catch ( IOException e ) {
+                messager.printMessage( Kind.ERROR, "Could not write command registrar: " + e.getMessage(), type );
+            }
+            
+        }
+        
+        /**
+         * Creates the type of the given class with a wildcard for each of its type parameters
+         * (and the type parameters of the classes that enclose it, for inner classes), so that the
+         * generated code does not use raw types.
+         *
+         * @param element The class.
+         * @return The type.
+         */
+        private DeclaredType wildcardType( TypeElement element ) {
+            
+            TypeMirror[] arguments = new TypeMirror[element.getTypeParameters().size()];
+            for ( int i = 0; i < arguments.length; i++ ) {
+                
+                arguments[i] = types.getWildcardType( null, null );
+                
+            }
+            Element enclosing = element.getEnclosingElement();
+            if ( !element.getModifiers().contains( Modifier.STATIC ) &&
+                    ( enclosing.getKind().isClass() || enclosing.getKind().isInterface() ) ) {
+                return types.getDeclaredType( wildcardType( (TypeElement) enclosing ), element, arguments );
+            } else { // Not an inner class.
+                return types.getDeclaredType( element, arguments );
+            }
+            
+        }
+        
+        /**
+         * Appends a call to a builder method with a single argument.
+         *
+         * @param code The code being generated.
+         * @param method The name of the builder method.
+         * @param value The argument.
+         */
+        private void appendCall( StringBuilder code, String method, Object value ) {
+            
+            code.append( "\n" ).append( INDENT ).append( INDENT ).append( INDENT )
+                .append( '.' ).append( method ).append( "( " ).append( value ).append( " )" );
+            
+        }
+        
+        /**
+         * Appends the builder calls for the properties shared by main commands and subcommands
+         * that come before the command options specific to each.
+         *
+         * @param code The code being generated.
+         * @param method The method of the command.
+         * @param essential Whether the command is essential.
+         * @param aliases The aliases of the command.
+         * @param description The description of the command.
+         * @param usage The usage of the command.
+         * @param onSuccessDelay The delay before the success handler.
+         * @param successHandler The name of the success handler.
+         * @param failureHandler The name of the failure handler.
+         * @param replyPrivately Whether the command replies privately.
+         * @param ignorePublic Whether the command ignores public calls.
+         * @param ignorePrivate Whether the command ignores private calls.
+         * @param ignoreBots Whether the command ignores bots.
+         * @param deleteCommand Whether the calling message is deleted.
+         * @param requiresOwner Whether the command requires the owner.
+         * @param NSFW Whether the command is NSFW.
+         */
+        private void appendCommon( StringBuilder code, ExecutableElement method, boolean essential,
+                String[] aliases, String description, String usage, long onSuccessDelay,
+                String successHandler, String failureHandler, boolean replyPrivately, boolean ignorePublic,
+                boolean ignorePrivate, boolean ignoreBots, boolean deleteCommand, boolean requiresOwner,
+                boolean NSFW ) {
+            
+            appendCall( code, "essential", essential );
+            StringBuilder aliasArray = new StringBuilder( "new String[] { " );
+            for ( int i = 0; i < aliases.length; i++ ) {
+                
+                aliasArray.append( ( i > 0 ) ? ", " : "" ).append( literal( aliases[i] ) );
+                
+            }
+            appendCall( code, "withAliases", aliasArray.append( " }" ) );
+            appendCall( code, "withDescription", literal( description ) );
+            appendCall( code, "withUsage", literal( usage ) );
+            appendCall( code, "onExecute", commandOperation( method ) );
+            appendCall( code, "withOnSuccessDelay", onSuccessDelay + "L" );
+            /* Static handlers are only used at runtime if registered, so always look them up */
+            if ( !successHandler.isEmpty() ) {
+                ExecutableElement handler = successHandlers.get( successHandler );
+                appendCall( code, "onSuccess", ( handler != null ) ? handlerOperation( handler, "context" ) :
+                        registeredHandler( "getRegisteredSuccessHandler", successHandler ) );
+            }
+            if ( !failureHandler.isEmpty() ) {
+                ExecutableElement handler = failureHandlers.get( failureHandler );
+                appendCall( code, "onFailure", ( handler != null ) ? handlerOperation( handler, "context, reason" ) :
+                        registeredHandler( "getRegisteredFailureHandler", failureHandler ) );
+            }
+            appendCall( code, "replyPrivately", replyPrivately );
+            appendCall( code, "ignorePublic", ignorePublic );
+            appendCall( code, "ignorePrivate", ignorePrivate );
+            appendCall( code, "ignoreBots", ignoreBots );
+            appendCall( code, "deleteCommand", deleteCommand );
+            appendCall( code, "requiresOwner", requiresOwner );
+            appendCall( code, "NSFW", NSFW );
+            
+        }
+        
+        /**
+         * Appends the builder calls for the remaining properties of a command, and the build call.
+         *
+         * @param code The code being generated.
+         * @param method The method of the command.
+         * @param permissions The required permissions.
+         * @param guildPermissions The required guild permissions.
+         * @param subCommandNames The names of the subcommands.
+         * @param subCommandVariables The variables that hold the subcommands, by name.
+         * @param rateLimit The rate limit.
+         * @param cooldown The cooldown.
+         * @param canModifySubCommands Whether the subcommands can be modified.
+         * @param priority The priority of the command.
+         * @param end The code that ends the statement after the build call.
+         */
+        private void appendRest( StringBuilder code, ExecutableElement method, Permissions[] permissions,
+                Permissions[] guildPermissions, String[] subCommandNames, Map<String, String> subCommandVariables,
+                String rateLimit, String cooldown, boolean canModifySubCommands, int priority, String end ) {
+            
+            appendCall( code, "withRequiredPermissions", permissionSet( permissions ) );
+            appendCall( code, "withRequiredGuildPermissions", permissionSet( guildPermissions ) );
+            if ( subCommandNames.length > 0 ) {
+                StringBuilder list = new StringBuilder( "java.util.Arrays.<" )
+                        .append( ICommand.class.getCanonicalName() ).append( ">asList( " );
+                for ( int i = 0; i < subCommandNames.length; i++ ) {
+                    
+                    list.append( ( i > 0 ) ? ", " : "" ).append( subCommandVariables.get( subCommandNames[i] ) );
+                    
+                }
+                appendCall( code, "withSubCommands", list.append( " )" ) );
+            }
+            if ( !rateLimit.isEmpty() ) {
+                appendCall( code, "withRateLimit", literal( rateLimit ) );
+            }
+            if ( !cooldown.isEmpty() ) {
+                appendCall( code, "withCooldown", literal( cooldown ) );
+            }
+            Arg[] args = method.getAnnotationsByType( Arg.class );
+            if ( args.length > 0 ) {
+                StringBuilder parameters = new StringBuilder();
+                for ( Arg arg : args ) {
+                    
+                    parameters.append( ( parameters.length() > 0 ) ? ",\n" : "" )
+                              .append( INDENT ).append( INDENT ).append( INDENT ).append( INDENT )
+                              .append( "new " ).append( Parameter.class.getCanonicalName() ).append( "( " )
+                              .append( literal( arg.name() ) ).append( ", " );
+                    if ( arg.type() == ParameterType.ENUM ) {
+                        parameters.append( types.erasure( getEnumType( arg ) ) ).append( ".class" );
+                    } else {
+                        parameters.append( ParameterType.class.getCanonicalName() ).append( '.' )
+                                  .append( arg.type().name() );
+                    }
+                    parameters.append( ", " ).append( Parameter.Arity.class.getCanonicalName() ).append( '.' )
+                              .append( arg.arity().name() ).append( " )" );
+                    
+                }
+                code.append( "\n" ).append( INDENT ).append( INDENT ).append( INDENT )
+                    .append( ".withArguments(\n" ).append( parameters ).append( " )" );
+            }
+            appendCall( code, "canModifySubCommands", canModifySubCommands );
+            appendCall( code, "withPriority", priority );
+            code.append( "\n" ).append( INDENT ).append( INDENT ).append( INDENT ).append( ".build()" )
+                .append( end ).append( "\n\n" );
+            
+        }
+        
+        /**
+         * Creates the lambda that executes a command method.
+         *
+         * @param method The method.
+         * @return The lambda expression.
+         */
+        private String commandOperation( ExecutableElement method ) {
+            
+            String call = "obj." + method.getSimpleName() + "( context )";
+            String body;
+            if ( method.getReturnType().getKind() == TypeKind.BOOLEAN ) {
+                body = "return " + call + ";";
+            } else if ( method.getReturnType().getKind() == TypeKind.VOID ) {
+                body = call + "; return true;";
+            } else { // Only a Boolean return value determines success.
+                body = "Object result = " + call + "; "
+                        + "return !( result instanceof Boolean ) || ( (Boolean) result ).booleanValue();";
+            }
+            return "( context ) -> { " + wrapChecked( method, body ) + " }";
+            
+        }
+        
+        /**
+         * Creates the lambda that executes a handler method of the class.
+         *
+         * @param method The method.
+         * @param parameters The parameters of the lambda.
+         * @return The lambda expression.
+         */
+        private String handlerOperation( ExecutableElement method, String parameters ) {
+            
+            String body = "obj." + method.getSimpleName() + "( " + parameters + " );";
+            return "( " + parameters + " ) -> { " + wrapChecked( method, body ) + " }";
+            
+        }
+        
+        /**
+         * Creates the expression that retrieves a static handler from the handlers registered in
+         * AnnotationParser.
+         *
+         * @param getter The name of the AnnotationParser method that retrieves the handler.
+         * @param name The name of the handler.
+         * @return The expression.
+         */
+        private String registeredHandler( String getter, String name ) {
+            
+            return AnnotationParser.class.getCanonicalName() + "." + getter + "( " + literal( name ) + " )";
+            
+        }
+        
+        /**
+         * Wraps the code that calls a method so that checked exceptions thrown by it are wrapped
+         * in a RuntimeException.
+         *
+         * @param method The method.
+         * @param body The code that calls the method.
+         * @return The wrapped code.
+         */
+        private String wrapChecked( ExecutableElement method, String body ) {
+            
+            if ( !throwsChecked( method ) ) {
+                return body;
+            }
+            return "try { " + body + " } catch ( RuntimeException | Error e ) { throw e; } "
+                    + "catch ( Throwable e ) { throw new RuntimeException( \"Unexpected checked exception.\", e ); }";
+            
+        }
+        
+    }
+    
+}
@@ -0,0 +1,405 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import javax.tools.Diagnostic;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.thiagotgm.modular_commands.api.ICommand;
+import com.github.thiagotgm.modular_commands.command.annotation.AnnotationParser;
+import com.github.thiagotgm.modular_commands.command.annotation.CommandRegistrar;
+
+/**
+ * Tests for {@link CommandProcessor}, compiling sources in memory with the system Java compiler.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-25
+ */
+public class CommandProcessorTest {
+    
+    /** Imports used by the test sources. */
+    private static final String IMPORTS =
+            "import com.github.thiagotgm.modular_commands.api.*;\n" +
+            "import com.github.thiagotgm.modular_commands.command.annotation.*;\n";
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    /**
+     * Source file held in memory.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2017-09-25
+     */
+    private static class Source extends SimpleJavaFileObject {
+        
+        private final String code;
+        
+        /**
+         * Creates a source file.
+         *
+         * @param className The qualified name of the top-level class in the file.
+         * @param code The contents of the file.
+         */
+        Source( String className, String code ) {
+            
+            super( URI.create( "string:///" + className.replace( '.', '/' ) + Kind.SOURCE.extension ),
+                    Kind.SOURCE );
+            this.code = code;
+            
+        }
+        
+        @Override
+        public CharSequence getCharContent( boolean ignoreEncodingErrors ) {
+            
+            return code;
+            
+        }
+        
+    }
+    
+    /**
+     * Result of a compilation.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2017-09-25
+     */
+    private static class Result {
+        
+        final boolean success;
+        final List<Diagnostic<? extends JavaFileObject>> diagnostics;
+        final File output;
+        
+        /**
+         * Creates a result.
+         *
+         * @param success Whether the compilation succeeded.
+         * @param diagnostics The diagnostics reported by the compiler.
+         * @param output The directory with the compiled classes.
+         */
+        Result( boolean success, List<Diagnostic<? extends JavaFileObject>> diagnostics, File output ) {
+            
+            this.success = success;
+            this.diagnostics = diagnostics;
+            this.output = output;
+            
+        }
+        
+        /**
+         * Retrieves the messages of the diagnostics of the given kind.
+         *
+         * @param kind The kind of diagnostic.
+         * @return The messages.
+         */
+        List<String> messages( Kind kind ) {
+            
+            return diagnostics.stream().filter( ( d ) -> d.getKind() == kind )
+                    .map( ( d ) -> d.getMessage( Locale.ROOT ) ).collect( Collectors.toList() );
+            
+        }
+        
+        /**
+         * Checks whether a diagnostic of the given kind contains the given text.
+         *
+         * @param kind The kind of diagnostic.
+         * @param text The text.
+         * @return true if there is such a diagnostic.
+         */
+        boolean has( Kind kind, String text ) {
+            
+            return messages( kind ).stream().anyMatch( ( m ) -> m.contains( text ) );
+            
+        }
+        
+    }
+    
+    /**
+     * Compiles the given sources with the processor.
+     *
+     * @param sources The sources, as pairs of qualified class name and code.
+     * @return The result of the compilation.
+     * @throws IOException if the output directory could not be created.
+     */
+    private Result compile( String... sources ) throws IOException {
+        
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<JavaFileObject> files = new ArrayList<>();
+        for ( int i = 0; i < sources.length; i += 2 ) {
+            
+            files.add( new Source( sources[i], sources[i + 1] ) );
+            
+        }
+        File output = folder.newFolder();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        JavaCompiler.CompilationTask task = compiler.getTask( null, null, diagnostics,
+                Arrays.asList( "-Xlint:all", "-Xlint:-processing", "-Xlint:-path", "-classpath",
+                        System.getProperty( "java.class.path" ), "-d", output.getPath() ), null, files );
+        task.setProcessors( Arrays.asList( new CommandProcessor() ) );
+        boolean success = task.call();
+        return new Result( success, diagnostics.getDiagnostics(), output );
+        
+    }
+    
+    /**
+     * Compiles a class in the package <tt>test</tt>, expecting it to fail.
+     *
+     * @param name The simple name of the class.
+     * @param body The body of the class.
+     * @return The result of the compilation.
+     * @throws IOException if the output directory could not be created.
+     */
+    private Result compileFailing( String name, String body ) throws IOException {
+        
+        Result result = compile( "test." + name, "package test;\n" + IMPORTS +
+                "public class " + name + " {\n" + body + "\n}\n" );
+        assertFalse( "Compilation should fail.", result.success );
+        return result;
+        
+    }
+    
+    /**
+     * Parses an object of a compiled class with its generated registrar.
+     *
+     * @param result The result of the compilation.
+     * @param className The binary name of the class.
+     * @return The main commands.
+     * @throws Exception if the class could not be loaded or instantiated.
+     */
+    @SuppressWarnings( "unchecked" )
+    private List<ICommand> parse( Result result, String className ) throws Exception {
+        
+        assertTrue( "Compilation failed: " + result.diagnostics, result.success );
+        try ( URLClassLoader loader = new URLClassLoader( new URL[] { result.output.toURI().toURL() },
+                getClass().getClassLoader() ) ) {
+            Class<?> c = loader.loadClass( className );
+            Object obj = c.newInstance();
+            CommandRegistrar<Object> registrar = (CommandRegistrar<Object>)
+                    loader.loadClass( className + CommandRegistrar.SUFFIX ).newInstance();
+            return registrar.parse( obj );
+        }
+        
+    }
+    
+    @Test
+    public void testRegistrar() throws Exception {
+        
+        Result result = compile( "test.Commands", "package test;\n" + IMPORTS +
+                "public class Commands {\n" +
+                "    @MainCommand( name = \"main\", aliases = { \"main\", \"m\" }, subCommands = \"sub\" )\n" +
+                "    public void main( CommandContext context ) {}\n" +
+                "    @SubCommand( name = \"sub\", aliases = \"sub\", successHandler = \"handler\" )\n" +
+                "    public boolean sub( CommandContext context ) { return true; }\n" +
+                "    @SuccessHandler( \"handler\" )\n" +
+                "    public void handler( CommandContext context ) {}\n" +
+                "}\n" );
+        assertTrue( result.messages( Kind.WARNING ).toString(), result.messages( Kind.WARNING ).isEmpty() );
+        
+        List<ICommand> commands = parse( result, "test.Commands" );
+        assertEquals( 1, commands.size() );
+        ICommand main = commands.get( 0 );
+        assertEquals( "main", main.getName() );
+        assertEquals( Arrays.asList( "m", "main" ), new ArrayList<>( main.getAliases() ) );
+        assertFalse( main.isSubCommand() );
+        ICommand sub = main.getSubCommand( "sub" );
+        assertNotNull( sub );
+        assertEquals( "sub", sub.getName() );
+        assertTrue( sub.isSubCommand() );
+        
+    }
+    
+    @Test
+    public void testNestedNames() throws Exception {
+        
+        Result result = compile( "test.Outer", "package test;\n" + IMPORTS +
+                "public class Outer {\n" +
+                "    public static class Inner {\n" +
+                "        @MainCommand( name = \"nested\", aliases = \"nested\" )\n" +
+                "        public void command( CommandContext context ) {}\n" +
+                "    }\n" +
+                "}\n",
+                "test.Outer_Inner", "package test;\n" + IMPORTS +
+                "public class Outer_Inner {\n" +
+                "    @MainCommand( name = \"top\", aliases = \"top\" )\n" +
+                "    public void command( CommandContext context ) {}\n" +
+                "}\n" );
+        
+        assertEquals( "nested", parse( result, "test.Outer$Inner" ).get( 0 ).getName() );
+        assertEquals( "top", parse( result, "test.Outer_Inner" ).get( 0 ).getName() );
+        
+    }
+    
+    @Test
+    public void testGenericClass() throws Exception {
+        
+        Result result = compile( "test.Generic", "package test;\n" + IMPORTS +
+                "public class Generic<T extends Number> {\n" +
+                "    @MainCommand( name = \"generic\", aliases = \"generic\" )\n" +
+                "    public void command( CommandContext context ) {}\n" +
+                "}\n" );
+        
+        assertTrue( result.messages( Kind.WARNING ).toString(), result.messages( Kind.WARNING ).isEmpty() );
+        assertTrue( result.messages( Kind.MANDATORY_WARNING ).toString(),
+                result.messages( Kind.MANDATORY_WARNING ).isEmpty() );
+        assertEquals( "generic", parse( result, "test.Generic" ).get( 0 ).getName() );
+        
+    }
+    
+    @Test
+    public void testUnknownHandler() throws Exception {
+        
+        Result result = compile( "test.External", "package test;\n" + IMPORTS +
+                "public class External {\n" +
+                "    @MainCommand( name = \"external\", aliases = \"external\", failureHandler = \"missing\" )\n" +
+                "    public void command( CommandContext context ) {}\n" +
+                "}\n" );
+        
+        assertTrue( result.success );
+        assertTrue( result.messages( Kind.WARNING ).toString(),
+                result.has( Kind.WARNING, "Failure handler \"missing\" not found" ) );
+        
+    }
+    
+    @Test
+    public void testUnregisteredStaticHandler() throws Exception {
+        
+        Result result = compile( "test.Handlers", "package test;\n" + IMPORTS +
+                "public class Handlers {\n" +
+                "    @SuccessHandler( \"unregistered\" )\n" +
+                "    public static void handler( CommandContext context ) {}\n" +
+                "}\n",
+                "test.UsesStatic", "package test;\n" + IMPORTS +
+                "public class UsesStatic {\n" +
+                "    @MainCommand( name = \"static\", aliases = \"static\", successHandler = \"unregistered\" )\n" +
+                "    public void command( CommandContext context ) {}\n" +
+                "}\n" );
+        assertTrue( result.messages( Kind.WARNING ).toString(), result.messages( Kind.WARNING ).isEmpty() );
+        
+        try { // Not registered, so rejected the same way as through reflection.
+            parse( result, "test.UsesStatic" );
+            fail( "Unregistered static handler should not be used." );
+        } catch ( IllegalArgumentException e ) {
+            assertTrue( e.getMessage(), e.getMessage().contains( "\"unregistered\"" ) );
+        }
+        
+        try ( URLClassLoader loader = new URLClassLoader( new URL[] { result.output.toURI().toURL() },
+                getClass().getClassLoader() ) ) {
+            AnnotationParser.registerAnnotatedHandlers( loader.loadClass( "test.Handlers" ) );
+        }
+        assertEquals( "static", parse( result, "test.UsesStatic" ).get( 0 ).getName() );
+        
+    }
+    
+    @Test
+    public void testUnknownSubCommand() throws IOException {
+        
+        Result result = compileFailing( "Unknown",
+                "    @MainCommand( name = \"main\", aliases = \"main\", subCommands = \"none\" )\n" +
+                "    public void main( CommandContext context ) {}\n" );
+        assertTrue( result.has( Kind.ERROR, "Invalid subcommand \"none\"" ) );
+        
+    }
+    
+    @Test
+    public void testSubCommandLoop() throws IOException {
+        
+        Result result = compileFailing( "Loop",
+                "    @SubCommand( name = \"a\", aliases = \"a\", subCommands = \"b\" )\n" +
+                "    public void a( CommandContext context ) {}\n" +
+                "    @SubCommand( name = \"b\", aliases = \"b\", subCommands = \"a\" )\n" +
+                "    public void b( CommandContext context ) {}\n" );
+        assertTrue( result.has( Kind.ERROR, "Subcommand loop" ) );
+        
+    }
+    
+    @Test
+    public void testInvalidParameters() throws IOException {
+        
+        Result result = compileFailing( "Parameters",
+                "    @MainCommand( name = \"main\", aliases = \"main\" )\n" +
+                "    public void main( String context ) {}\n" );
+        assertTrue( result.has( Kind.ERROR, "Method parameters are not valid." ) );
+        
+    }
+    
+    @Test
+    public void testStaticCommand() throws IOException {
+        
+        Result result = compileFailing( "Static",
+                "    @MainCommand( name = \"main\", aliases = \"main\" )\n" +
+                "    public static void main( CommandContext context ) {}\n" );
+        assertTrue( result.has( Kind.ERROR, "Method is static." ) );
+        
+    }
+    
+    @Test
+    public void testRepeatedNames() throws IOException {
+        
+        Result result = compileFailing( "Repeated",
+                "    @SubCommand( name = \"sub\", aliases = \"a\" )\n" +
+                "    public void a( CommandContext context ) {}\n" +
+                "    @SubCommand( name = \"sub\", aliases = \"b\" )\n" +
+                "    public void b( CommandContext context ) {}\n" +
+                "    @SuccessHandler( \"handler\" )\n" +
+                "    public void c( CommandContext context ) {}\n" +
+                "    @SuccessHandler( \"handler\" )\n" +
+                "    public void d( CommandContext context ) {}\n" );
+        assertTrue( result.has( Kind.ERROR, "Subcommand with repeated name \"sub\"." ) );
+        assertTrue( result.has( Kind.ERROR, "Repeated success handler name \"handler\"." ) );
+        
+    }
+    
+    @Test
+    public void testInvalidRateLimit() throws IOException {
+        
+        Result result = compileFailing( "Limit",
+                "    @MainCommand( name = \"main\", aliases = \"main\", rateLimit = \"invalid\" )\n" +
+                "    public void main( CommandContext context ) {}\n" );
+        assertTrue( result.messages( Kind.ERROR ).toString(), result.has( Kind.ERROR, "\"main\": " ) );
+        
+    }
+    
+}
@@ -17,10 +17,15 @@
 
 package com.github.thiagotgm.modular_commands;
 
+import java.util.Arrays;
 import java.util.Scanner;
 
+import com.github.thiagotgm.modular_commands.api.CommandExecutor;
 import com.github.thiagotgm.modular_commands.api.CommandHandler;
 import com.github.thiagotgm.modular_commands.api.CommandRegistry;
+import com.github.thiagotgm.modular_commands.api.EmojiIndex;
+import com.github.thiagotgm.modular_commands.api.InviteCache;
+import com.github.thiagotgm.modular_commands.executor.OrderedCommandExecutor;
 import com.github.thiagotgm.modular_commands.included.DisableCommand;
 import com.github.thiagotgm.modular_commands.included.EnableCommand;
 import com.github.thiagotgm.modular_commands.included.HelpCommand;
@@ -54,14 +59,48 @@ public class ModularCommandsModule implements IModule {
         
     }
     
+    private final CommandExecutor executor;
     private CommandHandler handler;
     private IDiscordClient client;
+    
+    /**
+     * Creates a module that executes commands using an {@link OrderedCommandExecutor} with
+     * the default settings.
+     */
+    public ModularCommandsModule() {
+        
+        this.executor = null;
+        
+    }
+    
+    /**
+     * Creates a module that executes commands using the given executor.
+     * <p>
+     * The executor is <i>not</i> shut down when the module is disabled.
+     *
+     * @param executor The executor to be used to run commands.
+     * @throws NullPointerException if the executor is null.
+     */
+    public ModularCommandsModule( CommandExecutor executor ) throws NullPointerException {
+        
+        if ( executor == null ) {
+            throw new NullPointerException( "Executor cannot be null." );
+        }
+        this.executor = executor;
+        
+    }
 
     @Override
     public void disable() {
 
         client.getDispatcher().unregisterListener( handler );
+        handler.close();
+        if ( executor == null ) { // Executor was created by the module.
+            handler.getExecutor().shutdown();
+        }
         CommandRegistry.removeRegistry( client );
+        EmojiIndex.removeIndex( client );
+        InviteCache.removeCache( client );
         client = null; // Unregisters the handler to stop receiving events.
         handler = null;
 
@@ -71,14 +110,14 @@ public class ModularCommandsModule implements IModule {
     public boolean enable( IDiscordClient arg0 ) {
 
         CommandRegistry registry = CommandRegistry.getRegistry( arg0 );
-        handler = new CommandHandler( registry );
+        handler = new CommandHandler( registry,
+                ( executor == null ) ? new OrderedCommandExecutor() : executor );
         arg0.getDispatcher().registerListener( handler ); // Create a handler and register it.
         client = arg0;
         
         /* Register default commands */
-        registry.registerAnnotatedCommands( new HelpCommand() );
-        registry.registerAnnotatedCommands( new DisableCommand() );
-        registry.registerAnnotatedCommands( new EnableCommand() );
+        registry.registerAllAnnotatedCommands( Arrays.asList( new HelpCommand(), new DisableCommand(),
+                new EnableCommand() ) );
         
         return true;
         
@@ -17,6 +17,7 @@
 
 package com.github.thiagotgm.modular_commands.api;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -25,7 +26,6 @@ import sx.blah.discord.handle.obj.IUser;
 import sx.blah.discord.handle.obj.IChannel;
 import sx.blah.discord.handle.obj.IRole;
 import sx.blah.discord.handle.obj.IEmoji;
-import sx.blah.discord.handle.obj.IGuild;
 import sx.blah.discord.handle.obj.IInvite;
 
 import com.vdurmont.emoji.Emoji;
@@ -128,8 +128,11 @@ public class Argument {
     }
     
     private final String text;
-    private final Object argument;
-    private final Type type;
+    private volatile Object argument;
+    private volatile Type type;
+    /** Cache to look up the invite in, if the argument is an invite that was not looked up yet. */
+    private final InviteCache inviteCache;
+    private final String inviteCode;
 
     /**
      * Constructs an instance for the given argument, identifying the type of argument it is
@@ -141,8 +144,19 @@ public class Argument {
     Argument( String arg, IDiscordClient client ) {
         
         this.text = arg;
+        
+        Matcher matcher = INVITE.matcher( arg );
+        if ( matcher.matches() ) { // Check if arg is an invite.
+            this.inviteCache = InviteCache.getCache( client ); // Only look it up when needed.
+            this.inviteCode = matcher.group( 1 );
+            this.argument = null;
+            this.type = null;
+            return;
+        }
+        this.inviteCache = null;
+        this.inviteCode = null;
 
-        Matcher matcher = MENTION.matcher( arg );
+        matcher = MENTION.matcher( arg );
         if ( matcher.matches() ) { // Check if arg is a mention.
             long id;
             try {
@@ -207,15 +221,8 @@ public class Argument {
                 return;
             }
             
-            IEmoji emoji = null;
-            for ( IGuild guild : client.getGuilds() ) { // Try to find the emoji in each
-                                                    // of the guilds that the bot is in.
-                emoji = guild.getEmojiByID( id );
-                if ( emoji != null ) {
-                    break; // Found emoji, stop searching.
-                }
-                
-            }
+            // Find the emoji in the guilds that the bot is in.
+            IEmoji emoji = EmojiIndex.getIndex( client ).getEmoji( id );
             if ( emoji != null ) { // Found emoji.
                 this.argument = emoji;
                 this.type = Type.CUSTOM_EMOJI;
@@ -226,22 +233,78 @@ public class Argument {
             return;
         }
         
-        matcher = INVITE.matcher( arg );
-        if ( matcher.matches() ) { // Check if arg is an invite.
-            String code = matcher.group( 1 ); // Try to get the invite by its code.
-            IInvite invite = client.getInviteForCode( code );
+        this.argument = arg; // No types of argument matched. Treat as text.
+        this.type = Type.TEXT;
+        
+    }
+    
+    /**
+     * Stores the result of looking up the invite that this argument refers to, if it was
+     * not stored yet.
+     *
+     * @param invite The invite, or null if it was not found.
+     */
+    private synchronized void setInvite( IInvite invite ) {
+        
+        if ( type == null ) { // Not stored yet.
             if ( invite != null ) { // Found invite.
                 this.argument = invite;
                 this.type = Type.INVITE;
             } else { // Could not find invite. Treat as text.
-                this.argument = arg;
+                this.argument = text;
                 this.type = Type.TEXT;
             }
-            return;
         }
         
-        this.argument = arg; // No types of argument matched. Treat as text.
-        this.type = Type.TEXT;
+    }
+    
+    /**
+     * Ensures that the type and value of this argument are known, looking up the invite it
+     * refers to if necessary. Blocks until the lookup is done.
+     */
+    private void resolve() {
+        
+        if ( type == null ) {
+            setInvite( inviteCache.getInvite( inviteCode ) );
+        }
+        
+    }
+    
+    /**
+     * Determines whether the type and value of this argument are already known.
+     * <p>
+     * Arguments that look like an invite are only looked up (which requires a request to
+     * Discord) the first time their type or value is requested, or when {@link #resolveAsync()}
+     * is called. All other arguments are always resolved.
+     *
+     * @return true if the argument is resolved, false if it still needs to be looked up.
+     */
+    public boolean isResolved() {
+        
+        return type != null;
+        
+    }
+    
+    /**
+     * Resolves the type and value of this argument without blocking.
+     * <p>
+     * If the argument is already {@link #isResolved() resolved}, the returned future is
+     * already completed. Else, it is completed once the lookup is done, after which
+     * {@link #getType()} and {@link #getArgument()} return immediately.
+     *
+     * @return A future that is completed with this argument once it is resolved.
+     */
+    public CompletableFuture<Argument> resolveAsync() {
+        
+        if ( type != null ) {
+            return CompletableFuture.completedFuture( this );
+        }
+        return inviteCache.getInviteAsync( inviteCode ).thenApply( ( invite ) -> {
+            
+            setInvite( invite );
+            return this;
+            
+        });
         
     }
     
@@ -261,22 +324,28 @@ public class Argument {
      * <p>
      * The type of the object returned depends on the type of the argument, as
      * given by {@link #getType()}.
+     * <p>
+     * If the argument is not {@link #isResolved() resolved} yet, blocks until it is.
      *
      * @return The argument.
      */
     public Object getArgument() {
         
+        resolve();
         return argument;
         
     }
     
     /**
      * Retrieves the type of this argument.
+     * <p>
+     * If the argument is not {@link #isResolved() resolved} yet, blocks until it is.
      *
      * @return The type of argument.
      */
     public Type getType() {
         
+        resolve();
         return type;
         
     }
@@ -0,0 +1,201 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import sx.blah.discord.api.IDiscordClient;
+
+/**
+ * The typed parameters that a command takes, in order.
+ * <p>
+ * The arguments of a call to a command that has a schema are converted to the values of its
+ * parameters before the command is executed. If the arguments do not match the schema
+ * (too few or too many arguments, or an argument that is not valid for its parameter), the
+ * command fails with {@link FailureReason#INVALID_ARGUMENTS} without being executed.
+ * The converted values are available through {@link CommandContext#getParameters()}.
+ * <p>
+ * The parameters are validated when the schema is created:
+ * <ul>
+ *   <li>No two parameters can have the same name;</li>
+ *   <li>Optional parameters can only be followed by other optional parameters;</li>
+ *   <li>Only the last parameter can be varargs or of type {@link ParameterType#REST}.</li>
+ * </ul>
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-25
+ */
+public final class ArgumentSchema {
+    
+    private final Parameter[] parameters;
+    private final int required;
+    private final boolean variable;
+    
+    /**
+     * Creates a schema with the given parameters.
+     *
+     * @param parameters The parameters, in order.
+     * @throws NullPointerException if the array or one of the parameters is null.
+     * @throws IllegalArgumentException if the parameters are invalid (see class description).
+     */
+    public ArgumentSchema( Parameter... parameters )
+            throws NullPointerException, IllegalArgumentException {
+        
+        this( Arrays.asList( parameters ) );
+        
+    }
+    
+    /**
+     * Creates a schema with the given parameters.
+     *
+     * @param parameters The parameters, in order.
+     * @throws NullPointerException if the list or one of the parameters is null.
+     * @throws IllegalArgumentException if the parameters are invalid (see class description).
+     */
+    public ArgumentSchema( List<Parameter> parameters )
+            throws NullPointerException, IllegalArgumentException {
+        
+        if ( parameters == null ) {
+            throw new NullPointerException( "Parameter list cannot be null." );
+        }
+        this.parameters = parameters.toArray( new Parameter[ parameters.size() ] );
+        
+        Set<String> names = new HashSet<>();
+        int required = 0;
+        boolean optional = false;
+        for ( int i = 0; i < this.parameters.length; i++ ) { // Validate each parameter.
+            
+            Parameter parameter = this.parameters[i];
+            if ( parameter == null ) {
+                throw new NullPointerException( "Parameters cannot be null." );
+            }
+            if ( !names.add( parameter.getName() ) ) {
+                throw new IllegalArgumentException( "Duplicate parameter name \"" +
+                        parameter.getName() + "\"." );
+            }
+            boolean last = i == this.parameters.length - 1;
+            if ( !last && ( ( parameter.getArity() == Parameter.Arity.VARARGS ) ||
+                    ( parameter.getType() == ParameterType.REST ) ) ) {
+                throw new IllegalArgumentException( "Only the last parameter can be varargs or rest-of-line." );
+            }
+            if ( parameter.getArity() == Parameter.Arity.REQUIRED ) {
+                if ( optional ) {
+                    throw new IllegalArgumentException( "Required parameters cannot follow optional ones." );
+                }
+                required++;
+            } else {
+                optional = true;
+            }
+            
+        }
+        this.required = required;
+        this.variable = ( this.parameters.length > 0 ) &&
+                ( ( this.parameters[this.parameters.length - 1].getArity() == Parameter.Arity.VARARGS ) ||
+                  ( this.parameters[this.parameters.length - 1].getType() == ParameterType.REST ) );
+        
+    }
+    
+    /**
+     * Retrieves the parameters of this schema.
+     *
+     * @return The parameters, in order.
+     */
+    public List<Parameter> getParameters() {
+        
+        return Collections.unmodifiableList( Arrays.asList( parameters ) );
+        
+    }
+    
+    /**
+     * Converts the arguments of a call to the values of the parameters of this schema.
+     * <p>
+     * Parameters that are optional and were not given an argument are not included in the
+     * returned map. The value of a varargs parameter is a list of the converted arguments
+     * (empty if there are none).
+     *
+     * @param args The arguments.
+     * @param client The client that received the call.
+     * @return The values of the parameters, by name, or null if the arguments do not match
+     *         this schema.
+     */
+    public Map<String, Object> parse( List<String> args, IDiscordClient client ) {
+        
+        if ( ( args.size() < required ) || ( !variable && ( args.size() > parameters.length ) ) ) {
+            return null; // Wrong amount of arguments.
+        }
+        Map<String, Object> values = new HashMap<>();
+        int i = 0;
+        for ( Parameter parameter : parameters ) {
+            
+            if ( ( i == args.size() ) && ( parameter.getArity() != Parameter.Arity.VARARGS ) ) {
+                continue; // Optional parameter that was not given.
+            }
+            Object value;
+            if ( parameter.getType() == ParameterType.REST ) { // Take all remaining args.
+                value = String.join( " ", args.subList( i, args.size() ) );
+                i = args.size();
+            } else if ( parameter.getArity() == Parameter.Arity.VARARGS ) {
+                List<Object> list = new ArrayList<>( args.size() - i );
+                while ( i < args.size() ) {
+                    
+                    Object converted = parameter.convert( args.get( i++ ), client );
+                    if ( converted == null ) {
+                        return null;
+                    }
+                    list.add( converted );
+                    
+                }
+                value = list;
+            } else {
+                value = parameter.convert( args.get( i++ ), client );
+                if ( value == null ) {
+                    return null; // Invalid argument.
+                }
+            }
+            values.put( parameter.getName(), value );
+            
+        }
+        return values;
+        
+    }
+    
+    @Override
+    public String toString() {
+        
+        StringBuilder builder = new StringBuilder();
+        for ( Parameter parameter : parameters ) {
+            
+            if ( builder.length() > 0 ) {
+                builder.append( ' ' );
+            }
+            builder.append( parameter );
+            
+        }
+        return builder.toString();
+        
+    }
+    
+}
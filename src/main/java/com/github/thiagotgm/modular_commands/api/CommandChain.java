@@ -0,0 +1,255 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.api;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import sx.blah.discord.handle.obj.Permissions;
+
+/**
+ * A resolved command path, from a main command down to one of its (possibly nested) subcommands.
+ * <p>
+ * Everything about the path that does not depend on the call itself is computed once, when the
+ * chain is created, instead of on every call. In particular, the permissions required to call
+ * the last command in the path (merged with those of its parents, according to
+ * {@link ICommand#requiresParentPermissions()}) are stored as bitmasks, so checking them is
+ * a single AND-compare. The same applies to the {@link ExecutionPlan execution plan} of the chain.
+ * <p>
+ * The chains of the subcommands of a chain are created the first time they are resolved and
+ * then reused. Since the subcommands of a command may change, a cached chain is only reused if
+ * the subcommand that the alias currently resolves to is the same that the chain was built for.
+ * The remaining properties of a command are immutable (as specified by {@link ICommand}), so
+ * the chain never needs to be updated otherwise.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-24
+ */
+final class CommandChain {
+    
+    private static final Logger LOG = LoggerFactory.getLogger( CommandChain.class );
+    
+    private final ICommand command;
+    private final CommandChain parent;
+    private final int depth;
+    private final long requiredPermissions;
+    private final long requiredGuildPermissions;
+    private final Map<String, CommandChain> subChains;
+    private final ExecutionPlan plan;
+    
+    /**
+     * Creates a chain that ends with the given command.
+     *
+     * @param command The last command in the chain.
+     * @param parent The chain that ends with the parent of the command, or null if the command
+     *               is a main command.
+     */
+    private CommandChain( ICommand command, CommandChain parent ) {
+        
+        this.command = command;
+        this.parent = parent;
+        this.depth = ( parent == null ) ? 0 : ( parent.depth + 1 );
+        long requiredPermissions = toMask( command.getRequiredPermissions() );
+        long requiredGuildPermissions = toMask( command.getRequiredGuildPermissions() );
+        if ( ( parent != null ) && command.requiresParentPermissions() ) { // Include the
+            requiredPermissions |= parent.requiredPermissions;           // parent's requirements.
+            requiredGuildPermissions |= parent.requiredGuildPermissions;
+        }
+        this.requiredPermissions = requiredPermissions;
+        this.requiredGuildPermissions = requiredGuildPermissions;
+        this.subChains = new ConcurrentHashMap<>();
+        this.plan = new ExecutionPlan( this );
+        
+    }
+    
+    /**
+     * Creates the chain of a main command.
+     *
+     * @param mainCommand The main command.
+     * @return The chain that only contains the main command.
+     */
+    static CommandChain of( ICommand mainCommand ) {
+        
+        return new CommandChain( mainCommand, null );
+        
+    }
+    
+    /**
+     * Converts a set of permissions to a bitmask, where the bit of each permission is
+     * given by its ordinal.
+     *
+     * @param permissions The permissions.
+     * @return The bitmask.
+     */
+    static long toMask( Collection<Permissions> permissions ) {
+        
+        long mask = 0;
+        for ( Permissions permission : permissions ) {
+            
+            mask |= 1L << permission.ordinal();
+            
+        }
+        return mask;
+        
+    }
+    
+    /**
+     * Retrieves the last command in this chain, eg the command that is actually called.
+     *
+     * @return The command.
+     */
+    ICommand getCommand() {
+        
+        return command;
+        
+    }
+    
+    /**
+     * Retrieves the chain that ends with the parent of the last command in this chain.
+     *
+     * @return The parent chain, or null if this chain only has the main command.
+     */
+    CommandChain getParent() {
+        
+        return parent;
+        
+    }
+    
+    /**
+     * Retrieves the amount of subcommands in this chain.
+     *
+     * @return The amount of subcommands.
+     */
+    int getDepth() {
+        
+        return depth;
+        
+    }
+    
+    /**
+     * Retrieves the plan of how this chain is executed.
+     *
+     * @return The execution plan.
+     */
+    ExecutionPlan getPlan() {
+        
+        return plan;
+        
+    }
+    
+    /**
+     * Determines whether all the commands in this chain are effectively enabled.
+     *
+     * @return true if all the commands are enabled, false otherwise.
+     * @see ICommand#isEffectivelyEnabled()
+     */
+    boolean isEffectivelyEnabled() {
+        
+        for ( CommandChain chain = this; chain != null; chain = chain.parent ) {
+            
+            if ( !chain.command.isEffectivelyEnabled() ) {
+                return false;
+            }
+            
+        }
+        return true;
+        
+    }
+    
+    /**
+     * Retrieves the chain that continues this chain with the subcommand of the last command
+     * that has the given alias.
+     *
+     * @param alias The alias of the subcommand.
+     * @return The chain that ends with the subcommand, or null if there is no subcommand with
+     *         that alias.
+     */
+    CommandChain getSubChain( String alias ) {
+        
+        ICommand subCommand = command.getSubCommand( alias );
+        if ( subCommand == null ) {
+            return null; // No such subcommand.
+        }
+        CommandChain subChain = subChains.get( alias );
+        if ( ( subChain == null ) || ( subChain.command != subCommand ) ) { // Not built yet, or
+            subChain = new CommandChain( subCommand, this );                // subcommand changed.
+            subChains.put( alias, subChain );
+        }
+        return subChain;
+        
+    }
+    
+    /**
+     * Resolves the longest chain that starts with this chain and continues with the subcommands
+     * identified by the given arguments.
+     *
+     * @param args The arguments passed to the last command in this chain.
+     * @return The longest chain matched by the arguments.
+     */
+    CommandChain resolve( List<String> args ) {
+        
+        CommandChain chain = this;
+        for ( String arg : args ) {
+            
+            CommandChain subChain = chain.getSubChain( arg );
+            if ( subChain == null ) {
+                break; // Not a subcommand.
+            }
+            if ( LOG.isTraceEnabled() ) {
+                LOG.trace( "Identified subcommand \"" + subChain.command.getName() + "\"" );
+            }
+            chain = subChain;
+            
+        }
+        return chain;
+        
+    }
+    
+    /**
+     * Determines if the given <i>channel-overriden</i> permissions satisfy the requirements to
+     * call the last command in this chain.
+     *
+     * @param permissions The permissions, as given by {@link #toMask(Collection)}.
+     * @return true if all the required permissions are present, false otherwise.
+     */
+    boolean hasRequiredPermissions( long permissions ) {
+        
+        return ( requiredPermissions & permissions ) == requiredPermissions;
+        
+    }
+    
+    /**
+     * Determines if the given <i>server-wide</i> permissions satisfy the requirements to
+     * call the last command in this chain.
+     *
+     * @param permissions The permissions, as given by {@link #toMask(Collection)}.
+     * @return true if all the required permissions are present, false otherwise.
+     */
+    boolean hasRequiredGuildPermissions( long permissions ) {
+        
+        return ( requiredGuildPermissions & permissions ) == requiredGuildPermissions;
+        
+    }
+    
+}
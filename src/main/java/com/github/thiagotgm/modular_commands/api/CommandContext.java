@@ -20,6 +20,7 @@ package com.github.thiagotgm.modular_commands.api;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import sx.blah.discord.api.IDiscordClient;
@@ -40,6 +41,10 @@ import sx.blah.discord.util.MessageBuilder;
  * Also allows storing a helper object, that can be retrieved by any subcommands that
  * are called later in the execution chain (since all subcommands being executed share
  * the same Context).
+ * <p>
+ * Anything that is not needed to execute every command (the reply builder, the private
+ * channel for private replies, and the parsed arguments) is only created the first
+ * time it is requested.
  *
  * @version 1.0
  * @author ThiagoTGM
@@ -50,13 +55,10 @@ public class CommandContext {
     private final ICommand command;
     private final MessageReceivedEvent event;
     private final List<String> args;
-    private final IMessage message;
-    private final IUser author;
-    private final IChannel channel;
-    private final IGuild guild;
-    private final MessageBuilder replyBuilder;
+    private volatile MessageBuilder replyBuilder;
     private volatile Optional<Object> helper;
     private volatile List<Argument> arguments;
+    private volatile Map<String, Object> parameters;
 
     /**
      * Builds the context for a given command triggered by the given message event.
@@ -67,21 +69,29 @@ public class CommandContext {
      */
     public CommandContext( MessageReceivedEvent event, ICommand command, List<String> args ) {
 
+        this( event, command, args, true );
+        
+    }
+    
+    /**
+     * Builds the context for a given command triggered by the given message event, optionally
+     * using the given argument list directly instead of copying it.
+     *
+     * @param event The event that triggered the command.
+     * @param command The command being executed.
+     * @param args The arguments passed in to the command.
+     * @param copyArgs Whether the argument list should be copied. If false, the list must not be
+     *                 modified after the context is built.
+     */
+    CommandContext( MessageReceivedEvent event, ICommand command, List<String> args, boolean copyArgs ) {
+
         this.command = command;
         this.event = event;
-        this.args = Collections.unmodifiableList( new ArrayList<>( args ) );
-        this.message = event.getMessage();
-        this.author = event.getAuthor();
-        this.channel = event.getChannel();
-        this.guild = event.getGuild();
-        this.replyBuilder = new MessageBuilder( event.getClient() );
-        if ( command.replyPrivately() ) { // Reply to author on private channel.
-            this.replyBuilder.withChannel( this.author.getOrCreatePMChannel() );
-        } else { // Reply on original channel.
-            this.replyBuilder.withChannel( this.channel );
-        }
+        this.args = Collections.unmodifiableList( copyArgs ? new ArrayList<>( args ) : args );
+        this.replyBuilder = null;
         this.helper = Optional.empty();
         this.arguments = null;
+        this.parameters = Collections.emptyMap();
         
     }
     
@@ -130,23 +140,76 @@ public class CommandContext {
      * @return The list of (parsed) command arguments.
      * @see #getArgs()
      */
-    public synchronized List<Argument> getArguments() {
+    public List<Argument> getArguments() {
         
+        List<Argument> arguments = this.arguments;
         if ( arguments == null ) { // Hasn't parsed the arguments yet.
-            List<Argument> arguments = new ArrayList<>( args.size() );
-            IDiscordClient client = event.getClient();
-            for ( String arg : args ) { // Parse each argument.
-                
-                arguments.add( new Argument( arg, client ) );
-                
-            } // Store as an unmodifiable list.
-            this.arguments = Collections.unmodifiableList( arguments );
+            synchronized ( this ) {
+                arguments = this.arguments;
+                if ( arguments == null ) {
+                    List<Argument> parsed = new ArrayList<>( args.size() );
+                    IDiscordClient client = event.getClient();
+                    for ( String arg : args ) { // Parse each argument.
+                        
+                        parsed.add( new Argument( arg, client ) );
+                        
+                    } // Store as an unmodifiable list.
+                    arguments = Collections.unmodifiableList( parsed );
+                    this.arguments = arguments;
+                }
+            }
         }
-        
         return arguments;
         
     }
     
+    /**
+     * Sets the values of the typed parameters of the command, converted from the arguments.
+     *
+     * @param parameters The values of the parameters, by name.
+     */
+    void setParameters( Map<String, Object> parameters ) {
+        
+        this.parameters = Collections.unmodifiableMap( parameters );
+        
+    }
+    
+    /**
+     * Retrieves the values of the typed parameters of the command, converted from the arguments
+     * according to its {@link ICommand#getArgumentSchema() argument schema}.
+     * <p>
+     * Optional parameters that were not given an argument are not included. If the command does
+     * not have an argument schema, the returned map is empty.
+     * <p>
+     * The returned map is unmodifiable.
+     *
+     * @return The values of the parameters, by name.
+     * @see ArgumentSchema#parse(List, IDiscordClient)
+     */
+    public Map<String, Object> getParameters() {
+        
+        return parameters;
+        
+    }
+    
+    /**
+     * Retrieves the value of a typed parameter of the command, cast to the type that the caller
+     * expects (so a {@link ClassCastException} is thrown by the caller if the parameter is of
+     * another type).
+     *
+     * @param name The name of the parameter.
+     * @param <T> The type of the value.
+     * @return The value of the parameter, or null if there is no such parameter or it was
+     *         not given an argument.
+     * @see #getParameters()
+     */
+    @SuppressWarnings( "unchecked" )
+    public <T> T getParameter( String name ) {
+        
+        return (T) parameters.get( name );
+        
+    }
+    
     /**
      * Retrieves the message that contained the command.
      *
@@ -154,7 +217,7 @@ public class CommandContext {
      */
     public IMessage getMessage() {
         
-        return message;
+        return event.getMessage();
         
     }
     
@@ -165,7 +228,7 @@ public class CommandContext {
      */
     public IUser getAuthor() {
         
-        return author;
+        return event.getAuthor();
         
     }
     
@@ -176,7 +239,7 @@ public class CommandContext {
      */
     public IChannel getChannel() {
         
-        return channel;
+        return event.getChannel();
         
     }
     
@@ -187,7 +250,7 @@ public class CommandContext {
      */
     public IGuild getGuild() {
         
-        return guild;
+        return event.getGuild();
         
     }
     
@@ -197,11 +260,29 @@ public class CommandContext {
      * If the command specifies a private reply, the builder is set to send a direct
      * message to the user. Else, the builder is set to reply on the same channel that
      * the command message came from.
+     * <p>
+     * The builder (and the private channel, if needed) is only created the first time
+     * this is called.
      *
      * @return The builder for the command reply.
      */
     public MessageBuilder getReplyBuilder() {
         
+        MessageBuilder replyBuilder = this.replyBuilder;
+        if ( replyBuilder == null ) { // Hasn't created the builder yet.
+            synchronized ( this ) {
+                replyBuilder = this.replyBuilder;
+                if ( replyBuilder == null ) {
+                    replyBuilder = new MessageBuilder( event.getClient() );
+                    if ( command.replyPrivately() ) { // Reply to author on private channel.
+                        replyBuilder.withChannel( event.getAuthor().getOrCreatePMChannel() );
+                    } else { // Reply on original channel.
+                        replyBuilder.withChannel( event.getChannel() );
+                    }
+                    this.replyBuilder = replyBuilder;
+                }
+            }
+        }
         return replyBuilder;
         
     }
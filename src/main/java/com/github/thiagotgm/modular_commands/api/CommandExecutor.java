@@ -0,0 +1,64 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.api;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import sx.blah.discord.handle.impl.events.guild.channel.message.MessageReceivedEvent;
+
+/**
+ * Engine that runs the operations of commands triggered by a {@link CommandHandler}.
+ * <p>
+ * Each task given to the executor is the whole execution of a command (or of its failure
+ * handler) that was triggered by a message. The executor determines which thread runs it,
+ * when, and in what order relative to the tasks triggered by other messages.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-21
+ */
+public interface CommandExecutor {
+    
+    /**
+     * Submits a task triggered by the given message to be executed.
+     * <p>
+     * The task may be executed at some point in the future, in another thread.
+     *
+     * @param event The event of the message that triggered the task.
+     * @param task The task to be executed.
+     * @throws NullPointerException if either argument is null.
+     * @throws RejectedExecutionException if the task cannot be accepted for execution (for example,
+     *                                    if the executor is at full capacity or was shut down).
+     */
+    void execute( MessageReceivedEvent event, Runnable task )
+            throws NullPointerException, RejectedExecutionException;
+    
+    /**
+     * Retrieves the amount of tasks that were submitted to this executor and did not
+     * start executing yet.
+     *
+     * @return The amount of tasks waiting for execution.
+     */
+    int getQueueDepth();
+    
+    /**
+     * Stops accepting new tasks. Tasks that were already submitted are still executed.
+     */
+    void shutdown();
+    
+}
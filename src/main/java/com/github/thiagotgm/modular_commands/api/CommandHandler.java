@@ -18,21 +18,26 @@
 package com.github.thiagotgm.modular_commands.api;
 
 import java.util.ArrayList;
-import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
-import java.util.Stack;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.thiagotgm.modular_commands.executor.OrderedCommandExecutor;
+
 import sx.blah.discord.api.events.IListener;
 import sx.blah.discord.handle.impl.events.guild.channel.message.MessageReceivedEvent;
-import sx.blah.discord.handle.obj.Permissions;
 import sx.blah.discord.util.DiscordException;
 import sx.blah.discord.util.MissingPermissionsException;
 import sx.blah.discord.util.RequestBuilder;
@@ -56,34 +61,155 @@ public class CommandHandler implements IListener<MessageReceivedEvent> {
     private static final String WHITE_SPACE_REGEX = "\\s+";
     private static final Pattern WHITE_SPACE = Pattern.compile( WHITE_SPACE_REGEX );
     
-    /**
-     * Regex that matches a string that starts with a quote and, at some point before the end,
-     * has another quote that either is followed by one or more whitespaces or is the last character
-     * in the string.
-     * <p>
-     * eg, if the string is an argument string, matches it if the first argument in the string is between
-     * quotes (starts with a quote and end with a quote, followed by a whitespace or the end of the string).
-     */
-    private static final String QUOTED_ARG_REGEX = "\\A\".*\"(?:" + WHITE_SPACE_REGEX + ".*)?\\Z";
-    private static final int QUOTED_ARG_FLAGS = Pattern.DOTALL;
-    private static final Pattern QUOTED_ARG = Pattern.compile( QUOTED_ARG_REGEX, QUOTED_ARG_FLAGS );
+    /** Character that delimits an argument that may contain whitespace. */
+    private static final char QUOTE = '"';
     
     /**
-     * Matches a quote followed by one or more whitespaces or end of string.
+     * Timer shared by all handlers, used to fire success operations after their delay
+     * without blocking a thread while waiting.
      */
-    private static final String CLOSING_QUOTE_REGEX = "\"(?:" + WHITE_SPACE_REGEX + "|\\Z)";
-    private static final Pattern CLOSING_QUOTE = Pattern.compile( CLOSING_QUOTE_REGEX );
+    private static final ScheduledExecutorService SCHEDULER =
+            Executors.newSingleThreadScheduledExecutor( ( r ) -> {
+        
+        Thread thread = new Thread( r, "Command Success Scheduler" );
+        thread.setDaemon( true );
+        return thread;
+        
+    });
     
     private final CommandRegistry registry;
+    private final CommandExecutor executor;
+    private final Map<ICommand, RateLimiter> rateLimiters;
+    private final Map<ICommand, CooldownTracker> cooldowns;
+    private final PermissionCache permissionCache;
+    /** Forgets the state kept for commands that are removed from the registry. */
+    private final RegistryListener registryListener;
     
     /**
      * Creates a command handler that uses a given registry.
+     * <p>
+     * Commands are executed by a new {@link OrderedCommandExecutor} with the default settings.
      *
      * @param registry Registry that this handler should use.
      */
     public CommandHandler( CommandRegistry registry ) {
         
+        this( registry, new OrderedCommandExecutor() );
+        
+    }
+    
+    /**
+     * Creates a command handler that uses a given registry and executes commands with the given
+     * executor.
+     *
+     * @param registry Registry that this handler should use.
+     * @param executor Executor that should run the commands.
+     * @throws NullPointerException if the executor is null.
+     */
+    public CommandHandler( CommandRegistry registry, CommandExecutor executor )
+            throws NullPointerException {
+        
+        if ( executor == null ) {
+            throw new NullPointerException( "Executor cannot be null." );
+        }
+        
         this.registry = registry;
+        this.executor = executor;
+        this.rateLimiters = new ConcurrentHashMap<>();
+        this.cooldowns = new ConcurrentHashMap<>();
+        this.permissionCache = new PermissionCache();
+        this.registryListener = this::onRegistryChange;
+        registry.addListener( registryListener );
+        
+    }
+    
+    /**
+     * Stops this handler from tracking changes to its registry, and
+     * {@link PermissionCache#detach() detaches} its permission cache from the clients it
+     * listens to.
+     * <p>
+     * Should be called once the handler will no longer be used, as otherwise the registry and
+     * the clients keep references to it.
+     */
+    public void close() {
+        
+        registry.removeListener( registryListener );
+        permissionCache.detach();
+        
+    }
+    
+    /**
+     * Discards the rate limiters and cooldown trackers of commands that were removed from
+     * the registry.
+     *
+     * @param event The change to the registry.
+     */
+    private void onRegistryChange( RegistryEvent event ) {
+        
+        switch ( event.getType() ) {
+            
+            case COMMAND_UNREGISTERED:
+                forget( event.getCommand(), new HashSet<>() );
+                break;
+            
+            case SUBREGISTRY_REMOVED: // Every command in the subregistry was removed.
+                Set<ICommand> visited = new HashSet<>();
+                for ( ICommand command : event.getSubRegistry().getCommands() ) {
+                    
+                    forget( command, visited );
+                    
+                }
+                break;
+            
+            default:
+                break; // No commands were removed.
+            
+        }
+        
+    }
+    
+    /**
+     * Discards the rate limiter and cooldown tracker of the given command and of its subcommands
+     * (recursively).
+     *
+     * @param command The command that was removed.
+     * @param visited The commands already discarded, so that subcommand loops are not followed.
+     */
+    private void forget( ICommand command, Set<ICommand> visited ) {
+        
+        if ( !visited.add( command ) ) {
+            return; // Already discarded.
+        }
+        rateLimiters.remove( command );
+        cooldowns.remove( command );
+        for ( ICommand subCommand : command.getSubCommands() ) {
+            
+            forget( subCommand, visited );
+            
+        }
+        
+    }
+    
+    /**
+     * Retrieves the executor used to run the commands.
+     *
+     * @return The command executor.
+     */
+    public CommandExecutor getExecutor() {
+        
+        return executor;
+        
+    }
+    
+    /**
+     * Retrieves the cache of user permissions used to check if callers are allowed to call
+     * commands.
+     *
+     * @return The permission cache.
+     */
+    public PermissionCache getPermissionCache() {
+        
+        return permissionCache;
         
     }
 
@@ -101,6 +227,9 @@ public class CommandHandler implements IListener<MessageReceivedEvent> {
         if ( event.getMessage().getWebhookLongID() != 0 ) {
             return; // Ignore webhooks.
         }
+        if ( !registry.isCommand( event.getMessage().getContent() ) ) {
+            return; // Not a command. Discard before doing any processing.
+        }
 
         /* Get command and args */
         String message = event.getMessage().getContent().trim();
@@ -113,11 +242,12 @@ public class CommandHandler implements IListener<MessageReceivedEvent> {
         if ( LOG.isInfoEnabled() ) {
             LOG.info( "Parsing command " + split[0] );
         }
-        ICommand mainCommand = registry.parseCommand( split[0] );
-        if ( mainCommand == null ) {
+        CommandChain mainChain = registry.parseChain( split[0] );
+        if ( mainChain == null ) {
             LOG.trace( "No command found." );
             return; // No recognized command.
         }
+        ICommand mainCommand = mainChain.getCommand();
         if ( LOG.isTraceEnabled() ) {
             LOG.trace( "Identified main command " +
                     String.format( COMMAND_FORMAT, split[0], mainCommand.getName() ) + "." );
@@ -128,34 +258,31 @@ public class CommandHandler implements IListener<MessageReceivedEvent> {
         if ( LOG.isInfoEnabled() ) {
             LOG.info( "Parsing args " + args );
         }
-        List<ICommand> commands = new ArrayList<>();
-        commands.add( mainCommand );
-        commands.addAll( getSubcommands( mainCommand, args ) ); // Identify subcommands.
-        final ICommand command = commands.get( commands.size() - 1 ); // Actual command is the last
-        List<String> actualArgs = args.subList( commands.size() - 1, args.size() );  // subcommand.
-        final CommandContext context = new CommandContext( event, command, actualArgs );
+        CommandChain chain = mainChain.resolve( args ); // Identify subcommands.
+        ExecutionPlan plan = chain.getPlan();
+        final ICommand command = plan.getTarget(); // Actual command is the last subcommand.
+        List<String> actualArgs = args.subList( chain.getDepth(), args.size() );
+        final CommandContext context = new CommandContext( event, command, actualArgs, false );
         if ( LOG.isTraceEnabled() ) {
             LOG.trace( "Identified command " +
                     String.format( COMMAND_FORMAT, getCommandSignature( split[0], args,
-                            commands.size() - 1 ), command.getName() ) );
+                            chain.getDepth() ), command.getName() ) );
         }
         
         /* Check if the command should be executed */
-        for ( ICommand curCommand : commands ) { // Check that each command on the chain
-            if ( !curCommand.isEffectivelyEnabled() ) {                   // is enabled.
-                LOG.trace( "Command is disabled." );
-                return; // Command is disabled.
-            }
+        if ( !chain.isEffectivelyEnabled() ) { // Check that each command on the chain is enabled.
+            LOG.trace( "Command is disabled." );
+            return; // Command is disabled.
         }
-        if ( command.ignorePublic() && !event.getChannel().isPrivate() ) {
+        if ( plan.ignorePublic() && !event.getChannel().isPrivate() ) {
             LOG.trace( "Ignoring public execution." );
             return; // Ignore public command.
         }
-        if ( command.ignorePrivate() && event.getChannel().isPrivate() ) {
+        if ( plan.ignorePrivate() && event.getChannel().isPrivate() ) {
             LOG.trace( "Ignoring private execution." );
             return; // Ignore private command.
         }
-        if ( command.ignoreBots() && event.getAuthor().isBot() ) {
+        if ( plan.ignoreBots() && event.getAuthor().isBot() ) {
             LOG.trace( "Ignoring bot caller." );
             return; // Ignore bot.
         }
@@ -169,7 +296,7 @@ public class CommandHandler implements IListener<MessageReceivedEvent> {
             LOG.debug( "Command {} - checking permission", getCommandTrace( command, event ) );
         }
         RequestBuilder errorBuilder = new RequestBuilder( event.getClient() ); // Builds request for
-        errorBuilder.shouldBufferRequests( true ).setAsync( true );            // error handler.
+        errorBuilder.shouldBufferRequests( true ).setAsync( false );           // error handler.
         errorBuilder.onMissingPermissionsError( ( exception ) -> {
             // In case error handler hits a MissingPermissions error.
             LOG.warn( "Lacking permissions to execute operation.", exception );
@@ -180,72 +307,98 @@ public class CommandHandler implements IListener<MessageReceivedEvent> {
             LOG.error( "Discord error encountered while performing operation.", exception );
         
         });
-        if ( command.isNSFW() && event.getChannel().isNSFW() ) {
+        if ( plan.getArgumentSchema() != null ) { // Convert arguments before anything else.
+            Map<String, Object> parameters = plan.getArgumentSchema().parse( actualArgs, event.getClient() );
+            if ( parameters == null ) {
+                LOG.debug( "Invalid arguments." );
+                errorBuilder.doAction( () -> { // Arguments do not match the schema.
+                    
+                    command.onFailure( context, FailureReason.INVALID_ARGUMENTS );
+                    return true;
+                    
+                });
+                submit( event, errorBuilder );
+                return;
+            }
+            context.setParameters( parameters );
+        }
+        if ( !checkRateLimit( command, event ) ) {
+            LOG.debug( "Caller exceeded the rate limit." );
+            errorBuilder.doAction( () -> { // Command was called too many times.
+                
+                command.onFailure( context, FailureReason.RATE_LIMITED );
+                return true;
+                
+            });
+            submit( event, errorBuilder );
+            return;
+        }
+        if ( !checkCooldown( command, event ) ) {
+            LOG.debug( "Command is on cooldown." );
+            errorBuilder.doAction( () -> { // Command was called again too soon.
+                
+                command.onFailure( context, FailureReason.ON_COOLDOWN );
+                return true;
+                
+            });
+            submit( event, errorBuilder );
+            return;
+        }
+        if ( plan.isNSFW() && event.getChannel().isNSFW() ) {
             LOG.debug( "Channel is not NSFW." );
             errorBuilder.doAction( () -> { // Channel needs to be marked NSFW.
                 
                 command.onFailure( context, FailureReason.CHANNEL_NOT_NSFW );
                 return true;
                 
-            }).execute();
+            });
+            submit( event, errorBuilder );
             return;
         }
-        if ( command.requiresOwner() && !event.getClient().getApplicationOwner().equals( event.getAuthor() ) ) {
+        if ( plan.requiresOwner() && !event.getClient().getApplicationOwner().equals( event.getAuthor() ) ) {
             LOG.debug( "Caller is not the owner of the bot." );
             errorBuilder.doAction( () -> { // Command can only be called by bot owner.
                 
                 command.onFailure( context, FailureReason.USER_NOT_OWNER );
                 return true;
                 
-            }).execute();
+            });
+            submit( event, errorBuilder );
             return;
         }
-        EnumSet<Permissions> requiredPermissions = EnumSet.noneOf( Permissions.class );
-        EnumSet<Permissions> requiredGuildPermissions = EnumSet.noneOf( Permissions.class );
-        ListIterator<ICommand> iter = commands.listIterator( commands.size() );
-        while ( iter.hasPrevious() ) { // Get requirements for each command in the chain.
-            
-            ICommand cur = iter.previous(); // Get for the next in the chain.
-            requiredPermissions.addAll( cur.getRequiredPermissions() );
-            requiredGuildPermissions.addAll( cur.getRequiredGuildPermissions() );
-            if ( !cur.requiresParentPermissions() ) {
-                break; // Current command does not require parent's permissions.
-            }
-            
-        }
-        EnumSet<Permissions> channelPermissions = event.getChannel().getModifiedPermissions( event.getAuthor() );
-        if ( !channelPermissions.containsAll( requiredPermissions ) ) {
+        // Requirements of the whole chain were computed when the chain was built.
+        permissionCache.attach( event.getClient() ); // Make sure cache receives invalidations.
+        long channelPermissions = permissionCache.getPermissions( event.getChannel(), event.getAuthor() );
+        if ( !chain.hasRequiredPermissions( channelPermissions ) ) {
             LOG.debug( "Caller does not have the required permissions in the channel." );
             errorBuilder.doAction( () -> { // User does not have required channel-overriden permissions.
                 
                 command.onFailure( context, FailureReason.USER_MISSING_PERMISSIONS );
                 return true;
                 
-            }).execute();
+            });
+            submit( event, errorBuilder );
             return;
         }
         if ( event.getGuild() != null ) { // If message came from guild, check required permissions for it.
-            EnumSet<Permissions> guildPermissions = event.getAuthor().getPermissionsForGuild( event.getGuild() );
-            if ( !guildPermissions.containsAll( requiredGuildPermissions ) ) {
+            long guildPermissions = permissionCache.getPermissions( event.getGuild(), event.getAuthor() );
+            if ( !chain.hasRequiredGuildPermissions( guildPermissions ) ) {
                 LOG.debug( "Caller does not have the required permissions in the server." );
                 errorBuilder.doAction( () -> { // User does not have required server-wide permissions.
                     
                     command.onFailure( context, FailureReason.USER_MISSING_GUILD_PERMISSIONS );
                     return true;
                     
-                }).execute();
+                });
+                submit( event, errorBuilder );
                 return;
             }
         }
         
-        /* Get execution chain */
-        LOG.trace( "Permission check passed. Preparing to execute." );
-        Stack<ICommand> executionChain = new Stack<>(); // Gets all the parent commands that should also
-        buildExecutionChain( executionChain, commands ); // be executed.
-        
         /* Build request */
+        LOG.trace( "Permission check passed. Preparing to execute." );
         RequestBuilder builder = new RequestBuilder( event.getClient() );
-        builder.shouldBufferRequests( true ).setAsync( true );
+        builder.shouldBufferRequests( true ).setAsync( false ); // Executor handles threading.
         final AtomicBoolean permissionsError = new AtomicBoolean();
         builder.onMissingPermissionsError( ( exception ) -> {
             
@@ -268,7 +421,7 @@ public class CommandHandler implements IListener<MessageReceivedEvent> {
             context.setHelper( exception ); // Store exception in context.
             
         });
-        final ICommand firstCommand = executionChain.pop();
+        final ICommand firstCommand = plan.getCommand( 0 ); // Commands that should be executed
         builder.doAction( () -> {
             // Execute the first command in the chain.
             if ( LOG.isTraceEnabled() ) {
@@ -277,9 +430,9 @@ public class CommandHandler implements IListener<MessageReceivedEvent> {
             return firstCommand.execute( context );
             
         });
-        while ( !executionChain.isEmpty() ) {
+        for ( int i = 1; i < plan.size(); i++ ) { // were determined when the plan was built.
             // Execute each subsequent command in the chain.
-            final ICommand nextCommand = executionChain.pop();
+            final ICommand nextCommand = plan.getCommand( i );
             builder.andThen( () -> {
                 
                 if ( LOG.isTraceEnabled() ) {
@@ -305,7 +458,7 @@ public class CommandHandler implements IListener<MessageReceivedEvent> {
             return true;
             
         });
-        if ( command.deleteCommand() ) { // Command message should be deleted after
+        if ( plan.deleteCommand() ) { // Command message should be deleted after
             builder.andThen( () -> {     // successful execution.
                 
                 LOG.debug( "Successful execution. Deleting command message." );
@@ -323,9 +476,27 @@ public class CommandHandler implements IListener<MessageReceivedEvent> {
         builder.andThen( () -> { // In case command succeeds.
             
             LOG.debug( "Command succeeded." );
-            Thread.sleep( command.getOnSuccessDelay() ); // Wait specified time.
-            LOG.debug( "Executing success handler." );
-            command.onSuccess( context ); // Execute success operation.
+            long delay = plan.getOnSuccessDelay();
+            if ( delay > 0 ) { // Schedule success operation after specified time.
+                try {
+                    SCHEDULER.schedule( () -> {
+                        
+                        RequestBuilder request = successRequest( event, command, context );
+                        if ( !submit( event, request ) ) { // Executor is full, don't skip it.
+                            LOG.warn( "Executing success handler of command {} in the scheduler.",
+                                    getCommandTrace( command, event ) );
+                            request.execute();
+                        }
+                        
+                    }, delay, TimeUnit.MILLISECONDS );
+                } catch ( RejectedExecutionException e ) { // Could not schedule, don't skip it.
+                    LOG.error( "Could not schedule success handler. Executing it without the delay.", e );
+                    command.onSuccess( context );
+                }
+            } else { // Execute success operation immediately.
+                LOG.debug( "Executing success handler." );
+                command.onSuccess( context );
+            }
             return true;
             
         });
@@ -334,8 +505,122 @@ public class CommandHandler implements IListener<MessageReceivedEvent> {
         if ( LOG.isInfoEnabled() ) {
             LOG.info( "Executing command " + getCommandTrace( command, event ) );
         }
-        builder.execute(); // Execute the command.
-        CommandStats.incrementCount(); // Record command execution.
+        if ( submit( event, builder ) ) { // Execute the command.
+            CommandStats.incrementCount(); // Record command execution.
+        }
+        
+    }
+    
+    /**
+     * Checks if a call to the given command is within its rate limit, and if so counts
+     * the call against the limit.
+     *
+     * @param command The command being called.
+     * @param event The event that triggered the call.
+     * @return true if the call is allowed, false if the rate limit was exceeded.
+     */
+    private boolean checkRateLimit( ICommand command, MessageReceivedEvent event ) {
+        
+        RateLimit limit = command.getRateLimit();
+        if ( limit == null ) {
+            return true; // Not rate limited.
+        }
+        RateLimiter limiter = rateLimiters.get( command );
+        if ( ( limiter == null ) || !limiter.getLimit().equals( limit ) ) { // Create limiter.
+            limiter = rateLimiters.compute( command, ( c, l ) -> {
+                
+                return ( ( l != null ) && l.getLimit().equals( limit ) ) ? l :
+                        new RateLimiter( limit, RateLimiter.DEFAULT_MAX_BUCKETS );
+                
+            });
+        }
+        return limiter.tryAcquire( limit.getScope().getKey( event ) );
+        
+    }
+    
+    /**
+     * Checks if the given command is on cooldown for the caller, and if not starts
+     * the cooldown.
+     *
+     * @param command The command being called.
+     * @param event The event that triggered the call.
+     * @return true if the call is allowed, false if the command is on cooldown.
+     */
+    private boolean checkCooldown( ICommand command, MessageReceivedEvent event ) {
+        
+        Cooldown cooldown = command.getCooldown();
+        if ( cooldown == null ) {
+            return true; // No cooldown.
+        }
+        CooldownTracker tracker = cooldowns.get( command );
+        if ( ( tracker == null ) || !tracker.getCooldown().equals( cooldown ) ) { // Create tracker.
+            tracker = cooldowns.compute( command, ( c, t ) -> {
+                
+                return ( ( t != null ) && t.getCooldown().equals( cooldown ) ) ? t :
+                        new CooldownTracker( cooldown );
+                
+            });
+        }
+        return tracker.tryStart( cooldown.getScope().getKey( event ) );
+        
+    }
+    
+    /**
+     * Builds the request that executes the success operation of a command, for when it is
+     * executed after a delay.
+     *
+     * @param event The event that triggered the command.
+     * @param command The command that succeeded.
+     * @param context The context of the command.
+     * @return The request.
+     */
+    private static RequestBuilder successRequest( MessageReceivedEvent event, ICommand command,
+            CommandContext context ) {
+        
+        RequestBuilder builder = new RequestBuilder( event.getClient() );
+        builder.shouldBufferRequests( true ).setAsync( false );
+        builder.onMissingPermissionsError( ( exception ) -> {
+            
+            LOG.warn( "Lacking permissions to execute operation.", exception );
+            
+        });
+        builder.onDiscordError( ( exception ) -> {
+            
+            LOG.error( "Discord error encountered while performing operation.", exception );
+        
+        });
+        builder.onGeneralError( ( exception ) -> {
+            
+            LOG.error( "Unexpected exception thrown while performing operation.", exception );
+            
+        });
+        builder.doAction( () -> {
+            
+            LOG.debug( "Executing success handler." );
+            command.onSuccess( context ); // Execute success operation.
+            return true;
+            
+        });
+        return builder;
+        
+    }
+    
+    /**
+     * Submits the given request to the executor.
+     *
+     * @param event The event that triggered the request.
+     * @param request The request to be executed.
+     * @return true if the request was accepted by the executor, false if it was rejected.
+     */
+    private boolean submit( MessageReceivedEvent event, RequestBuilder request ) {
+        
+        try {
+            executor.execute( event, request::execute );
+            return true;
+        } catch ( RejectedExecutionException e ) {
+            LOG.warn( "Command executor rejected request.", e );
+            return false;
+        }
         
     }
     
@@ -347,81 +632,123 @@ public class CommandHandler implements IListener<MessageReceivedEvent> {
      * quote is preceded by either a space or the start of the string, and the second is followed by either
      * a space or the end of the string) is considered a single argument, not including the quotes (it may
      * have spaces within it (or other double-quotes, as long as they are followed by non-space characters).
+     * <p>
+     * The string is split in a single pass, so the time taken is linear on its length.
      *
      * @param argString The argument string to be split. Is assumed to not have any leading or trailing
      *                  whitespace.
      * @return The arguments in the given string.
      */
-    private List<String> splitArgs( String argString ) {
-        
-        if ( argString.isEmpty() ) {
-            return new LinkedList<>();
-        }
+    static List<String> splitArgs( String argString ) {
         
-        Pattern regex;
-        if ( QUOTED_ARG.matcher( argString ).matches() ) { // Next argument is between quotes.
-            regex = CLOSING_QUOTE;
-            argString = argString.substring( 1 ); // Remove the first quote.
-        } else { // Next argument ends at the next space.
-            regex = WHITE_SPACE;
+        List<String> args = new ArrayList<>();
+        int length = argString.length();
+        int closingQuote = -1; // Next closing quote, or length if there are no more.
+        int pos = 0;
+        while ( pos < length ) {
+            
+            int start = pos;
+            int end;
+            if ( argString.charAt( pos ) == QUOTE ) { // Check if arg is between quotes.
+                if ( closingQuote <= pos ) { // Last closing quote found is behind this arg.
+                    closingQuote = findClosingQuote( argString, pos + 1 );
+                }
+                if ( closingQuote < length ) { // Next argument is between quotes.
+                    start = pos + 1; // Skip the quotes.
+                    end = closingQuote;
+                    pos = closingQuote + 1;
+                } else { // No closing quote, so arg ends at the next whitespace.
+                    end = findWhitespace( argString, pos );
+                    pos = end;
+                }
+            } else { // Next argument ends at the next whitespace.
+                end = findWhitespace( argString, pos );
+                pos = end;
+            }
+            args.add( argString.substring( start, end ) );
+            while ( ( pos < length ) && isWhitespace( argString.charAt( pos ) ) ) {
+                pos++; // Skip whitespace between args.
+            }
+            
         }
-        String[] split = regex.split( argString, 2 ); // Split off the first argument.
-        List<String> args = splitArgs( ( split.length == 2 ) ? split[1] : "" ); // Split the remaining args.
-        args.add( 0, split[0] ); // Insert first arg at the beginning.
         
         return args; // Return the split args.
         
     }
     
     /**
-     * Obtains the subcommand chain of the given command with the given arguments.<br>
-     * That is, identifies the list of subcommands that matches the arguments.
+     * Finds the first quote, starting at the given index, that closes a quoted argument, eg that
+     * is followed by a whitespace or the end of the string.
+     * <p>
+     * Line terminators that are not whitespaces (such as <tt>\\u2028</tt>) are not treated specially,
+     * so a quote followed by one does not close an argument, even if it is the last character.
      *
-     * @param command Main command called.
-     * @param args Arguments passed in to the command.
-     * @return The chain of subcommands that match the args signature.
+     * @param argString The argument string.
+     * @param from The index to start searching from.
+     * @return The index of the closing quote, or the length of the string if there is none.
      */
-    private List<ICommand> getSubcommands( ICommand command, List<String> args ) {
-        
-        List<ICommand> chain = new ArrayList<>( args.size() );
-        if ( args.isEmpty() ) {
-            return chain; // No args left, so no more possible subcommands.
-        }
+    private static int findClosingQuote( String argString, int from ) {
         
-        String arg = args.get( 0 ); // Get next arg.
-        ICommand subCommand = command.getSubCommand( arg );
-        if ( subCommand != null ) { // Found a subcommand.
-            if ( LOG.isTraceEnabled() ) {
-                LOG.trace( "Identified subcommand \"" + subCommand.getName() + "\"" );
+        int length = argString.length();
+        for ( int i = from; i < length; i++ ) {
+            
+            if ( argString.charAt( i ) != QUOTE ) {
+                continue;
             }
-            chain.add( subCommand ); // Adds the subcommand to the command list.
-            chain.addAll( getSubcommands( subCommand, args.subList( 1, args.size() ) ) ); // Adds the subcommand's
-        }                                                                                 // subcommands.
-        return chain; // Return subcommand chain found.
+            if ( i + 1 == length ) {
+                return i; // End of the string.
+            }
+            if ( isWhitespace( argString.charAt( i + 1 ) ) ) {
+                return i; // Followed by whitespace.
+            }
+            
+        }
+        return length;
         
     }
     
     /**
-     * Builds the execution chain for the given commands.<br>
-     * That is, gets the commands that should be executed according to the {@link ICommand#executeParent()}
-     * setting of the commands.
-     * <p>
-     * After this method returns, the command on top of the stack is the first one that should be
-     * executed, with the other commands in the stack also being retrieved in the order that
-     * they should be executed.
+     * Finds the first whitespace in the given string, starting at the given index.
      *
-     * @param executionChain Where the commands to be executed should be added.
-     * @param commands The commands that were triggered.
+     * @param argString The argument string.
+     * @param from The index to start searching from.
+     * @return The index of the whitespace, or the length of the string if there is none.
      */
-    private void buildExecutionChain( Stack<ICommand> executionChain, List<ICommand> commands ) {
+    private static int findWhitespace( String argString, int from ) {
         
-        if ( commands.isEmpty() ) {
-            return; // No more commands to add.
+        int length = argString.length();
+        int i = from;
+        while ( ( i < length ) && !isWhitespace( argString.charAt( i ) ) ) {
+            
+            i++;
+            
         }
-        ICommand curCommand = commands.get( commands.size() - 1 ); // Gets the last command.
-        executionChain.push( curCommand ); // Add command to chain.
-        if ( curCommand.executeParent() ) { // If specified, add the command before it to the chain.
-            buildExecutionChain( executionChain, commands.subList( 0, commands.size() - 1 ) );
+        return i;
+        
+    }
+    
+    /**
+     * Determines if the given character is a whitespace (same set as the <tt>\\s</tt>
+     * regex class).
+     *
+     * @param c The character to check.
+     * @return true if it is a whitespace, false otherwise.
+     */
+    private static boolean isWhitespace( char c ) {
+        
+        switch ( c ) {
+            
+            case ' ':
+            case '\t':
+            case '\n':
+            case '\u000B':
+            case '\f':
+            case '\r':
+                return true;
+                
+            default:
+                return false;
+            
         }
         
     }
@@ -18,19 +18,25 @@
 package com.github.thiagotgm.modular_commands.api;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableSet;
-import java.util.PriorityQueue;
-import java.util.TreeMap;
+import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,6 +56,14 @@ import sx.blah.discord.modules.IModule;
  * as subregistries.
  * <p>
  * A registry can only be registered to one parent registry.
+ * <p>
+ * The commands, subregistries, and placeholders of a registry are kept in an immutable
+ * snapshot that is replaced whenever they change, so reading them (including looking up
+ * commands) never blocks. Changes to a registry are done one at a time.
+ * <p>
+ * Each registry also keeps an index of all the commands and registries in its hierarchy,
+ * by name, so finding a command or registry by name does not need to search the
+ * subregistries.
  *
  * @version 1.0
  * @author ThiagoTGM
@@ -65,27 +79,92 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
     
     private static final Logger LOG = LoggerFactory.getLogger( CommandRegistry.class );
     
+    /**
+     * Source of generation values. Every generation of every registry tree is taken from it,
+     * so a value from one tree never matches the generation of another tree.
+     */
+    private static final AtomicLong GENERATIONS = new AtomicLong();
+    /**
+     * Incremented whenever a command is enabled or disabled or has its subcommands changed,
+     * so cached information about commands can be checked for staleness.
+     */
+    private static final AtomicLong COMMAND_GENERATION = new AtomicLong();
+    
     private final Object linkedObject;
     private volatile boolean enabled;
     private volatile String prefix;
     private volatile Predicate<CommandContext> contextCheck;
     private final List<Predicate<CommandContext>> contextChecks;
     private volatile long lastChanged;
+    private final List<RegistryListener> listeners;
+    /**
+     * Generation of the tree that this registry is the root of. Advanced whenever the effective
+     * prefix or enabled state of a registry in the tree might have changed, so cached values of
+     * them can be checked for staleness. Only used while this registry is a root.
+     */
+    private final AtomicLong generation;
     /** Stores whether the registry is essential. */
     protected volatile boolean essential;
     
-    /** Table of commands, stored by name. */
-    private final Map<String, ICommand> commands;
-    /** Table of commands with specified prefix, stored by (each) signature. */
-    private final Map<String, PriorityQueue<ICommand>> withPrefix;
-    /** Table of commands with no specified prefix, stored by (each) signature. */
-    private final Map<String, PriorityQueue<ICommand>> noPrefix;
+    /**
+     * Commands, subregistries, and placeholders of this registry. Replaced (never modified)
+     * on every change, while holding the write lock, so reading it never blocks.
+     */
+    private volatile RegistryContents contents;
+    private final Object writeLock;
+    /**
+     * Held while registering commands into the tree that this registry is the root of, so
+     * checking that the names are unused and adding them to the command index happen
+     * atomically. Only used while this registry is a root.
+     */
+    private final Object registrationLock;
     
-    private volatile CommandRegistry parentRegistry;
-    /** Map of the subregistries registered in this registry and their names. */
+    /**
+     * Read-only view of the subregistries of this registry, by qualified name. Always reflects
+     * the current subregistries.
+     *
+     * @deprecated Subregistries are now kept in immutable snapshots, so this map cannot be
+     *             modified. Use {@link #registerSubRegistry(CommandRegistry)} and
+     *             {@link #unregisterSubRegistry(CommandRegistry)} to change them.
+     */
+    @Deprecated
     protected final Map<String, CommandRegistry> subRegistries;
-    /** Map of the placeholders stored in this registry and their names. */
+    /**
+     * Read-only view of the placeholders stored in this registry, by qualified name. Always
+     * reflects the current placeholders.
+     *
+     * @deprecated Placeholders are now kept in immutable snapshots, so this map cannot be
+     *             modified.
+     */
+    @Deprecated
     protected final Map<String, PlaceholderCommandRegistry> placeholders;
+    
+    private volatile CommandRegistry parentRegistry;
+    
+    /** Effective prefix and enabled state as of some generation. Null if never computed. */
+    private volatile EffectiveState effectiveState;
+    
+    /**
+     * Commands registered in this registry or its subregistries (recursively, including
+     * placeholders), by name. Updated on every registry up the hierarchy whenever a command
+     * or subregistry is added or removed.
+     */
+    private final Map<String, ICommand> commandIndex;
+    /**
+     * Subregistries and placeholders of this registry (recursively), by qualified name.
+     * Updated along with the command index.
+     */
+    private final Map<String, CommandRegistry> registryIndex;
+    
+    /**
+     * Compiled table of every signature that can be resolved from this registry and the
+     * command it resolves to. Null if it needs to be (re)compiled.
+     */
+    private volatile DispatchIndex dispatchIndex;
+    /** Incremented whenever the dispatch index is invalidated. */
+    private volatile long dispatchIndexVersion;
+    private final Object dispatchIndexLock;
+    
     /** Map of the root registries for each client. */
     private static final Map<IDiscordClient, ClientCommandRegistry> registries =
             Collections.synchronizedMap( new HashMap<>() );
@@ -124,13 +203,23 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
         this.contextCheck = null;
         this.contextChecks = Collections.synchronizedList( new LinkedList<>() );
         this.lastChanged = System.currentTimeMillis();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.generation = new AtomicLong( GENERATIONS.incrementAndGet() );
+        
+        this.contents = RegistryContents.EMPTY;
+        this.writeLock = new Object();
+        this.registrationLock = new Object();
+        this.subRegistries = new ContentsView<>( () -> contents.getSubRegistries() );
+        this.placeholders = new ContentsView<>( () -> contents.getPlaceholders() );
+        
+        this.commandIndex = new ConcurrentHashMap<>();
+        this.registryIndex = new ConcurrentHashMap<>();
         
-        this.commands = Collections.synchronizedMap( new HashMap<>() );
-        this.withPrefix = Collections.synchronizedMap( new HashMap<>() );
-        this.noPrefix = Collections.synchronizedMap( new HashMap<>() );
+        this.dispatchIndex = null;
+        this.dispatchIndexVersion = 0;
+        this.dispatchIndexLock = new Object();
         
-        this.subRegistries = Collections.synchronizedMap( new TreeMap<>() );
-        this.placeholders = Collections.synchronizedMap( new HashMap<>() );
+        this.effectiveState = null;
         
     }
     
@@ -317,30 +406,36 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
         LOG.trace( "Transferring subregistries and placeholders from \"{}\" to \"{}\".",
                 registry.getQualifiedName(), getQualifiedName() );
         
-        /* Transfer subregistries */
-        Iterator<CommandRegistry> subRegistryIter = registry.subRegistries.values().iterator();
-        while ( subRegistryIter.hasNext() ) {
+        /* Remove from the last one */
+        RegistryContents transferred;
+        synchronized ( registry.writeLock ) {
+            transferred = registry.contents;
+            registry.contents = transferred.withoutSubRegistries();
+        }
+        
+        /* Add to this registry */
+        synchronized ( writeLock ) {
+            contents = contents.withSubRegistries( transferred.getSubRegistries(),
+                    transferred.getPlaceholders() );
+        }
+        for ( CommandRegistry subRegistry : transferred.getSubRegistries().values() ) {
             
-            CommandRegistry subRegistry = subRegistryIter.next();
-            this.subRegistries.put( subRegistry.getQualifiedName(), subRegistry );
-            subRegistry.setRegistry( this ); // Add to this registry.
-            subRegistryIter.remove(); // Remove from the last one.
+            subRegistry.setRegistry( this );
             
         }
-        
-        /* Transfer placeholders */
-        Iterator<PlaceholderCommandRegistry> placeholderIter = registry.placeholders.values()
-                .iterator();
-        while ( placeholderIter.hasNext() ) {
+        for ( CommandRegistry placeholder : transferred.getPlaceholders().values() ) {
             
-            PlaceholderCommandRegistry placeholder = placeholderIter.next();
-            this.placeholders.put( placeholder.getQualifiedName(), placeholder );
-            placeholder.setRegistry( this ); // Add to this registry.
-            placeholderIter.remove(); // Remove from the last one.
+            placeholder.setRegistry( this );
             
         }
         setLastChanged( System.currentTimeMillis() );
         registry.setLastChanged( System.currentTimeMillis() );
+        for ( CommandRegistry subRegistry : transferred.getSubRegistries().values() ) {
+            
+            registry.fireEvent( RegistryEvent.Type.SUBREGISTRY_REMOVED, null, subRegistry );
+            fireEvent( RegistryEvent.Type.SUBREGISTRY_ADDED, null, subRegistry );
+            
+        }
         
     }
     
@@ -362,10 +457,12 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
             throw new IllegalArgumentException( "Attempted to register a registry into itself." );
         }
         String qualifiedName = registry.getQualifiedName();
-        if ( subRegistries.containsKey( qualifiedName ) ) {
-            return; // If already registered, do nothing.
+        synchronized ( writeLock ) {
+            if ( contents.getSubRegistries().containsKey( qualifiedName ) ) {
+                return; // If already registered, do nothing.
+            }
+            contents = contents.withSubRegistry( qualifiedName, registry );
         }
-        subRegistries.put( qualifiedName, registry );
         if ( registry.getRegistry() != null ) { // Unregister from previous registry if any.
             registry.getRegistry().unregisterSubRegistry( registry );
         }
@@ -373,6 +470,7 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
         LOG.info( "Adding subregistry \"{}\" to \"{}\".",
                 qualifiedName, getQualifiedName() );
         setLastChanged( System.currentTimeMillis() );
+        fireEvent( RegistryEvent.Type.SUBREGISTRY_ADDED, null, registry );
         
     }
     
@@ -384,12 +482,23 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
      */
     protected void unregisterSubRegistry( CommandRegistry registry ) {
         
-        if ( subRegistries.remove( registry.getQualifiedName() ) != null ) {
+        String qualifiedName = registry.getQualifiedName();
+        boolean removed;
+        synchronized ( writeLock ) {
+            removed = contents.getSubRegistries().containsKey( qualifiedName );
+            if ( removed ) {
+                contents = contents.withoutSubRegistry( qualifiedName );
+            }
+        }
+        if ( removed ) {
             registry.setRegistry( null );
             LOG.info( "Removing subregistry \"{}\" from \"{}\".",
                     registry.getQualifiedName(), getQualifiedName() );
         }
         setLastChanged( System.currentTimeMillis() );
+        if ( removed ) {
+            fireEvent( RegistryEvent.Type.SUBREGISTRY_REMOVED, null, registry );
+        }
         
     }
     
@@ -402,7 +511,24 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
      */
     public CommandRegistry getSubRegistry( String qualifiedName ) {
         
-        return subRegistries.get( qualifiedName );
+        return contents.getSubRegistries().get( qualifiedName );
+        
+    }
+    
+    /**
+     * Retrieves the registry in the hierarchy of this registry (its subregistries, recursively,
+     * including placeholders) that has the given qualified name, if one exists.
+     * <p>
+     * The registry is found through an index of the hierarchy, so this does not depend on the
+     * size of the hierarchy.
+     *
+     * @param qualifiedName The qualified name of the registry.
+     * @return The registry with the qualified name, or null if there is none in the hierarchy.
+     * @throws NullPointerException if the name passed in is null.
+     */
+    public CommandRegistry findRegistry( String qualifiedName ) throws NullPointerException {
+        
+        return registryIndex.get( qualifiedName );
         
     }
     
@@ -432,23 +558,40 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
         }
         
         String qualifiedName = qualifiedName( linkedClass, name );
-        CommandRegistry registry = subRegistries.get( qualifiedName );
+        CommandRegistry registry = findSubRegistry( contents, qualifiedName );
         if ( registry != null ) {
-            return registry; // Has an actual registry.
+            return registry; // Has an actual registry or a placeholder.
         }
-        registry = placeholders.get( qualifiedName );
-        if ( registry != null ) {
-            return registry; // Has a placeholder.
+        PlaceholderCommandRegistry placeholder;
+        synchronized ( writeLock ) {
+            registry = findSubRegistry( contents, qualifiedName ); // Check again with the lock.
+            if ( registry != null ) {
+                return registry;
+            }
+            LOG.info( "Creating placeholder for \"{}\" in \"{}\".", qualifiedName, getQualifiedName() );
+            placeholder = new PlaceholderCommandRegistry( qualifiers.get( linkedClass ), name );
+            contents = contents.withPlaceholder( qualifiedName, placeholder );
         }
-        LOG.info( "Creating placeholder for \"{}\" in \"{}\".", qualifiedName, getQualifiedName() );
-        PlaceholderCommandRegistry placeholder = // Create a new placeholder.
-                new PlaceholderCommandRegistry( qualifiers.get( linkedClass ), name );
-        placeholders.put( qualifiedName, placeholder );
         placeholder.setRegistry( this );
         return placeholder;
         
     }
     
+    /**
+     * Retrieves the subregistry or placeholder that has the given qualified name.
+     *
+     * @param contents The contents of the registry to search.
+     * @param qualifiedName The qualified name.
+     * @return The subregistry, or the placeholder if there is no subregistry, or null if there
+     *         is neither.
+     */
+    private static CommandRegistry findSubRegistry( RegistryContents contents, String qualifiedName ) {
+        
+        CommandRegistry registry = contents.getSubRegistries().get( qualifiedName );
+        return ( registry != null ) ? registry : contents.getPlaceholders().get( qualifiedName );
+        
+    }
+    
     /**
      * Deletes all empty placeholder registries starting from the calling registry and
      * going up the registry hierarchy, until hitting either a non-placeholder registry
@@ -458,18 +601,39 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
         
         CommandRegistry registry = this;
         while ( ( registry instanceof PlaceholderCommandRegistry ) &&
-                ( registry.subRegistries.isEmpty() ) &&
-                ( registry.placeholders.isEmpty() ) ) {
+                ( registry.contents.getSubRegistries().isEmpty() ) &&
+                ( registry.contents.getPlaceholders().isEmpty() ) ) {
             
             CommandRegistry parent = registry.getRegistry();
             LOG.debug( "Removing empty placeholder \"{}\".", registry.getQualifiedName() );
-            parent.placeholders.remove( registry.getQualifiedName() );
+            parent.removePlaceholder( registry.getQualifiedName() );
             registry = parent;
             
         }
         
     }
     
+    /**
+     * Removes the placeholder with the given qualified name, if there is one.
+     *
+     * @param qualifiedName The qualified name of the placeholder.
+     * @return The removed placeholder, or null if there was no such placeholder.
+     */
+    private PlaceholderCommandRegistry removePlaceholder( String qualifiedName ) {
+        
+        PlaceholderCommandRegistry placeholder;
+        synchronized ( writeLock ) {
+            placeholder = contents.getPlaceholders().get( qualifiedName );
+            if ( placeholder == null ) {
+                return null; // No placeholder.
+            }
+            contents = contents.withoutPlaceholder( qualifiedName );
+        }
+        placeholder.setRegistry( null );
+        return placeholder;
+        
+    }
+    
     /**
      * Removes the subregistry with the given name that is linked to an object of the
      * given class, if it exists.
@@ -501,13 +665,14 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
         }
         
         String qualifiedName = qualifiedName( linkedClass, name );
-        CommandRegistry subRegistry = subRegistries.get( qualifiedName );
+        CommandRegistry subRegistry = contents.getSubRegistries().get( qualifiedName );
         if ( subRegistry == null ) {
             return null; // No subregistry found.
         }
         unregisterSubRegistry( subRegistry );
-        if ( subRegistry.subRegistries.isEmpty() && // No sub-subregistries
-             subRegistry.placeholders.isEmpty() ) { // or placeholders.
+        RegistryContents subContents = subRegistry.contents;
+        if ( subContents.getSubRegistries().isEmpty() && // No sub-subregistries
+             subContents.getPlaceholders().isEmpty() ) { // or placeholders.
             // Delete all ancestors that are placeholders and became irrelevant.
             cleanPlaceholders();
         } else { // Needs to keep the sub-subregistries and placeholders.
@@ -515,7 +680,9 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
             PlaceholderCommandRegistry placeholder = new PlaceholderCommandRegistry(
                     subRegistry.getQualifier(), subRegistry.getName() );
             placeholder.transferSubRegistries( subRegistry );
-            placeholders.put( qualifiedName, placeholder );
+            synchronized ( writeLock ) {
+                contents = contents.withPlaceholder( qualifiedName, placeholder );
+            }
             placeholder.setRegistry( this );
         }
         return subRegistry;
@@ -549,7 +716,7 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
         }
         
         String qualifiedName = qualifiedName( linkedClass, name );
-        CommandRegistry subRegistry = subRegistries.get( qualifiedName );
+        CommandRegistry subRegistry = contents.getSubRegistries().get( qualifiedName );
         if ( subRegistry == null ) {
             return null; // No subregistry found.
         }
@@ -587,7 +754,7 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
         }
         
         String qualifiedName = qualifiedName( linkedClass, name );
-        CommandRegistry registry = subRegistries.get( qualifiedName );
+        CommandRegistry registry = contents.getSubRegistries().get( qualifiedName );
         if ( registry == null ) { // Subregistry not found, create one.
             LOG.info( "Creating subregistry \"{}\" in \"{}\".", qualifiedName, getQualifiedName() );
             Class<? extends CommandRegistry> registryType = registryTypes.get( linkedClass );
@@ -600,7 +767,7 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
                 return null; // Error encountered.
             }
 
-            PlaceholderCommandRegistry placeholder = placeholders.remove( qualifiedName );
+            PlaceholderCommandRegistry placeholder = removePlaceholder( qualifiedName );
             if ( placeholder != null ) { // Registry has a placeholder.
                 LOG.debug( "Absorbing placeholder." );
                 registry.transferSubRegistries( placeholder );
@@ -639,7 +806,8 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
         if ( module == null ) {
             throw new NullPointerException( "Module argument cannot be null." );
         }
-        return subRegistries.containsKey( qualifiedName( ModuleCommandRegistry.QUALIFIER, module.getName() ) );
+        return contents.getSubRegistries().containsKey(
+                qualifiedName( ModuleCommandRegistry.QUALIFIER, module.getName() ) );
         
     }
     
@@ -671,7 +839,7 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
      */
     public NavigableSet<CommandRegistry> getSubRegistries() {
         
-        return new TreeSet<>( subRegistries.values() );
+        return new TreeSet<>( contents.getSortedSubRegistries() );
         
     }
     
@@ -702,7 +870,128 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
     @Override
     public void setRegistry( CommandRegistry registry ) {
         
+        CommandRegistry previous = this.parentRegistry;
+        CommandRegistry previousRoot = getRoot();
+        if ( previous != null ) { // Remove hierarchy from the indexes of the previous parents.
+            previous.unindexRegistry( this );
+        }
         this.parentRegistry = registry;
+        if ( registry != null ) { // Add hierarchy to the indexes of the new parents.
+            registry.indexRegistry( this );
+        }
+        previousRoot.advanceTreeGeneration(); // Inherited prefix and enabled state may have
+        advanceTreeGeneration();              // changed, in both the old and the new tree.
+        invalidateSubtreeIndex(); // Inherited prefix may have changed.
+        
+    }
+    
+    /**
+     * Performs an operation while holding the registration lock of the root of this registry,
+     * so that no other command is registered in the same tree until it finishes.
+     * <p>
+     * If this registry is moved to another tree before the lock is obtained, the lock of the
+     * new root is obtained instead.
+     *
+     * @param operation The operation to perform.
+     * @param <T> The type of the result of the operation.
+     * @return The result of the operation.
+     */
+    private <T> T whileRegistering( Supplier<T> operation ) {
+        
+        while ( true ) {
+            
+            CommandRegistry root = getRoot();
+            synchronized ( root.registrationLock ) {
+                if ( root == getRoot() ) { // Still the root of this registry.
+                    return operation.get();
+                }
+            }
+            
+        }
+        
+    }
+    
+    /**
+     * Adds the given commands to the command index of this registry and of all the
+     * registries above it in the hierarchy.
+     *
+     * @param commands The commands to add.
+     */
+    private void indexCommands( Collection<ICommand> commands ) {
+        
+        for ( CommandRegistry cur = this; cur != null; cur = cur.getRegistry() ) {
+            
+            for ( ICommand command : commands ) {
+                
+                cur.commandIndex.put( command.getName(), command );
+                
+            }
+            
+        }
+        
+    }
+    
+    /**
+     * Removes the given commands from the command index of this registry and of all the
+     * registries above it in the hierarchy.
+     *
+     * @param commands The commands to remove.
+     */
+    private void unindexCommands( Collection<ICommand> commands ) {
+        
+        for ( CommandRegistry cur = this; cur != null; cur = cur.getRegistry() ) {
+            
+            for ( ICommand command : commands ) {
+                
+                cur.commandIndex.remove( command.getName(), command );
+                
+            }
+            
+        }
+        
+    }
+    
+    /**
+     * Adds the given subregistry and its hierarchy to the indexes of this registry and of
+     * all the registries above it in the hierarchy.
+     *
+     * @param registry The subregistry being added.
+     */
+    private void indexRegistry( CommandRegistry registry ) {
+        
+        for ( CommandRegistry cur = this; cur != null; cur = cur.getRegistry() ) {
+            
+            cur.registryIndex.put( registry.getQualifiedName(), registry );
+            cur.registryIndex.putAll( registry.registryIndex );
+            cur.commandIndex.putAll( registry.commandIndex );
+            
+        }
+        
+    }
+    
+    /**
+     * Removes the given subregistry and its hierarchy from the indexes of this registry and
+     * of all the registries above it in the hierarchy.
+     *
+     * @param registry The subregistry being removed.
+     */
+    private void unindexRegistry( CommandRegistry registry ) {
+        
+        for ( CommandRegistry cur = this; cur != null; cur = cur.getRegistry() ) {
+            
+            cur.registryIndex.remove( registry.getQualifiedName(), registry );
+            for ( Map.Entry<String, CommandRegistry> entry : registry.registryIndex.entrySet() ) {
+                
+                cur.registryIndex.remove( entry.getKey(), entry.getValue() );
+                
+            }
+            for ( Map.Entry<String, ICommand> entry : registry.commandIndex.entrySet() ) {
+                
+                cur.commandIndex.remove( entry.getKey(), entry.getValue() );
+                
+            }
+            
+        }
         
     }
     
@@ -714,8 +1003,11 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
     public void setPrefix( String prefix ) {
         
         this.prefix = prefix;
+        advanceTreeGeneration();
         LOG.debug( "Setting prefix of \"{}\" to \"{}\".", getQualifiedName(), prefix );
+        invalidateSubtreeIndex(); // Effective prefix of subregistries may have changed.
         setLastChanged( System.currentTimeMillis() );
+        fireEvent( RegistryEvent.Type.PREFIX_CHANGED, null, null );
         
     }
     
@@ -744,9 +1036,149 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
                     ( ( enabled ) ? "enabled" : "disabled" ) + "." );
         }
         this.enabled = enabled;
+        advanceTreeGeneration();
+        setLastChanged( System.currentTimeMillis() );
+        fireEvent( RegistryEvent.Type.ENABLED_CHANGED, null, null );
 
     }
     
+    /**
+     * Retrieves the <i>effective</i> prefix of this registry.
+     * <p>
+     * The value is cached until the next change to the prefix, enabled state, or parent of a
+     * registry in the same tree.
+     *
+     * @return The effective prefix used for this registry.
+     * @throws IllegalStateException if this registry has no declared prefix and is not
+     *                               registered to a registry that has an effective prefix.
+     */
+    @Override
+    public String getEffectivePrefix() throws IllegalStateException {
+        
+        String prefix = getEffectiveState().prefix;
+        if ( prefix == null ) {
+            throw new IllegalStateException( "Tried to obtain effective prefix before registering." );
+        }
+        return prefix;
+        
+    }
+    
+    /**
+     * Determines whether this registry is currently <i>effectively</i> enabled.
+     * <p>
+     * The value is cached until the next change to the prefix, enabled state, or parent of a
+     * registry in the same tree.
+     *
+     * @return true if currently <i> effectively enabled</i>, false if <i>effectively disabled</i>.
+     */
+    @Override
+    public boolean isEffectivelyEnabled() {
+        
+        return getEffectiveState().enabled;
+        
+    }
+    
+    /**
+     * Retrieves the effective state of this registry, recomputing it if the cached state is
+     * from an older generation.
+     *
+     * @return The current effective state.
+     */
+    private EffectiveState getEffectiveState() {
+        
+        long generation = getGeneration(); // Read before the state it depends on.
+        EffectiveState state = effectiveState;
+        if ( ( state == null ) || ( state.generation != generation ) ) { // Stale.
+            CommandRegistry parent = getRegistry();
+            String prefix = getPrefix();
+            if ( ( prefix == null ) && ( parent != null ) ) { // Inherit prefix.
+                prefix = inheritPrefix( parent );
+            }
+            boolean enabled = isEnabled() && ( ( parent == null ) || parent.isEffectivelyEnabled() );
+            state = new EffectiveState( generation, prefix, enabled );
+            effectiveState = state;
+        }
+        return state;
+        
+    }
+    
+    /**
+     * Retrieves the current generation of the effective state of the registry tree that this
+     * registry is part of.
+     * <p>
+     * The generation changes whenever the prefix, enabled state, or parent of a registry in the
+     * tree changes (including registries being added to or removed from the tree), so a value
+     * derived from the effective prefix or enabled state of a registry in the tree can be cached
+     * along with the generation it was computed at, and is up to date for as long as the
+     * generation stays the same. Changes to other trees do not change it.
+     * <p>
+     * The generation never decreases, and values are never shared between trees.
+     *
+     * @return The current generation of the tree.
+     */
+    public long getGeneration() {
+        
+        return getRoot().generation.get();
+        
+    }
+    
+    /**
+     * Advances the generation of the tree that this registry is currently part of.
+     */
+    private void advanceTreeGeneration() {
+        
+        long next = GENERATIONS.incrementAndGet();
+        getRoot().generation.accumulateAndGet( next, Math::max ); // Never go back.
+        
+    }
+    
+    /**
+     * Retrieves the current generation of commands.
+     * <p>
+     * The generation changes when a command is enabled or disabled or has its subcommands
+     * changed, if the command implementation {@link #advanceCommandGeneration() advances} it,
+     * so information about commands can be cached along with the generation it was computed at.
+     * It does not affect the {@link #getGeneration() generation} of registry trees.
+     *
+     * @return The current generation of commands.
+     */
+    public static long getCommandGeneration() {
+        
+        return COMMAND_GENERATION.get();
+        
+    }
+    
+    /**
+     * Advances the generation of commands.
+     * <p>
+     * Should be called by command implementations after a change to their enabled state
+     * or subcommands, so that cached information about them is updated.
+     *
+     * @see #getCommandGeneration()
+     */
+    public static void advanceCommandGeneration() {
+        
+        COMMAND_GENERATION.incrementAndGet();
+        
+    }
+    
+    /**
+     * Retrieves the effective prefix of a registry to be inherited by something registered
+     * to it.
+     *
+     * @param registry The registry to inherit from.
+     * @return The effective prefix of the registry, or null if it has none.
+     */
+    private static String inheritPrefix( CommandRegistry registry ) {
+        
+        try {
+            return registry.getEffectivePrefix();
+        } catch ( IllegalStateException e ) {
+            return null; // Registry is not in a hierarchy with a prefix.
+        }
+        
+    }
+    
     @Override
     public boolean isEssential() {
         
@@ -788,6 +1220,8 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
         } else { // Remove context check.
             LOG.debug( "Removing all context checks for \"{}\".", getQualifiedName() );
         }
+        setLastChanged( System.currentTimeMillis() );
+        fireEvent( RegistryEvent.Type.CONTEXT_CHECK_CHANGED, null, null );
         
     }
     
@@ -817,6 +1251,8 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
             this.contextCheck = this.contextCheck.and( contextCheck );
         }
         contextChecks.add( contextCheck );
+        setLastChanged( System.currentTimeMillis() );
+        fireEvent( RegistryEvent.Type.CONTEXT_CHECK_CHANGED, null, null );
         
     }
     
@@ -841,7 +1277,6 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
         
         if ( contextChecks.isEmpty() ) {
             this.contextCheck = null; // No more context checks.
-            return;
         } else {
             /* Remakes context check from remaining checks */
             Iterator<Predicate<CommandContext>> iter = contextChecks.iterator();
@@ -852,6 +1287,8 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
                 
             }
         }
+        setLastChanged( System.currentTimeMillis() );
+        fireEvent( RegistryEvent.Type.CONTEXT_CHECK_CHANGED, null, null );
         
     }
     
@@ -935,7 +1372,9 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
      * Registers a command into the calling registry.<br>
      * The command will fail to be added if there is already a command in the registry hierarchy
      * (parent and sub registries) with the same name (eg the command name must be unique).
-     * (placeholder subregistries are also counted).
+     * (placeholder subregistries are also counted).<br>
+     * That check is done on the command index of the root registry, and no other command can
+     * be registered in the hierarchy between the check and the command being added to it.
      * <p>
      * If the command was already registered to another registry (that is not part of the
      * hierarchy of the calling registry), it is unregistered from it first.<br>
@@ -954,49 +1393,36 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
             LOG.info( "Attempting to register command " + getCommandString( command ) + " to \"" +
                     getQualifiedName() + "\"." );
         }
-        /* Check for fail cases */
-        boolean fail = false;
-        if ( command.isSubCommand() ) {
-            fail = true; // Sub commands cannot be registered directly.
-        } else if ( getRoot().getCommand( command.getName() ) != null ) {
-            fail = true; // Check if there is a command in the chain with the same name.
-        }
-        if ( fail ) {
-            LOG.error( "Failed to register command \"{}\".", command.getName() );
-            return false; // Error found.
-        }
-        
-        /* Add to main table */
-        if ( command.getRegistry() != null ) { // Unregister from current registry if any.
-            command.getRegistry().unregisterCommand( command );
-        }
-        command.setRegistry( this );
-        commands.put( command.getName(), command ); // Add command to main table.
-        
-        /* Add identifiers to the appropriate table */
-        Collection<String> identifiers;
-        Map<String, PriorityQueue<ICommand>> commandTable;
-        if ( command.getPrefix() != null ) { // Command specifies a prefix.
-            identifiers = command.getSignatures();
-            commandTable = withPrefix; // Add signatures to table of commands with prefix.
-        } else { // Command does not specify a prefix.
-            identifiers = command.getAliases();
-            commandTable = noPrefix; // Add aliases to table of commands without prefix.
-        }
-        for ( String identifier : identifiers ) { // For each identifier (signature or alias).
+        boolean registered = whileRegistering( () -> {
             
-            PriorityQueue<ICommand> queue = commandTable.get( identifier ); // Get queue of commands with
-            if ( queue == null ) {                                          // that identifier.
-                queue = new PriorityQueue<>(); // If none, initialize it.
-                commandTable.put( identifier, queue );
+            /* Check for fail cases */
+            if ( command.isSubCommand() ) {
+                return false; // Sub commands cannot be registered directly.
+            } else if ( getRoot().commandIndex.containsKey( command.getName() ) ) {
+                return false; // Check if there is a command in the chain with the same name.
+            }
+            
+            /* Add to main table */
+            if ( command.getRegistry() != null ) { // Unregister from current registry if any.
+                command.getRegistry().unregisterCommand( command );
+            }
+            command.setRegistry( this );
+            synchronized ( writeLock ) {
+                contents = contents.withCommands( Collections.singletonList( command ) );
             }
-            queue.add( command ); // Add command to list of commands with that identifier.
+            indexCommands( Collections.singletonList( command ) );
+            return true;
             
+        } );
+        if ( !registered ) {
+            LOG.error( "Failed to register command \"{}\".", command.getName() );
+            return false; // Error found.
         }
         if ( LOG.isInfoEnabled() ) {
             LOG.info( "Registered command \"" + command.getName() + "\"." );
         }
         setLastChanged( System.currentTimeMillis() );
+        fireEvent( RegistryEvent.Type.COMMAND_REGISTERED, command, null );
         return true;
         
     }
@@ -1008,20 +1434,79 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
      * will be registered to this registry.<br>
      * They will also be unregistered from their previous registry, if any.
      * <p>
-     * Commands that fail to be registered are unchanged.
+     * Commands that fail to be registered are unchanged. A command fails to be registered for
+     * the same reasons as in {@link #registerCommand(ICommand)}, or if an earlier command in the
+     * collection has the same name.
+     * <p>
+     * The names of the commands are checked against the command index of the root registry
+     * (with no other command being registered in the hierarchy until they are added to it),
+     * and the registered commands all become visible at the same time (a command
+     * lookup never sees only part of them), with a single change to the
+     * {@link #getLastChanged() last changed} time.
      *
      * @param commands The commands to be registered.
      */
     public void registerAllCommands( Collection<ICommand> commands ) {
         
-        for ( ICommand command : commands ) { // Register each command.
+        LOG.info( "Attempting to register {} commands to \"{}\".", commands.size(), getQualifiedName() );
+        List<ICommand> toRegister = whileRegistering( () -> {
             
-            try {
-                registerCommand( command );
-            } catch ( NullPointerException e ) {
-                LOG.error( "Command collection included null.", e );
+            Map<String, ICommand> used = getRoot().commandIndex; // Names used in the hierarchy.
+            Set<String> names = new HashSet<>(); // Names used in the collection.
+            
+            List<ICommand> checked = new ArrayList<>( commands.size() );
+            for ( ICommand command : commands ) { // Check each command.
+                
+                if ( command == null ) {
+                    LOG.error( "Command collection included null." );
+                    continue;
+                }
+                if ( LOG.isInfoEnabled() ) {
+                    LOG.info( "Attempting to register command " + getCommandString( command ) + " to \"" +
+                            getQualifiedName() + "\"." );
+                }
+                if ( command.isSubCommand() || used.containsKey( command.getName() ) ||
+                        !names.add( command.getName() ) ) {
+                    LOG.error( "Failed to register command \"{}\".", command.getName() );
+                    continue; // Subcommand or repeated name.
+                }
+                checked.add( command );
+                
+            }
+            if ( checked.isEmpty() ) {
+                return checked; // Nothing to register.
             }
             
+            for ( ICommand command : checked ) { // Unregister from current registry if any.
+                
+                if ( command.getRegistry() != null ) {
+                    command.getRegistry().unregisterCommand( command );
+                }
+                command.setRegistry( this );
+                
+            }
+            synchronized ( writeLock ) { // All are published at once.
+                contents = contents.withCommands( checked );
+            }
+            indexCommands( checked );
+            return checked;
+            
+        } );
+        if ( toRegister.isEmpty() ) {
+            return; // Nothing to register.
+        }
+        if ( LOG.isInfoEnabled() ) {
+            for ( ICommand command : toRegister ) {
+                
+                LOG.info( "Registered command \"" + command.getName() + "\"." );
+                
+            }
+        }
+        setLastChanged( System.currentTimeMillis() );
+        for ( ICommand command : toRegister ) {
+            
+            fireEvent( RegistryEvent.Type.COMMAND_REGISTERED, command, null );
+            
         }
         
     }
@@ -1056,6 +1541,31 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
         
     }
     
+    /**
+     * Parses the annotated commands from each of the given objects and registers all the parsed
+     * main commands into this registry.
+     * <p>
+     * The objects are parsed concurrently (on the common {@link java.util.concurrent.ForkJoinPool
+     * fork-join pool}), then all the commands are registered at once through
+     * {@link #registerAllCommands(Collection)}. If two commands have the same name, the one
+     * parsed from the object that comes first in the collection is registered.
+     *
+     * @param objs The objects to parse commands from.
+     * @throws NullPointerException if the collection or one of the objects is null.
+     */
+    public void registerAllAnnotatedCommands( Collection<?> objs ) throws NullPointerException {
+        
+        if ( objs.contains( null ) ) {
+            throw new NullPointerException( "Objects cannot be null." );
+        }
+        List<ICommand> parsed = objs.parallelStream()
+                                    .map( ( obj ) -> new AnnotationParser( obj ).parse() )
+                                    .flatMap( List::stream )
+                                    .collect( Collectors.toList() );
+        registerAllCommands( parsed );
+        
+    }
+    
     /**
      * Unregisters a command from this registry.
      *
@@ -1072,35 +1582,23 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
             LOG.info( "Attempting to deregister command " + getCommandString( command ) + " from \"" +
                     getQualifiedName() + "\"." );
         }
-        if ( commands.get( command.getName() ) != command ) {
-            if ( LOG.isInfoEnabled() ) {
-                LOG.error( "Failed to deregister command \"" + command.getName() + "\"." );
-            }
-            return false; // No command with this name, or the command registered with this name was not
-        }                 // the one given.
-        commands.remove( command.getName() );
-        
-        /* Remove identifiers from the appropriate table */
-        Collection<String> identifiers;
-        Map<String, PriorityQueue<ICommand>> commandTable;
-        if ( command.getPrefix() != null ) { // Command specifies a prefix.
-            identifiers = command.getSignatures();
-            commandTable = withPrefix; // Add signatures to table of commands with prefix.
-        } else { // Command does not specify a prefix.
-            identifiers = command.getAliases();
-            commandTable = noPrefix; // Add aliases to table of commands without prefix.
-        }
-        for ( String identifier : identifiers ) { // For each identifier (signature or alias).
-            
-            commandTable.get( identifier ).remove( command ); // Remove command from the queue of commands with
-                                                              // that identifier.
+        synchronized ( writeLock ) {
+            if ( contents.getCommands().get( command.getName() ) != command ) {
+                if ( LOG.isInfoEnabled() ) {
+                    LOG.error( "Failed to deregister command \"" + command.getName() + "\"." );
+                }
+                return false; // No command with this name, or the command registered with this name
+            }                 // was not the one given.
+            contents = contents.withoutCommand( command ); // Also removes its identifiers.
         }
+        unindexCommands( Collections.singletonList( command ) );
         
         command.setRegistry( null );
         if ( LOG.isInfoEnabled() ) {
             LOG.info( "Deregistered command \"" + command.getName() + "\"." );
         }
         setLastChanged( System.currentTimeMillis() );
+        fireEvent( RegistryEvent.Type.COMMAND_UNREGISTERED, command, null );
         return true;
         
     }
@@ -1136,9 +1634,18 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
     public void clear() {
         
         LOG.info( "Clearing all commands in registry {}.", getQualifiedName() );
-        commands.clear();
-        withPrefix.clear();
-        noPrefix.clear();
+        Collection<ICommand> removed;
+        synchronized ( writeLock ) {
+            removed = contents.getCommands().values();
+            contents = contents.withoutCommands();
+        }
+        unindexCommands( removed );
+        setLastChanged( System.currentTimeMillis() );
+        for ( ICommand command : removed ) {
+            
+            fireEvent( RegistryEvent.Type.COMMAND_UNREGISTERED, command, null );
+            
+        }
         
     }
     
@@ -1151,7 +1658,7 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
      */
     public ICommand getRegisteredCommand( String name ) {
         
-        return commands.get( name );
+        return contents.getCommands().get( name );
         
     }
     
@@ -1169,7 +1676,7 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
             return c1.getName().compareTo( c2.getName() );
             
         });
-        commands.addAll( this.commands.values() );
+        commands.addAll( contents.getCommands().values() );
         return commands;
         
     }
@@ -1180,6 +1687,9 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
      * <p>
      * The search on the subregistries also includes their respective subregistries
      * (eg searches recursively). Placeholder subregistries are also searched.
+     * <p>
+     * The command is found through an index of the hierarchy, so this does not depend on the
+     * size of the hierarchy.
      *
      * @param name The name of the command.
      * @return The command in this registry or its subregistries with the given name,
@@ -1187,27 +1697,7 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
      */
     public ICommand getCommand( String name ) {
         
-        ICommand command = getRegisteredCommand( name );
-        if ( command != null ) {
-            return command; // Found command in this registry.
-        }
-        for ( CommandRegistry subRegistry : getSubRegistries() ) { // Check each subregistry.
-            
-            command = subRegistry.getCommand( name );
-            if ( command != null ) {
-                return command; // Found command in a subregistry.
-            }
-            
-        }
-        for ( CommandRegistry placeholder : placeholders.values() ) { // Check each placeholder.
-            
-            command = placeholder.getCommand( name );
-            if ( command != null ) {
-                return command; // Found command in a subregistry.
-            }
-            
-        }
-        return null; // Command not found.
+        return commandIndex.get( name );
         
     }
     
@@ -1224,7 +1714,7 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
     public NavigableSet<ICommand> getCommands() {
         
         NavigableSet<ICommand> commands = getRegisteredCommands();
-        for ( CommandRegistry subRegistry : getSubRegistries() ) {
+        for ( CommandRegistry subRegistry : contents.getSortedSubRegistries() ) {
             // Add commands from subregistries.
             commands.addAll( subRegistry.getCommands() );
             
@@ -1236,6 +1726,11 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
     /**
      * Retrieves the command, in this registry or one of its subregistries (recursively),
      * whose signature matches the signature given.
+     * <p>
+     * The lookup is done on a compiled index of all the signatures that can be resolved
+     * from this registry, so it does not depend on the size of the registry hierarchy.
+     * The index is recompiled on the first lookup after a change to this registry or one
+     * of its subregistries.
      *
      * @param signature Signature to be matched.
      * @param enableLogging Whether log messages should be enabled. Set this to false when doing
@@ -1245,55 +1740,172 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
      */
     public ICommand parseCommand( String signature, boolean enableLogging ) {
         
-        if ( enableLogging ) {
-            LOG.trace( "Parsing \"{}\" in registry \"{}\".", signature, getQualifiedName() );
+        ICommand command = getDispatchIndex().getCommand( signature );
+        if ( enableLogging && LOG.isTraceEnabled() ) {
+            LOG.trace( "Registry \"{}\" parsed \"{}\": {}.", getQualifiedName(), signature,
+                    ( command == null ) ? null : ( "\"" + command.getName() + "\"" ) );
         }
-        ICommand command = null;
+        return command;
         
-        /* Search this registry */
-        PriorityQueue<ICommand> commandQueue = withPrefix.get( signature );
-        if ( commandQueue != null ) { // Found a queue of commands with the given signature.
-            command = commandQueue.peek(); // Get the first one.
+    }
+    
+    /**
+     * Retrieves the command chain of the main command, in this registry or one of its
+     * subregistries (recursively), whose signature matches the signature given.
+     *
+     * @param signature Signature to be matched.
+     * @return The chain of the command with the given signature, or null if none found.
+     * @see #parseCommand(String, boolean)
+     */
+    CommandChain parseChain( String signature ) {
+        
+        CommandChain chain = getDispatchIndex().getChain( signature );
+        if ( LOG.isTraceEnabled() ) {
+            LOG.trace( "Registry \"{}\" parsed \"{}\": {}.", getQualifiedName(), signature,
+                    ( chain == null ) ? null : ( "\"" + chain.getCommand().getName() + "\"" ) );
         }
-        String registryPrefix = getEffectivePrefix();
-        if ( signature.startsWith( registryPrefix ) ) { // Command has the same prefix as the registry.
-            // Remove the prefix and check the commands with no specified prefix.
-            commandQueue = noPrefix.get( signature.substring( registryPrefix.length() ) );
-            if ( commandQueue != null ) { // Found commands with same alias.
-                ICommand candidate = commandQueue.peek(); // Get the first one.
-                if ( ( candidate != null ) && ( ( command == null ) || ( candidate.compareTo( command ) < 0 ) ) ) {
-                    command = candidate; // Keeps it if it has higher precedence than the current command.
+        return chain;
+        
+    }
+    
+    /**
+     * Determines whether the first word in the given message (ignoring leading and trailing
+     * whitespace) is the signature of a command in this registry or one of its subregistries
+     * (recursively), eg whether {@link #parseCommand(String)} would find a command for it.
+     * <p>
+     * This check does not allocate any objects, so it can be used to cheaply discard messages
+     * that are not commands.
+     *
+     * @param message The message to check.
+     * @return true if the message starts with a command signature, false otherwise.
+     * @throws NullPointerException if the message is null.
+     */
+    public boolean isCommand( String message ) throws NullPointerException {
+        
+        return getDispatchIndex().startsWithSignature( message );
+        
+    }
+    
+    /**
+     * Retrieves the dispatch index of this registry, compiling it if the current one
+     * is out of date.
+     *
+     * @return The index of signatures that can be resolved from this registry.
+     */
+    private DispatchIndex getDispatchIndex() {
+        
+        DispatchIndex index = dispatchIndex;
+        if ( index == null ) { // Needs to be compiled.
+            long version = dispatchIndexVersion;
+            index = compileDispatchIndex();
+            synchronized ( dispatchIndexLock ) {
+                if ( version == dispatchIndexVersion ) { // Only store if there were no
+                    dispatchIndex = index;               // changes while compiling.
                 }
             }
         }
-        if ( ( command != null ) && !command.isOverrideable() ) {
-            if ( enableLogging ) {
-                LOG.trace( "Registry \"{}\" found: \"{}\" (not overrideable).", getQualifiedName(),
-                        command.getName() );
-            }
-            return command; // Found a command and it can't be overriden.
+        return index;
+        
+    }
+    
+    /**
+     * Compiles the table of all signatures that can be resolved from this registry.
+     * <p>
+     * A signature resolves to the command with the highest precedence among the commands
+     * in this registry that have that signature, unless there is a command with the same
+     * signature in a subregistry and the command in this registry can be overriden, in which
+     * case it resolves to the command with highest precedence among the subregistries.
+     *
+     * @return The compiled index.
+     */
+    private DispatchIndex compileDispatchIndex() {
+        
+        LOG.trace( "Compiling dispatch index of registry \"{}\".", getQualifiedName() );
+        Map<String, ICommand> index = new HashMap<>();
+        
+        /* Get commands from this registry */
+        RegistryContents contents = this.contents;
+        for ( Map.Entry<String, List<ICommand>> entry : contents.getWithPrefix().entrySet() ) {
+            
+            index.put( entry.getKey(), entry.getValue().get( 0 ) ); // Get the first one.
+            
+        }
+        String registryPrefix = getEffectivePrefix();
+        for ( Map.Entry<String, List<ICommand>> entry : contents.getNoPrefix().entrySet() ) {
+            // Keeps the first one if it has higher precedence than the current command.
+            index.merge( registryPrefix + entry.getKey(), entry.getValue().get( 0 ),
+                    CommandRegistry::higherPrecedence );
+            
         }
         
-        /* Check if a subregistry has the command */
-        ICommand subCommand = null;
-        for ( CommandRegistry subRegistry : getSubRegistries() ) {
-
-            ICommand candidate = subRegistry.parseCommand( signature, enableLogging );
-            if ( ( candidate != null ) && ( ( subCommand == null ) || ( candidate.compareTo( subCommand ) < 0 ) ) ) {
-                subCommand = candidate; // Keeps it if it has higher precedence than the current command.
+        /* Get commands from subregistries */
+        Map<String, ICommand> subCommands = new HashMap<>();
+        for ( CommandRegistry subRegistry : contents.getSortedSubRegistries() ) {
+            
+            for ( Map.Entry<String, ICommand> entry : subRegistry.getDispatchIndex().getCommands().entrySet() ) {
+                // Keeps the one with highest precedence among the subregistries.
+                subCommands.merge( entry.getKey(), entry.getValue(), CommandRegistry::higherPrecedence );
+                
             }
             
         }
-        if ( subCommand != null ) {
-            command = subCommand; // A command from a subregistry always has higher precedence than
-        }                         // the current registry.
+        for ( Map.Entry<String, ICommand> entry : subCommands.entrySet() ) {
+            
+            ICommand command = index.get( entry.getKey() );
+            if ( ( command == null ) || command.isOverrideable() ) {
+                index.put( entry.getKey(), entry.getValue() ); // A command from a subregistry always has
+            }                                                  // higher precedence than this registry.
+            
+        }
         
-        if ( enableLogging && LOG.isTraceEnabled() ) {
-            LOG.trace( "Registry \"{}\" found: {}.", getQualifiedName(),
-                    ( command == null ) ? null : ( "\"" + command.getName() + "\"" ) );
+        return index.isEmpty() ? DispatchIndex.EMPTY
+                               : new DispatchIndex( Collections.unmodifiableMap( index ) );
+        
+    }
+    
+    /**
+     * Determines which of two commands has the higher precedence.
+     *
+     * @param c1 The first command.
+     * @param c2 The second command.
+     * @return The command with the higher precedence.
+     * @see ICommand#compareTo(ICommand)
+     */
+    private static ICommand higherPrecedence( ICommand c1, ICommand c2 ) {
+        
+        return ( c2.compareTo( c1 ) < 0 ) ? c2 : c1;
+        
+    }
+    
+    /**
+     * Marks the dispatch index of this registry as out of date.
+     */
+    private void invalidateIndex() {
+        
+        synchronized ( dispatchIndexLock ) {
+            
+            dispatchIndexVersion++;
+            dispatchIndex = null;
+            
         }
-        return command; // Returns what was found in this registry. Will be null if not found in this
-                        // registry.        
+        
+    }
+    
+    /**
+     * Marks the dispatch index of this registry and all of its subregistries (recursively)
+     * as out of date.
+     * <p>
+     * Used when a change might affect the effective prefix of the subregistries.
+     */
+    private void invalidateSubtreeIndex() {
+        
+        invalidateIndex();
+        for ( CommandRegistry subRegistry : contents.getSortedSubRegistries() ) {
+            
+            subRegistry.invalidateSubtreeIndex();
+            
+        }
+        
     }
     
     /**
@@ -1326,21 +1938,91 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
     protected void setLastChanged( long lastChanged ) {
         
         this.lastChanged = lastChanged;
+        invalidateIndex(); // Dispatch index needs to be recompiled.
         if ( getRegistry() != null ) {
             getRegistry().setLastChanged( lastChanged );
         }
         
     }
     
+    /**
+     * Adds a listener to be notified of changes to this registry or any of its subregistries
+     * (recursively).
+     *
+     * @param listener The listener to add.
+     * @throws NullPointerException if the listener is null.
+     * @see RegistryEvent
+     */
+    public void addListener( RegistryListener listener ) throws NullPointerException {
+        
+        if ( listener == null ) {
+            throw new NullPointerException( "Listener cannot be null." );
+        }
+        listeners.add( listener );
+        
+    }
+    
+    /**
+     * Removes a listener from this registry, if it was added to it.
+     *
+     * @param listener The listener to remove.
+     * @return true if the listener was removed, false if it was not added to this registry.
+     */
+    public boolean removeListener( RegistryListener listener ) {
+        
+        return listeners.remove( listener );
+        
+    }
+    
+    /**
+     * Notifies the listeners of this registry and of all the registries above it in the
+     * hierarchy of a change to this registry.
+     * <p>
+     * Placeholders are not part of the hierarchy, so changes to a placeholder (or to the
+     * registries under it) are not notified.
+     *
+     * @param type The type of change.
+     * @param command The command that was registered or unregistered, if any.
+     * @param subRegistry The subregistry that was added or removed, if any.
+     */
+    private void fireEvent( RegistryEvent.Type type, ICommand command, CommandRegistry subRegistry ) {
+        
+        RegistryEvent event = null;
+        for ( CommandRegistry cur = this; cur != null; cur = cur.getRegistry() ) {
+            
+            if ( cur instanceof PlaceholderCommandRegistry ) {
+                return; // Not part of the hierarchy.
+            }
+            for ( RegistryListener listener : cur.listeners ) {
+                
+                if ( event == null ) { // Only create if there is a listener.
+                    event = new RegistryEvent( type, this, command, subRegistry );
+                }
+                try {
+                    listener.onChange( event );
+                } catch ( RuntimeException e ) {
+                    LOG.error( "Registry listener threw an exception.", e );
+                }
+                
+            }
+            
+        }
+        
+    }
+    
     /**
      * Gets the last time when this registry or one of its subregistries was changed.
      * <p>
      * Changes counted by this include:
      * <ul>
      *   <li>Registering or de-registering a command;</li>
-     *   <li>Registering or de-registering a subregistry.</li>
-     *   <li>Changing the prefix of the subregistry.</li>
+     *   <li>Registering or de-registering a subregistry;</li>
+     *   <li>Changing the prefix of the subregistry;</li>
+     *   <li>Enabling or disabling the subregistry;</li>
+     *   <li>Changing the context checks of the subregistry.</li>
      * </ul>
+     * <p>
+     * To find out what changed, use a {@link #addListener(RegistryListener) listener}.
      *
      * @return The time of the last change, in milliseconds from epoch.
      * @see System#currentTimeMillis()
@@ -1351,4 +2033,91 @@ public abstract class CommandRegistry implements Disableable, Prefixed, Comparab
         
     }
     
+    /**
+     * Effective prefix and enabled state of a registry, as of a certain generation.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2017-09-25
+     */
+    private static final class EffectiveState {
+        
+        /** Generation the state was computed at. */
+        final long generation;
+        /** Effective prefix, or null if there is none. */
+        final String prefix;
+        /** Whether the registry is effectively enabled. */
+        final boolean enabled;
+        
+        /**
+         * Creates a new state.
+         *
+         * @param generation Generation the state was computed at.
+         * @param prefix Effective prefix, or null if there is none.
+         * @param enabled Whether the registry is effectively enabled.
+         */
+        EffectiveState( long generation, String prefix, boolean enabled ) {
+            
+            this.generation = generation;
+            this.prefix = prefix;
+            this.enabled = enabled;
+            
+        }
+        
+    }
+    
+    /**
+     * Read-only map that always reflects a table in the current contents of a registry.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2017-09-25
+     * @param <V> The type of values in the table.
+     */
+    private static final class ContentsView<V> extends AbstractMap<String, V> {
+        
+        /** Retrieves the table from the current contents. */
+        private final Supplier<Map<String, V>> table;
+        
+        /**
+         * Creates a new view.
+         *
+         * @param table Retrieves the (unmodifiable) table from the current contents.
+         */
+        ContentsView( Supplier<Map<String, V>> table ) {
+            
+            this.table = table;
+            
+        }
+        
+        @Override
+        public V get( Object key ) {
+            
+            return table.get().get( key );
+            
+        }
+        
+        @Override
+        public boolean containsKey( Object key ) {
+            
+            return table.get().containsKey( key );
+            
+        }
+        
+        @Override
+        public int size() {
+            
+            return table.get().size();
+            
+        }
+        
+        @Override
+        public Set<Map.Entry<String, V>> entrySet() {
+            
+            return table.get().entrySet();
+            
+        }
+        
+    }
+    
 }
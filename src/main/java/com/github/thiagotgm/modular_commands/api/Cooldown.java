@@ -0,0 +1,142 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.api;
+
+/**
+ * Minimum time that must pass between two calls to a command.
+ * <p>
+ * After a command is called, it cannot be called again within the same {@link LimitScope scope}
+ * (by the same user, in the same channel, etc) until the cooldown duration passes. Calls made
+ * before that fail with {@link FailureReason#ON_COOLDOWN}.
+ * <p>
+ * A cooldown can be written as a string in the form <tt>duration [per scope]</tt>, where the
+ * duration is such as <tt>10s</tt>, <tt>500ms</tt>, or <tt>1h30m</tt> (supported units are
+ * <tt>ms</tt>, <tt>s</tt>, <tt>m</tt>, <tt>h</tt>, and <tt>d</tt>), and the scope is one of
+ * <tt>user</tt>, <tt>channel</tt>, <tt>guild</tt>, or <tt>global</tt>. If the scope is omitted,
+ * the cooldown is per user. eg: <tt>30s per user</tt>, <tt>5m per guild</tt>, <tt>2s</tt>.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-23
+ */
+public final class Cooldown {
+    
+    private static final String PER = "per";
+    
+    private final long duration;
+    private final LimitScope scope;
+    
+    /**
+     * Creates a cooldown.
+     *
+     * @param duration The duration of the cooldown, in milliseconds.
+     * @param scope Who shares the same cooldown.
+     * @throws IllegalArgumentException if the duration is not positive.
+     * @throws NullPointerException if the scope is null.
+     */
+    public Cooldown( long duration, LimitScope scope ) throws IllegalArgumentException, NullPointerException {
+        
+        if ( duration < 1 ) {
+            throw new IllegalArgumentException( "Duration must be positive." );
+        }
+        if ( scope == null ) {
+            throw new NullPointerException( "Scope cannot be null." );
+        }
+        
+        this.duration = duration;
+        this.scope = scope;
+        
+    }
+    
+    /**
+     * Parses a cooldown from its string form.
+     *
+     * @param cooldown The cooldown string.
+     * @return The cooldown.
+     * @throws NullPointerException if the string is null.
+     * @throws IllegalArgumentException if the string is not a valid cooldown.
+     * @see Cooldown
+     */
+    public static Cooldown parse( String cooldown ) throws NullPointerException, IllegalArgumentException {
+        
+        String[] words = cooldown.trim().split( "\\s+" );
+        LimitScope scope;
+        if ( words.length == 1 ) {
+            scope = LimitScope.USER; // Default scope.
+        } else if ( ( words.length == 3 ) && words[1].equalsIgnoreCase( PER ) ) {
+            scope = LimitScope.parse( words[2] );
+        } else {
+            throw new IllegalArgumentException( "Invalid cooldown: \"" + cooldown + "\"." );
+        }
+        return new Cooldown( Durations.parse( words[0] ), scope );
+        
+    }
+    
+    /**
+     * Retrieves the duration of the cooldown.
+     *
+     * @return The duration, in milliseconds.
+     */
+    public long getDuration() {
+        
+        return duration;
+        
+    }
+    
+    /**
+     * Retrieves who shares the same cooldown.
+     *
+     * @return The scope of the cooldown.
+     */
+    public LimitScope getScope() {
+        
+        return scope;
+        
+    }
+    
+    @Override
+    public boolean equals( Object obj ) {
+        
+        if ( !( obj instanceof Cooldown ) ) {
+            return false;
+        }
+        Cooldown cooldown = (Cooldown) obj;
+        return ( duration == cooldown.duration ) && ( scope == cooldown.scope );
+        
+    }
+    
+    @Override
+    public int hashCode() {
+        
+        return ( 31 * Long.hashCode( duration ) ) + scope.hashCode();
+        
+    }
+    
+    /**
+     * Retrieves the string form of this cooldown, that can be given to {@link #parse(String)}.
+     *
+     * @return The cooldown string.
+     */
+    @Override
+    public String toString() {
+        
+        return Durations.format( duration ) + " " + PER + " " + scope;
+        
+    }
+    
+}
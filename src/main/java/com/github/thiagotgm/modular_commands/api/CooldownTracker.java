@@ -0,0 +1,284 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.api;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps track of which keys (users, channels, etc) are on cooldown for a command.
+ * <p>
+ * The time at which the cooldown of each key ends is stored in an open-addressing table of
+ * primitive <tt>long</tt>s, so no objects are allocated per key. Expired entries are removed using
+ * a timing wheel: each entry is also placed in the wheel slot of the tick at which it expires, and
+ * as time advances the slots of past ticks are cleared. Since all entries in a tracker have the same
+ * duration, the wheel is sized so that an entry never expires more than one revolution ahead.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-23
+ */
+final class CooldownTracker {
+    
+    /** Amount of slots in the timing wheel. Must be a power of 2. */
+    private static final int WHEEL_SLOTS = 64;
+    private static final int INITIAL_SLOT_CAPACITY = 4;
+    private static final int INITIAL_TABLE_CAPACITY = 16;
+    
+    /** Marks an empty position in the table. Times are never negative. */
+    private static final long EMPTY = -1;
+    
+    private final Cooldown cooldown;
+    private final long duration;
+    private final long tickLength;
+    private final long start;
+    
+    /* Table of keys and the time their cooldown ends */
+    private long[] keys;
+    private long[] ends;
+    private int size;
+    
+    /* Timing wheel */
+    private final long[][] slots;
+    private final int[] slotSizes;
+    private long currentTick;
+    
+    /**
+     * Creates a tracker for the given cooldown.
+     *
+     * @param cooldown The cooldown.
+     */
+    CooldownTracker( Cooldown cooldown ) {
+        
+        this.cooldown = cooldown;
+        this.duration = cooldown.getDuration();
+        // An entry expires at most (WHEEL_SLOTS - 1) ticks after it is added.
+        this.tickLength = Math.max( ( duration + WHEEL_SLOTS - 3 ) / ( WHEEL_SLOTS - 2 ), 1 );
+        this.start = System.nanoTime();
+        
+        this.keys = new long[ INITIAL_TABLE_CAPACITY ];
+        this.ends = new long[ INITIAL_TABLE_CAPACITY ];
+        Arrays.fill( ends, EMPTY );
+        this.size = 0;
+        
+        this.slots = new long[ WHEEL_SLOTS ][];
+        this.slotSizes = new int[ WHEEL_SLOTS ];
+        this.currentTick = 0;
+        
+    }
+    
+    /**
+     * Retrieves the cooldown tracked by this tracker.
+     *
+     * @return The cooldown.
+     */
+    Cooldown getCooldown() {
+        
+        return cooldown;
+        
+    }
+    
+    /**
+     * Retrieves the amount of keys currently on cooldown (including expired keys that were not
+     * cleared yet).
+     *
+     * @return The amount of keys.
+     */
+    synchronized int size() {
+        
+        return size;
+        
+    }
+    
+    /**
+     * Checks if the given key is on cooldown. If it isn't, starts its cooldown.
+     *
+     * @param key The key (user ID, channel ID, etc).
+     * @return true if the key was not on cooldown (the call is allowed), false if it was
+     *         (the call is denied).
+     */
+    synchronized boolean tryStart( long key ) {
+        
+        long now = TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start );
+        advance( now );
+        
+        int index = indexOf( key );
+        if ( ( ends[index] != EMPTY ) && ( ends[index] > now ) ) {
+            return false; // Still on cooldown.
+        }
+        
+        long end = now + duration;
+        if ( ends[index] == EMPTY ) { // New entry.
+            keys[index] = key;
+            size++;
+        }
+        ends[index] = end;
+        schedule( key, end );
+        if ( size * 2 > keys.length ) {
+            resize( keys.length * 2 );
+        }
+        return true;
+        
+    }
+    
+    /* Table operations */
+    
+    /**
+     * Mixes the bits of a key to distribute them in the table.
+     *
+     * @param key The key.
+     * @return The hash of the key.
+     */
+    private static int hash( long key ) {
+        
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) ( h ^ ( h >>> 32 ) );
+        
+    }
+    
+    /**
+     * Finds the position of the given key in the table, or the empty position where it
+     * would be inserted.
+     *
+     * @param key The key.
+     * @return The position.
+     */
+    private int indexOf( long key ) {
+        
+        int mask = keys.length - 1;
+        int index = hash( key ) & mask;
+        while ( ( ends[index] != EMPTY ) && ( keys[index] != key ) ) {
+            
+            index = ( index + 1 ) & mask; // Linear probing.
+            
+        }
+        return index;
+        
+    }
+    
+    /**
+     * Removes the entry at the given position of the table, shifting back the entries after it
+     * so that no probe sequence is broken.
+     *
+     * @param index The position.
+     */
+    private void removeAt( int index ) {
+        
+        int mask = keys.length - 1;
+        int hole = index;
+        int next = ( hole + 1 ) & mask;
+        while ( ends[next] != EMPTY ) {
+            
+            int home = hash( keys[next] ) & mask;
+            // Moves the entry to the hole if the hole is between its home position and its position.
+            if ( ( ( next - home ) & mask ) >= ( ( next - hole ) & mask ) ) {
+                keys[hole] = keys[next];
+                ends[hole] = ends[next];
+                hole = next;
+            }
+            next = ( next + 1 ) & mask;
+            
+        }
+        ends[hole] = EMPTY;
+        size--;
+        
+    }
+    
+    /**
+     * Changes the capacity of the table.
+     *
+     * @param capacity The new capacity. Must be a power of 2.
+     */
+    private void resize( int capacity ) {
+        
+        long[] oldKeys = keys;
+        long[] oldEnds = ends;
+        keys = new long[ capacity ];
+        ends = new long[ capacity ];
+        Arrays.fill( ends, EMPTY );
+        for ( int i = 0; i < oldKeys.length; i++ ) {
+            
+            if ( oldEnds[i] != EMPTY ) {
+                int index = indexOf( oldKeys[i] );
+                keys[index] = oldKeys[i];
+                ends[index] = oldEnds[i];
+            }
+            
+        }
+        
+    }
+    
+    /* Timing wheel operations */
+    
+    /**
+     * Adds a key to the wheel slot of the tick in which it expires.
+     *
+     * @param key The key.
+     * @param end The time at which the cooldown of the key ends.
+     */
+    private void schedule( long key, long end ) {
+        
+        int slot = (int) ( ( ( end + tickLength - 1 ) / tickLength ) & ( WHEEL_SLOTS - 1 ) );
+        long[] slotKeys = slots[slot];
+        if ( slotKeys == null ) {
+            slotKeys = new long[ INITIAL_SLOT_CAPACITY ];
+            slots[slot] = slotKeys;
+        } else if ( slotSizes[slot] == slotKeys.length ) {
+            slotKeys = Arrays.copyOf( slotKeys, slotKeys.length * 2 );
+            slots[slot] = slotKeys;
+        }
+        slotKeys[slotSizes[slot]++] = key;
+        
+    }
+    
+    /**
+     * Advances the wheel up to the given time, removing the keys whose cooldown ended.
+     *
+     * @param now The current time.
+     */
+    private void advance( long now ) {
+        
+        long nowTick = now / tickLength;
+        long lastTick = Math.min( nowTick, currentTick + WHEEL_SLOTS ); // Each slot at most once.
+        for ( long tick = currentTick + 1; tick <= lastTick; tick++ ) {
+            
+            int slot = (int) ( tick & ( WHEEL_SLOTS - 1 ) );
+            long[] slotKeys = slots[slot];
+            for ( int i = 0; i < slotSizes[slot]; i++ ) {
+                
+                int index = indexOf( slotKeys[i] );
+                // Entry may have been renewed, in which case it is also in a later slot.
+                if ( ( ends[index] != EMPTY ) && ( ends[index] <= now ) ) {
+                    removeAt( index );
+                }
+                
+            }
+            slotSizes[slot] = 0;
+            if ( ( slotKeys != null ) && ( slotKeys.length > INITIAL_SLOT_CAPACITY * 64 ) ) {
+                slots[slot] = null; // Release memory used by a burst.
+            }
+            
+        }
+        currentTick = Math.max( currentTick, nowTick );
+        if ( ( keys.length > INITIAL_TABLE_CAPACITY ) && ( size * 8 < keys.length ) ) {
+            resize( keys.length / 2 ); // Release memory used by a burst.
+        }
+        
+    }
+    
+}
@@ -0,0 +1,362 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled, immutable table of the signatures that can be resolved from a registry.
+ * <p>
+ * Besides the signature-to-command table itself, provides a filter that can determine if
+ * a message starts with one of the signatures without allocating any objects, so that messages
+ * that are not commands can be discarded as cheaply as possible. The filter is made of a bitset
+ * of the first characters of all signatures and a trie of the signatures, and is only built
+ * the first time it is used.
+ * <p>
+ * The {@link CommandChain chain} of each main command in the table is built along with the index,
+ * so the permissions that the commands require are computed once per registry change rather than
+ * on every call.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-20
+ */
+final class DispatchIndex {
+    
+    /** Index with no signatures. */
+    static final DispatchIndex EMPTY = new DispatchIndex( Collections.emptyMap() );
+    
+    private final Map<String, ICommand> commands;
+    private final Map<ICommand, CommandChain> chains;
+    private volatile Filter filter;
+    
+    /**
+     * Creates an index with the given table.
+     *
+     * @param commands The signatures and the commands they resolve to. Must be unmodifiable.
+     */
+    DispatchIndex( Map<String, ICommand> commands ) {
+        
+        this.commands = commands;
+        this.chains = new IdentityHashMap<>();
+        for ( ICommand command : commands.values() ) { // Build the chain of each main command.
+            
+            if ( !chains.containsKey( command ) ) {
+                chains.put( command, CommandChain.of( command ) );
+            }
+            
+        }
+        this.filter = null;
+        
+    }
+    
+    /**
+     * Retrieves the table of signatures and the commands they resolve to.
+     *
+     * @return The (unmodifiable) table.
+     */
+    Map<String, ICommand> getCommands() {
+        
+        return commands;
+        
+    }
+    
+    /**
+     * Retrieves the command that the given signature resolves to.
+     *
+     * @param signature The signature.
+     * @return The command, or null if there is none.
+     */
+    ICommand getCommand( String signature ) {
+        
+        return commands.get( signature );
+        
+    }
+    
+    /**
+     * Retrieves the chain of the main command that the given signature resolves to.
+     *
+     * @param signature The signature.
+     * @return The chain, or null if there is no command with that signature.
+     */
+    CommandChain getChain( String signature ) {
+        
+        ICommand command = commands.get( signature );
+        return ( command == null ) ? null : chains.get( command );
+        
+    }
+    
+    /**
+     * Determines whether the first word of the given message (ignoring leading and trailing
+     * whitespace) is one of the signatures in this index.
+     * <p>
+     * Does not allocate any objects (after the first call).
+     *
+     * @param message The message.
+     * @return true if the message starts with a signature in this index, false otherwise.
+     */
+    boolean startsWithSignature( String message ) {
+        
+        Filter filter = this.filter;
+        if ( filter == null ) { // Not built yet. Racing threads would build the same filter,
+            filter = new Filter( commands.keySet() ); // so no need to synchronize.
+            this.filter = filter;
+        }
+        return filter.test( message );
+        
+    }
+    
+    /**
+     * Determines if the given character is a whitespace (same set as the <tt>\\s</tt>
+     * regex class).
+     *
+     * @param c The character to check.
+     * @return true if it is a whitespace, false otherwise.
+     */
+    private static boolean isWhitespace( char c ) {
+        
+        switch ( c ) {
+            
+            case ' ':
+            case '\t':
+            case '\n':
+            case '\u000B':
+            case '\f':
+            case '\r':
+                return true;
+                
+            default:
+                return false;
+                
+        }
+        
+    }
+    
+    /**
+     * Determines if the given character is removed by {@link String#trim()}.
+     *
+     * @param c The character to check.
+     * @return true if it is trimmed, false otherwise.
+     */
+    private static boolean isTrimmed( char c ) {
+        
+        return c <= ' ';
+        
+    }
+    
+    /**
+     * Signature filter, with the trie stored in flat arrays.
+     * <p>
+     * The edges of node <tt>n</tt> are stored (sorted by character) in positions
+     * <tt>edgeStart[n]</tt> (inclusive) to <tt>edgeStart[n+1]</tt> (exclusive) of
+     * <tt>edgeChars</tt> and <tt>edgeTargets</tt>. The root is node 0.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2017-09-20
+     */
+    private static final class Filter {
+        
+        private final long[] firstChars;
+        private final int[] edgeStart;
+        private final char[] edgeChars;
+        private final int[] edgeTargets;
+        private final boolean[] terminal;
+        
+        /**
+         * Builds the filter for the given signatures.
+         *
+         * @param signatures The signatures.
+         */
+        Filter( Iterable<String> signatures ) {
+            
+            this.firstChars = new long[ ( Character.MAX_VALUE + 1 ) / Long.SIZE ];
+            List<String> sorted = new ArrayList<>();
+            for ( String signature : signatures ) {
+                
+                if ( !signature.isEmpty() ) {
+                    sorted.add( signature );
+                    char first = signature.charAt( 0 );
+                    firstChars[first / Long.SIZE] |= 1L << ( first % Long.SIZE );
+                }
+                
+            }
+            Collections.sort( sorted );
+            
+            /* Build the trie breadth-first so the edges of each node are contiguous */
+            List<int[]> ranges = new ArrayList<>(); // Signatures under each node and its depth.
+            List<Character> chars = new ArrayList<>();
+            List<Integer> targets = new ArrayList<>();
+            List<Boolean> terminals = new ArrayList<>();
+            int[] starts = new int[ 16 ];
+            ranges.add( new int[] { 0, sorted.size(), 0 } );
+            terminals.add( false );
+            for ( int node = 0; node < ranges.size(); node++ ) {
+                
+                if ( node + 1 >= starts.length ) {
+                    starts = Arrays.copyOf( starts, starts.length * 2 );
+                }
+                starts[node] = chars.size();
+                int[] range = ranges.get( node );
+                int depth = range[2];
+                int i = range[0];
+                while ( i < range[1] ) {
+                    
+                    String signature = sorted.get( i );
+                    if ( signature.length() == depth ) { // Ends at this node.
+                        terminals.set( node, true );
+                        i++;
+                        continue;
+                    }
+                    char c = signature.charAt( depth );
+                    int j = i + 1; // Find all signatures with the same next character.
+                    while ( ( j < range[1] ) && ( sorted.get( j ).charAt( depth ) == c ) ) {
+                        
+                        j++;
+                        
+                    }
+                    chars.add( c );
+                    targets.add( ranges.size() );
+                    ranges.add( new int[] { i, j, depth + 1 } );
+                    terminals.add( false );
+                    i = j;
+                    
+                }
+                
+            }
+            int nodes = ranges.size();
+            starts[nodes] = chars.size();
+            
+            this.edgeStart = Arrays.copyOf( starts, nodes + 1 );
+            this.edgeChars = new char[ chars.size() ];
+            this.edgeTargets = new int[ targets.size() ];
+            for ( int i = 0; i < edgeChars.length; i++ ) {
+                
+                edgeChars[i] = chars.get( i );
+                edgeTargets[i] = targets.get( i );
+                
+            }
+            this.terminal = new boolean[ nodes ];
+            for ( int i = 0; i < nodes; i++ ) {
+                
+                terminal[i] = terminals.get( i );
+                
+            }
+            
+        }
+        
+        /**
+         * Determines whether the first word of the given message is one of the signatures.
+         *
+         * @param message The message.
+         * @return true if it is, false otherwise.
+         */
+        boolean test( String message ) {
+            
+            int length = message.length();
+            int pos = 0;
+            while ( ( pos < length ) && isTrimmed( message.charAt( pos ) ) ) {
+                
+                pos++; // Skip leading whitespace.
+                
+            }
+            if ( pos == length ) {
+                return false; // Empty message.
+            }
+            char first = message.charAt( pos );
+            if ( ( firstChars[first / Long.SIZE] & ( 1L << ( first % Long.SIZE ) ) ) == 0 ) {
+                return false; // No signature starts with this character.
+            }
+            
+            int node = 0;
+            for ( ; pos < length; pos++ ) {
+                
+                char c = message.charAt( pos );
+                if ( isWhitespace( c ) ) {
+                    return terminal[node]; // End of the first word.
+                }
+                if ( isTrimmed( c ) && isTrimmedUntilEnd( message, pos ) ) {
+                    return terminal[node]; // Only trailing whitespace left.
+                }
+                node = next( node, c );
+                if ( node < 0 ) {
+                    return false; // No signature with this prefix.
+                }
+                
+            }
+            return terminal[node]; // End of the message.
+            
+        }
+        
+        /**
+         * Finds the child of the given node through the given character.
+         *
+         * @param node The node.
+         * @param c The character.
+         * @return The child node, or -1 if there is no such child.
+         */
+        private int next( int node, char c ) {
+            
+            int low = edgeStart[node];
+            int high = edgeStart[node + 1] - 1;
+            while ( low <= high ) { // Binary search the edges of the node.
+                
+                int mid = ( low + high ) >>> 1;
+                char midChar = edgeChars[mid];
+                if ( midChar < c ) {
+                    low = mid + 1;
+                } else if ( midChar > c ) {
+                    high = mid - 1;
+                } else {
+                    return edgeTargets[mid];
+                }
+                
+            }
+            return -1;
+            
+        }
+        
+        /**
+         * Determines if all the characters in the given message, starting from the given
+         * index, would be removed by {@link String#trim()}.
+         *
+         * @param message The message.
+         * @param from The index to start checking from.
+         * @return true if they would all be trimmed, false otherwise.
+         */
+        private static boolean isTrimmedUntilEnd( String message, int from ) {
+            
+            for ( int i = from; i < message.length(); i++ ) {
+                
+                if ( !isTrimmed( message.charAt( i ) ) ) {
+                    return false;
+                }
+                
+            }
+            return true;
+            
+        }
+        
+    }
+    
+}
@@ -0,0 +1,129 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.api;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses and formats durations written in the short form used in command settings,
+ * which is a sequence of amounts followed by units, such as <tt>10s</tt>, <tt>500ms</tt>, or
+ * <tt>1h30m</tt>.
+ * <p>
+ * The supported units are <tt>ms</tt> (milliseconds), <tt>s</tt> (seconds), <tt>m</tt>
+ * (minutes), <tt>h</tt> (hours), and <tt>d</tt> (days).
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-22
+ */
+final class Durations {
+    
+    private static final String[] UNITS = { "d", "h", "m", "s", "ms" };
+    private static final long[] UNIT_MILLIS = { TimeUnit.DAYS.toMillis( 1 ), TimeUnit.HOURS.toMillis( 1 ),
+                                                TimeUnit.MINUTES.toMillis( 1 ), TimeUnit.SECONDS.toMillis( 1 ),
+                                                1 };
+    
+    /**
+     * Not instantiable.
+     */
+    private Durations() {}
+    
+    /**
+     * Parses a duration.
+     *
+     * @param duration The duration string.
+     * @return The duration, in milliseconds.
+     * @throws NullPointerException if the string is null.
+     * @throws IllegalArgumentException if the string is not a valid duration.
+     */
+    static long parse( String duration ) throws NullPointerException, IllegalArgumentException {
+        
+        int length = duration.length();
+        if ( length == 0 ) {
+            throw new IllegalArgumentException( "Duration cannot be empty." );
+        }
+        long total = 0;
+        int pos = 0;
+        try {
+            while ( pos < length ) {
+                
+                int start = pos;
+                long amount = 0;
+                while ( ( pos < length ) && Character.isDigit( duration.charAt( pos ) ) ) {
+                    
+                    amount = Math.addExact( Math.multiplyExact( amount, 10 ),
+                            Character.digit( duration.charAt( pos++ ), 10 ) );
+                    
+                }
+                if ( pos == start ) {
+                    throw new IllegalArgumentException( "Invalid duration: \"" + duration + "\"." );
+                }
+                start = pos;
+                while ( ( pos < length ) && Character.isLetter( duration.charAt( pos ) ) ) {
+                    
+                    pos++;
+                    
+                }
+                String unit = duration.substring( start, pos ).toLowerCase();
+                int unitIndex = -1;
+                for ( int i = 0; i < UNITS.length; i++ ) {
+                    
+                    if ( UNITS[i].equals( unit ) ) {
+                        unitIndex = i;
+                    }
+                    
+                }
+                if ( unitIndex == -1 ) {
+                    throw new IllegalArgumentException( "Invalid duration unit in \"" + duration + "\"." );
+                }
+                total = Math.addExact( total, Math.multiplyExact( amount, UNIT_MILLIS[unitIndex] ) );
+                
+            }
+        } catch ( ArithmeticException e ) {
+            throw new IllegalArgumentException( "Duration is too long: \"" + duration + "\".", e );
+        }
+        return total;
+        
+    }
+    
+    /**
+     * Formats a duration in the same format accepted by {@link #parse(String)}.
+     *
+     * @param millis The duration, in milliseconds.
+     * @return The formatted duration.
+     */
+    static String format( long millis ) {
+        
+        if ( millis == 0 ) {
+            return "0ms";
+        }
+        StringBuilder builder = new StringBuilder();
+        for ( int i = 0; i < UNITS.length; i++ ) {
+            
+            long amount = millis / UNIT_MILLIS[i];
+            if ( amount > 0 ) {
+                builder.append( amount ).append( UNITS[i] );
+                millis %= UNIT_MILLIS[i];
+            }
+            
+        }
+        return builder.toString();
+        
+    }
+    
+}
@@ -0,0 +1,228 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.api;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import sx.blah.discord.api.IDiscordClient;
+import sx.blah.discord.api.events.Event;
+import sx.blah.discord.api.events.IListener;
+import sx.blah.discord.handle.impl.events.guild.GuildCreateEvent;
+import sx.blah.discord.handle.impl.events.guild.GuildEmojisUpdateEvent;
+import sx.blah.discord.handle.impl.events.guild.GuildEvent;
+import sx.blah.discord.handle.impl.events.guild.GuildLeaveEvent;
+import sx.blah.discord.handle.impl.events.guild.GuildUnavailableEvent;
+import sx.blah.discord.handle.obj.IEmoji;
+import sx.blah.discord.handle.obj.IGuild;
+
+/**
+ * Index of the custom emojis of all the guilds that a client is in, by ID.
+ * <p>
+ * Allows finding a custom emoji from its ID without searching every guild. The index is
+ * filled with the emojis of the guilds the client is in when it is created, and is kept
+ * up to date by listening to the events of the client: guilds that are joined (or become
+ * available) have their emojis added, guilds that are left (or become unavailable) have
+ * their emojis removed, and changes to the emojis of a guild are applied as they happen.
+ * <p>
+ * There is one index for each client, obtained through {@link #getIndex(IDiscordClient)}.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-24
+ */
+public final class EmojiIndex implements IListener<Event> {
+    
+    private static final Logger LOG = LoggerFactory.getLogger( EmojiIndex.class );
+    
+    /** Map of the indexes for each client. */
+    private static final Map<IDiscordClient, EmojiIndex> indexes = new ConcurrentHashMap<>();
+    
+    private final IDiscordClient client;
+    private final Map<Long, IEmoji> emojis;
+    /** IDs of the emojis of each guild, sorted. */
+    private final Map<Long, long[]> guildEmojis;
+    
+    /**
+     * Creates an index for the given client, and registers it to receive the events of
+     * the client.
+     *
+     * @param client The client.
+     */
+    private EmojiIndex( IDiscordClient client ) {
+        
+        this.client = client;
+        this.emojis = new ConcurrentHashMap<>();
+        this.guildEmojis = new ConcurrentHashMap<>();
+        client.getDispatcher().registerListener( this ); // Register first so no
+        for ( IGuild guild : client.getGuilds() ) {      // changes are missed.
+            
+            set( guild, guild.getEmojis() );
+            
+        }
+        if ( LOG.isDebugEnabled() ) {
+            LOG.debug( "Indexed {} custom emojis.", emojis.size() );
+        }
+        
+    }
+    
+    /**
+     * Retrieves the index of the custom emojis available to a given client.
+     * <p>
+     * If there is no index for the client yet, creates one.
+     *
+     * @param client The client whose index should be retrieved.
+     * @return The index for the given client.
+     * @throws NullPointerException if the client passed in is null.
+     */
+    public static EmojiIndex getIndex( IDiscordClient client ) throws NullPointerException {
+        
+        if ( client == null ) {
+            throw new NullPointerException( "Client argument cannot be null." );
+        }
+        return indexes.computeIfAbsent( client, EmojiIndex::new );
+        
+    }
+    
+    /**
+     * Removes the index of the given client, if there is one, and stops it from receiving
+     * the events of the client.
+     * <p>
+     * After removing the index, the next call to {@link #getIndex(IDiscordClient)} using
+     * the given client will create a new index.
+     *
+     * @param client The client whose index is to be removed.
+     * @return The (removed) index of the given client, or null if there was no such index.
+     * @throws NullPointerException if the client passed in is null.
+     */
+    public static EmojiIndex removeIndex( IDiscordClient client ) throws NullPointerException {
+        
+        if ( client == null ) {
+            throw new NullPointerException( "Client argument cannot be null." );
+        }
+        EmojiIndex index = indexes.remove( client );
+        if ( index != null ) {
+            client.getDispatcher().unregisterListener( index );
+        }
+        return index;
+        
+    }
+    
+    /**
+     * Retrieves the custom emoji with the given ID.
+     *
+     * @param id The ID of the emoji.
+     * @return The emoji, or null if none of the guilds that the client is in has an emoji
+     *         with that ID.
+     */
+    public IEmoji getEmoji( long id ) {
+        
+        return emojis.get( id );
+        
+    }
+    
+    /**
+     * Retrieves the amount of emojis in this index.
+     *
+     * @return The amount of emojis.
+     */
+    public int size() {
+        
+        return emojis.size();
+        
+    }
+    
+    /**
+     * Sets the emojis of the given guild, replacing the ones that were previously indexed
+     * for it.
+     *
+     * @param guild The guild.
+     * @param emojis The current emojis of the guild.
+     */
+    private synchronized void set( IGuild guild, Collection<IEmoji> emojis ) {
+        
+        long[] ids = new long[ emojis.size() ];
+        int i = 0;
+        for ( IEmoji emoji : emojis ) { // Add new emojis first so existing ones
+                                        // are never missing.
+            this.emojis.put( emoji.getLongID(), emoji );
+            ids[i++] = emoji.getLongID();
+            
+        }
+        Arrays.sort( ids );
+        long[] oldIds = guildEmojis.put( guild.getLongID(), ids );
+        if ( oldIds != null ) {
+            for ( long id : oldIds ) { // Remove emojis that were deleted.
+                
+                if ( Arrays.binarySearch( ids, id ) < 0 ) {
+                    this.emojis.remove( id );
+                }
+                
+            }
+        }
+        
+    }
+    
+    /**
+     * Removes all the emojis of the given guild from this index.
+     *
+     * @param guild The guild.
+     */
+    private synchronized void remove( IGuild guild ) {
+        
+        long[] ids = guildEmojis.remove( guild.getLongID() );
+        if ( ids != null ) {
+            for ( long id : ids ) {
+                
+                emojis.remove( id );
+                
+            }
+        }
+        
+    }
+    
+    /**
+     * Updates the index according to the given event, if it changes the emojis available
+     * to the client.
+     *
+     * @param event The event.
+     */
+    @Override
+    public void handle( Event event ) {
+        
+        if ( event.getClient() != client ) {
+            return; // Event from another client.
+        }
+        if ( event instanceof GuildCreateEvent ) { // Guild joined or now available.
+            IGuild guild = ( (GuildEvent) event ).getGuild();
+            set( guild, guild.getEmojis() );
+        } else if ( ( event instanceof GuildLeaveEvent ) || ( event instanceof GuildUnavailableEvent ) ) {
+            remove( ( (GuildEvent) event ).getGuild() );
+        } else if ( event instanceof GuildEmojisUpdateEvent ) {
+            GuildEmojisUpdateEvent emojiEvent = (GuildEmojisUpdateEvent) event;
+            set( emojiEvent.getGuild(), emojiEvent.getNewEmojis() );
+        }
+        
+    }
+    
+}
@@ -0,0 +1,213 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.api;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Immutable plan of how a {@link CommandChain command chain} is executed when it is called.
+ * <p>
+ * Holds the commands that are executed, in order (the called command preceded by the parents
+ * that it {@link ICommand#executeParent() executes}), and the settings of the called command that
+ * determine whether a call should be ignored or rejected and what is done after it executes. All of
+ * those are immutable properties of the commands, so the plan is computed once, when the chain is
+ * built.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-24
+ */
+final class ExecutionPlan {
+    
+    private final ICommand target;
+    private final ICommand[] commands;
+    private final boolean ignorePublic;
+    private final boolean ignorePrivate;
+    private final boolean ignoreBots;
+    private final boolean nsfw;
+    private final boolean requiresOwner;
+    private final boolean deleteCommand;
+    private final long onSuccessDelay;
+    private final ArgumentSchema argumentSchema;
+    
+    /**
+     * Computes the execution plan of the given chain.
+     *
+     * @param chain The chain.
+     */
+    ExecutionPlan( CommandChain chain ) {
+        
+        Deque<ICommand> commands = new ArrayDeque<>();
+        CommandChain cur = chain;
+        do { // Add the command, then its parent if it executes it, and so on.
+            
+            commands.addFirst( cur.getCommand() );
+            cur = cur.getCommand().executeParent() ? cur.getParent() : null;
+            
+        } while ( cur != null );
+        this.commands = commands.toArray( new ICommand[ commands.size() ] );
+        
+        ICommand target = chain.getCommand();
+        this.target = target;
+        this.ignorePublic = target.ignorePublic();
+        this.ignorePrivate = target.ignorePrivate();
+        this.ignoreBots = target.ignoreBots();
+        this.nsfw = target.isNSFW();
+        this.requiresOwner = target.requiresOwner();
+        this.deleteCommand = target.deleteCommand();
+        this.onSuccessDelay = target.getOnSuccessDelay();
+        this.argumentSchema = target.getArgumentSchema();
+        
+    }
+    
+    /**
+     * Retrieves the command that was called, whose failure and success operations are
+     * executed after the plan runs.
+     *
+     * @return The called command.
+     */
+    ICommand getTarget() {
+        
+        return target;
+        
+    }
+    
+    /**
+     * Retrieves the amount of commands executed by this plan.
+     *
+     * @return The amount of commands.
+     */
+    int size() {
+        
+        return commands.length;
+        
+    }
+    
+    /**
+     * Retrieves a command executed by this plan.
+     *
+     * @param index The position of the command in the execution order.
+     * @return The command.
+     * @throws ArrayIndexOutOfBoundsException if the index is not between 0 (inclusive) and
+     *                                        {@link #size()} (exclusive).
+     */
+    ICommand getCommand( int index ) throws ArrayIndexOutOfBoundsException {
+        
+        return commands[index];
+        
+    }
+    
+    /**
+     * Retrieves whether calls from public channels are ignored.
+     *
+     * @return Whether public calls are ignored.
+     * @see ICommand#ignorePublic()
+     */
+    boolean ignorePublic() {
+        
+        return ignorePublic;
+        
+    }
+    
+    /**
+     * Retrieves whether calls from private channels are ignored.
+     *
+     * @return Whether private calls are ignored.
+     * @see ICommand#ignorePrivate()
+     */
+    boolean ignorePrivate() {
+        
+        return ignorePrivate;
+        
+    }
+    
+    /**
+     * Retrieves whether calls made by bots are ignored.
+     *
+     * @return Whether calls by bots are ignored.
+     * @see ICommand#ignoreBots()
+     */
+    boolean ignoreBots() {
+        
+        return ignoreBots;
+        
+    }
+    
+    /**
+     * Retrieves whether the called command can only be used in NSFW channels.
+     *
+     * @return Whether the command is NSFW.
+     * @see ICommand#isNSFW()
+     */
+    boolean isNSFW() {
+        
+        return nsfw;
+        
+    }
+    
+    /**
+     * Retrieves whether the called command can only be used by the owner of the bot.
+     *
+     * @return Whether the command requires the owner.
+     * @see ICommand#requiresOwner()
+     */
+    boolean requiresOwner() {
+        
+        return requiresOwner;
+        
+    }
+    
+    /**
+     * Retrieves whether the message that called the command is deleted after a successful
+     * execution.
+     *
+     * @return Whether the message is deleted.
+     * @see ICommand#deleteCommand()
+     */
+    boolean deleteCommand() {
+        
+        return deleteCommand;
+        
+    }
+    
+    /**
+     * Retrieves how long after a successful execution the success operation is executed.
+     *
+     * @return The delay, in milliseconds.
+     * @see ICommand#getOnSuccessDelay()
+     */
+    long getOnSuccessDelay() {
+        
+        return onSuccessDelay;
+        
+    }
+    
+    /**
+     * Retrieves the schema that the arguments of a call must match.
+     *
+     * @return The argument schema, or null if the arguments are not checked.
+     * @see ICommand#getArgumentSchema()
+     */
+    ArgumentSchema getArgumentSchema() {
+        
+        return argumentSchema;
+        
+    }
+    
+}
@@ -66,6 +66,21 @@ public enum FailureReason {
      * <p>
      * In this case, the exception that was thrown is placed in the CommandContext (as the helper object).
      */
-    COMMAND_OPERATION_EXCEPTION;
+    COMMAND_OPERATION_EXCEPTION,
+    
+    /**
+     * The caller exceeded the rate limit of the command.
+     */
+    RATE_LIMITED,
+    
+    /**
+     * The command was called again before its cooldown ended.
+     */
+    ON_COOLDOWN,
+    
+    /**
+     * The arguments do not match the {@link ArgumentSchema argument schema} of the command.
+     */
+    INVALID_ARGUMENTS;
 
 }
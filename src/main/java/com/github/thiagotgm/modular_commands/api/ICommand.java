@@ -72,6 +72,8 @@ public interface ICommand extends Disableable, Prefixed, Comparable<ICommand> {
      * specific prefix and the inherited prefix changes, the signatures change as well.
      * <p>
      * (signature = {@link #getEffectivePrefix() effective prefix} + {@link #getAliases() alias})
+     * <p>
+     * Each call returns a new list, which the caller is free to modify.
      *
      * @return The signatures of the command, in sorted order.
      * @throws IllegalStateException if called when the command is not registered to any registry.
@@ -137,6 +139,11 @@ public interface ICommand extends Disableable, Prefixed, Comparable<ICommand> {
      * Retrieves the time delay to be left between a successful execution and a
      * call to {@link #onSuccess(CommandContext)}.
      * <p>
+     * No thread is held during the delay. If it is positive, the success operation is scheduled
+     * to run after the delay, and the executor is freed to run other commands in the meantime.
+     * If the executor rejects the success operation once the delay is over, it is executed in the
+     * thread that waits for the delays instead, so it is never skipped.
+     * <p>
      * By default, returns 0.
      *
      * @return The time delay, in milliseconds.
@@ -422,6 +429,37 @@ public interface ICommand extends Disableable, Prefixed, Comparable<ICommand> {
      */
     default int getPriority() { return 0; }
     
+    /**
+     * Retrieves the rate limit of this command, that limits how many times it can be called
+     * within a period of time.
+     * <p>
+     * By default, returns null (no rate limit).
+     *
+     * @return The rate limit of this command, or null if it is not rate limited.
+     */
+    default RateLimit getRateLimit() { return null; }
+    
+    /**
+     * Retrieves the cooldown of this command, that is the minimum time between two calls to
+     * it (by the same user, in the same channel, etc).
+     * <p>
+     * By default, returns null (no cooldown).
+     *
+     * @return The cooldown of this command, or null if it has no cooldown.
+     */
+    default Cooldown getCooldown() { return null; }
+    
+    /**
+     * Retrieves the schema of the typed parameters of this command. If the command has a schema,
+     * the arguments of each call are converted before the command is executed, and calls whose
+     * arguments do not match it fail with {@link FailureReason#INVALID_ARGUMENTS}.
+     * <p>
+     * By default, returns null (arguments are not checked).
+     *
+     * @return The argument schema of this command, or null if it does not have one.
+     */
+    default ArgumentSchema getArgumentSchema() { return null; }
+    
     /**
      * Compares this ICommand with the specified ICommand for their precedence.<br>
      * A command having a higher precedence means it should be the one to be executed
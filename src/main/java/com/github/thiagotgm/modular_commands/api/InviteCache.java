@@ -0,0 +1,262 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.api;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import sx.blah.discord.api.IDiscordClient;
+import sx.blah.discord.handle.obj.IInvite;
+
+/**
+ * Cache of the invites that a client looked up by their code.
+ * <p>
+ * Looking up an invite requires a request to Discord, so the result of each lookup is kept for
+ * a while: invites that were found are kept for {@value #TTL_MINUTES} minutes, and codes that
+ * do not match any invite are kept for {@value #NEGATIVE_TTL_MINUTES} minute. Lookups are done
+ * asynchronously by a small pool of internal threads, and concurrent lookups of the same code
+ * share the same request. Lookups that fail due to an error are not cached.
+ * <p>
+ * The amount of entries is bounded: when it reaches {@value #MAX_ENTRIES}, expired entries are
+ * removed, and if that is not enough the cache is cleared.
+ * <p>
+ * There is one cache for each client, obtained through {@link #getCache(IDiscordClient)}.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-24
+ */
+public final class InviteCache {
+    
+    /** How long invites that were found are cached, in minutes. */
+    public static final long TTL_MINUTES = 10;
+    /** How long codes that do not match an invite are cached, in minutes. */
+    public static final long NEGATIVE_TTL_MINUTES = 1;
+    /** Maximum amount of entries in a cache. */
+    public static final int MAX_ENTRIES = 10000;
+    
+    private static final Logger LOG = LoggerFactory.getLogger( InviteCache.class );
+    
+    private static final long TTL = TimeUnit.MINUTES.toNanos( TTL_MINUTES );
+    private static final long NEGATIVE_TTL = TimeUnit.MINUTES.toNanos( NEGATIVE_TTL_MINUTES );
+    
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool( 2, ( r ) -> {
+        
+        Thread thread = new Thread( r, "Invite Resolver" );
+        thread.setDaemon( true );
+        return thread;
+        
+    });
+    
+    /** Map of the caches for each client. */
+    private static final Map<IDiscordClient, InviteCache> caches = new ConcurrentHashMap<>();
+    
+    private final IDiscordClient client;
+    private final Map<String, Entry> entries;
+    
+    /**
+     * Creates a cache for the given client.
+     *
+     * @param client The client.
+     */
+    private InviteCache( IDiscordClient client ) {
+        
+        this.client = client;
+        this.entries = new ConcurrentHashMap<>();
+        
+    }
+    
+    /**
+     * Retrieves the invite cache of a given client.
+     * <p>
+     * If there is no cache for the client yet, creates one.
+     *
+     * @param client The client whose cache should be retrieved.
+     * @return The cache for the given client.
+     * @throws NullPointerException if the client passed in is null.
+     */
+    public static InviteCache getCache( IDiscordClient client ) throws NullPointerException {
+        
+        if ( client == null ) {
+            throw new NullPointerException( "Client argument cannot be null." );
+        }
+        return caches.computeIfAbsent( client, InviteCache::new );
+        
+    }
+    
+    /**
+     * Removes the invite cache of the given client, if there is one.
+     * <p>
+     * After removing the cache, the next call to {@link #getCache(IDiscordClient)} using
+     * the given client will create a new cache.
+     *
+     * @param client The client whose cache is to be removed.
+     * @return The (removed) cache of the given client, or null if there was no such cache.
+     * @throws NullPointerException if the client passed in is null.
+     */
+    public static InviteCache removeCache( IDiscordClient client ) throws NullPointerException {
+        
+        if ( client == null ) {
+            throw new NullPointerException( "Client argument cannot be null." );
+        }
+        return caches.remove( client );
+        
+    }
+    
+    /**
+     * Retrieves the invite with the given code, looking it up if it is not cached.
+     * <p>
+     * The returned future is completed with the invite, or with <b>null</b> if there is no
+     * invite with that code or the lookup failed.
+     *
+     * @param code The invite code.
+     * @return The future that is completed with the invite.
+     * @throws NullPointerException if the code is null.
+     */
+    public CompletableFuture<IInvite> getInviteAsync( String code ) throws NullPointerException {
+        
+        long now = System.nanoTime();
+        Entry entry = entries.get( code );
+        if ( ( entry != null ) && !entry.isExpired( now ) ) {
+            return entry.invite; // Cached or already being looked up.
+        }
+        
+        Entry newEntry = new Entry();
+        entry = entries.compute( code, ( k, old ) -> {
+            
+            return ( ( old != null ) && !old.isExpired( now ) ) ? old : newEntry;
+            
+        });
+        if ( entry == newEntry ) { // Need to look it up.
+            if ( entries.size() > MAX_ENTRIES ) {
+                evict( now );
+            }
+            EXECUTOR.execute( () -> lookUp( code, newEntry ) );
+        }
+        return entry.invite;
+        
+    }
+    
+    /**
+     * Retrieves the invite with the given code, looking it up if it is not cached. Blocks until
+     * the lookup is done.
+     *
+     * @param code The invite code.
+     * @return The invite, or null if there is no invite with that code or the lookup failed.
+     * @throws NullPointerException if the code is null.
+     */
+    public IInvite getInvite( String code ) throws NullPointerException {
+        
+        return getInviteAsync( code ).join();
+        
+    }
+    
+    /**
+     * Retrieves the amount of entries in this cache, including ones that expired but were not
+     * removed yet and ones being looked up.
+     *
+     * @return The amount of entries.
+     */
+    public int size() {
+        
+        return entries.size();
+        
+    }
+    
+    /**
+     * Removes all entries from this cache.
+     */
+    public void clear() {
+        
+        entries.clear();
+        
+    }
+    
+    /**
+     * Looks up an invite and stores the result in the given entry.
+     *
+     * @param code The invite code.
+     * @param entry The entry to store the result in.
+     */
+    private void lookUp( String code, Entry entry ) {
+        
+        IInvite invite;
+        try {
+            invite = client.getInviteForCode( code );
+        } catch ( RuntimeException e ) {
+            LOG.warn( "Failed to look up invite \"" + code + "\".", e );
+            entries.remove( code, entry ); // Do not cache errors.
+            entry.invite.complete( null );
+            return;
+        }
+        entry.expiration = System.nanoTime() + ( ( invite != null ) ? TTL : NEGATIVE_TTL );
+        entry.invite.complete( invite );
+        
+    }
+    
+    /**
+     * Removes expired entries, clearing the cache if that does not free enough space.
+     *
+     * @param now The current time.
+     */
+    private void evict( long now ) {
+        
+        entries.values().removeIf( ( entry ) -> entry.isExpired( now ) );
+        if ( entries.size() > MAX_ENTRIES ) {
+            LOG.debug( "Invite cache is full. Clearing." );
+            clear();
+        }
+        
+    }
+    
+    /**
+     * An entry of the cache.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2017-09-24
+     */
+    private static class Entry {
+        
+        /** Completed with the invite (or null) once it is looked up. */
+        final CompletableFuture<IInvite> invite = new CompletableFuture<>();
+        /** When the entry expires. Only valid after the invite is completed. */
+        volatile long expiration;
+        
+        /**
+         * Determines if this entry expired.
+         *
+         * @param now The current time.
+         * @return true if the lookup is done and the entry expired, false otherwise.
+         */
+        boolean isExpired( long now ) {
+            
+            return invite.isDone() && ( expiration - now <= 0 );
+            
+        }
+        
+    }
+    
+}
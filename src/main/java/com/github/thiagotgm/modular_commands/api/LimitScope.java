@@ -0,0 +1,100 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.api;
+
+import sx.blah.discord.handle.impl.events.guild.channel.message.MessageReceivedEvent;
+
+/**
+ * Identifies who shares a usage limit (such as a rate limit) of a command.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-22
+ */
+public enum LimitScope {
+    
+    /** Each user has their own limit. */
+    USER,
+    
+    /** Each channel has its own limit, shared by all users in it. */
+    CHANNEL,
+    
+    /**
+     * Each guild has its own limit, shared by all users in it. Private channels are
+     * limited by channel.
+     */
+    GUILD,
+    
+    /** The limit is shared by everyone. */
+    GLOBAL;
+    
+    /**
+     * Retrieves the ID that identifies, under this scope, who the given call counts against.
+     *
+     * @param event The event that triggered the call.
+     * @return The ID of the user, channel, or guild that made the call (or 0 if the scope is global).
+     */
+    public long getKey( MessageReceivedEvent event ) {
+        
+        switch ( this ) {
+            
+            case USER:
+                return event.getAuthor().getLongID();
+            
+            case CHANNEL:
+                return event.getChannel().getLongID();
+            
+            case GUILD:
+                return ( event.getGuild() != null ) ? event.getGuild().getLongID()
+                                                    : event.getChannel().getLongID();
+            
+            default:
+                return 0;
+            
+        }
+        
+    }
+    
+    /**
+     * Retrieves the scope with the given name (case-insensitive).
+     *
+     * @param name The name of the scope.
+     * @return The scope.
+     * @throws IllegalArgumentException if there is no scope with that name.
+     */
+    static LimitScope parse( String name ) throws IllegalArgumentException {
+        
+        for ( LimitScope scope : values() ) {
+            
+            if ( scope.name().equalsIgnoreCase( name ) ) {
+                return scope;
+            }
+            
+        }
+        throw new IllegalArgumentException( "Invalid limit scope: \"" + name + "\"." );
+        
+    }
+    
+    @Override
+    public String toString() {
+        
+        return name().toLowerCase();
+        
+    }
+    
+}
@@ -0,0 +1,391 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.api;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import sx.blah.discord.api.IDiscordClient;
+
+/**
+ * A typed parameter of a command, part of an {@link ArgumentSchema}.
+ * <p>
+ * The conversion from an argument to the value of the parameter is determined when the
+ * parameter is created, so converting arguments does not need to look up anything about the
+ * parameter.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-25
+ */
+public final class Parameter {
+    
+    /**
+     * How many arguments a parameter takes.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2017-09-25
+     */
+    public enum Arity {
+        
+        /** Exactly one argument. */
+        REQUIRED,
+        
+        /** One argument, that may be omitted. If omitted, the value of the parameter is null. */
+        OPTIONAL,
+        
+        /**
+         * Any amount of arguments (including none). The value of the parameter is a list
+         * with the converted arguments. Can only be used in the last parameter.
+         */
+        VARARGS
+        
+    }
+    
+    private static final String USER_PREFIX = "<@";
+    private static final String NICKNAME_PREFIX = "<@!";
+    private static final String ROLE_PREFIX = "<@&";
+    private static final String CHANNEL_PREFIX = "<#";
+    private static final String MENTION_SUFFIX = ">";
+    
+    private final String name;
+    private final ParameterType type;
+    private final Arity arity;
+    private final Class<? extends Enum<?>> enumType;
+    private final Converter converter;
+    
+    /**
+     * Creates a required parameter.
+     *
+     * @param name The name of the parameter.
+     * @param type The type of the parameter. Cannot be {@link ParameterType#ENUM}.
+     * @throws NullPointerException if the name or the type are null.
+     * @throws IllegalArgumentException if the name is empty or the type is ENUM.
+     */
+    public Parameter( String name, ParameterType type )
+            throws NullPointerException, IllegalArgumentException {
+        
+        this( name, type, Arity.REQUIRED );
+        
+    }
+    
+    /**
+     * Creates a parameter.
+     *
+     * @param name The name of the parameter.
+     * @param type The type of the parameter. Cannot be {@link ParameterType#ENUM}.
+     * @param arity How many arguments the parameter takes.
+     * @throws NullPointerException if any of the arguments is null.
+     * @throws IllegalArgumentException if the name is empty, the type is ENUM, or the type
+     *                                  is REST and the arity is VARARGS.
+     */
+    public Parameter( String name, ParameterType type, Arity arity )
+            throws NullPointerException, IllegalArgumentException {
+        
+        this( name, type, arity, null );
+        
+    }
+    
+    /**
+     * Creates a parameter that takes the name of a constant of an enum.
+     *
+     * @param name The name of the parameter.
+     * @param enumType The enum whose constants the parameter takes.
+     * @param arity How many arguments the parameter takes.
+     * @throws NullPointerException if any of the arguments is null.
+     * @throws IllegalArgumentException if the name is empty, or the enum has constants whose names
+     *                                  only differ in case.
+     */
+    public Parameter( String name, Class<? extends Enum<?>> enumType, Arity arity )
+            throws NullPointerException, IllegalArgumentException {
+        
+        this( name, ParameterType.ENUM, arity, enumType );
+        
+    }
+    
+    /**
+     * Creates a parameter.
+     *
+     * @param name The name of the parameter.
+     * @param type The type of the parameter.
+     * @param arity How many arguments the parameter takes.
+     * @param enumType The enum whose constants the parameter takes, if the type is ENUM.
+     *                 Must be null otherwise.
+     * @throws NullPointerException if the name, type, or arity are null, or if the type is ENUM
+     *                              and the enum type is null.
+     * @throws IllegalArgumentException if the name is empty, the type is not ENUM and the enum
+     *                                  type is not null, the type is REST and the arity is
+     *                                  VARARGS, or the enum has constants whose names only differ
+     *                                  in case.
+     */
+    private Parameter( String name, ParameterType type, Arity arity, Class<? extends Enum<?>> enumType )
+            throws NullPointerException, IllegalArgumentException {
+        
+        if ( ( name == null ) || ( type == null ) || ( arity == null ) ) {
+            throw new NullPointerException( "Name, type and arity cannot be null." );
+        }
+        if ( name.isEmpty() ) {
+            throw new IllegalArgumentException( "Name cannot be empty." );
+        }
+        if ( ( type == ParameterType.ENUM ) && ( enumType == null ) ) {
+            throw new NullPointerException( "Enum type cannot be null for an enum parameter." );
+        }
+        if ( ( type != ParameterType.ENUM ) && ( enumType != null ) ) {
+            throw new IllegalArgumentException( "Only enum parameters can have an enum type." );
+        }
+        if ( ( type == ParameterType.REST ) && ( arity == Arity.VARARGS ) ) {
+            throw new IllegalArgumentException( "A rest-of-line parameter cannot be varargs." );
+        }
+        
+        this.name = name;
+        this.type = type;
+        this.arity = arity;
+        this.enumType = enumType;
+        this.converter = compile( type, enumType );
+        
+    }
+    
+    /**
+     * Creates the converter for arguments of the given type.
+     *
+     * @param type The type.
+     * @param enumType The enum type, if the type is ENUM.
+     * @return The converter.
+     * @throws IllegalArgumentException if the type is ENUM and the enum has constants whose names
+     *                                  only differ in case.
+     */
+    private static Converter compile( ParameterType type, Class<? extends Enum<?>> enumType )
+            throws IllegalArgumentException {
+        
+        switch ( type ) {
+            
+            case INTEGER:
+                return ( arg, client ) -> {
+                    
+                    try {
+                        return Integer.valueOf( arg );
+                    } catch ( NumberFormatException e ) {
+                        return null;
+                    }
+                    
+                };
+            
+            case LONG:
+                return ( arg, client ) -> {
+                    
+                    try {
+                        return Long.valueOf( arg );
+                    } catch ( NumberFormatException e ) {
+                        return null;
+                    }
+                    
+                };
+            
+            case USER:
+                return ( arg, client ) -> {
+                    
+                    long id = parseID( arg, NICKNAME_PREFIX );
+                    if ( id == -1 ) {
+                        id = parseID( arg, USER_PREFIX );
+                    }
+                    return ( id == -1 ) ? null : client.getUserByID( id );
+                    
+                };
+            
+            case CHANNEL:
+                return ( arg, client ) -> {
+                    
+                    long id = parseID( arg, CHANNEL_PREFIX );
+                    return ( id == -1 ) ? null : client.getChannelByID( id );
+                    
+                };
+            
+            case ROLE:
+                return ( arg, client ) -> {
+                    
+                    long id = parseID( arg, ROLE_PREFIX );
+                    return ( id == -1 ) ? null : client.getRoleByID( id );
+                    
+                };
+            
+            case DURATION:
+                return ( arg, client ) -> {
+                    
+                    try {
+                        return Durations.parse( arg );
+                    } catch ( IllegalArgumentException e ) {
+                        return null;
+                    }
+                    
+                };
+            
+            case ENUM:
+                Map<String, Object> constants = new HashMap<>();
+                for ( Enum<?> constant : enumType.getEnumConstants() ) { // Index constants by name.
+                    
+                    Object previous = constants.put( constant.name().toLowerCase( Locale.ROOT ), constant );
+                    if ( previous != null ) { // Would not be possible to tell them apart.
+                        throw new IllegalArgumentException( "Enum constants \"" + previous + "\" and \""
+                                + constant.name() + "\" only differ in case." );
+                    }
+                    
+                }
+                return ( arg, client ) -> constants.get( arg.toLowerCase( Locale.ROOT ) );
+            
+            default: // STRING and REST.
+                return ( arg, client ) -> arg;
+            
+        }
+        
+    }
+    
+    /**
+     * Parses the ID in an argument that is either a mention with the given prefix or just
+     * the ID.
+     *
+     * @param arg The argument.
+     * @param mentionPrefix The prefix of the mention.
+     * @return The ID, or -1 if the argument is not a valid mention or ID.
+     */
+    private static long parseID( String arg, String mentionPrefix ) {
+        
+        int start = 0;
+        int end = arg.length();
+        if ( arg.startsWith( mentionPrefix ) && arg.endsWith( MENTION_SUFFIX ) ) { // Is a mention.
+            start = mentionPrefix.length();
+            end--;
+        }
+        if ( ( start == end ) || ( end - start > 20 ) ) {
+            return -1; // Empty or too long to be an ID.
+        }
+        for ( int i = start; i < end; i++ ) { // Check that it only has digits.
+            
+            char c = arg.charAt( i );
+            if ( ( c < '0' ) || ( c > '9' ) ) {
+                return -1;
+            }
+            
+        }
+        try {
+            return Long.parseUnsignedLong( arg.substring( start, end ) );
+        } catch ( NumberFormatException e ) {
+            return -1; // Out of range.
+        }
+        
+    }
+    
+    /**
+     * Retrieves the name of this parameter.
+     *
+     * @return The name.
+     */
+    public String getName() {
+        
+        return name;
+        
+    }
+    
+    /**
+     * Retrieves the type of this parameter.
+     *
+     * @return The type.
+     */
+    public ParameterType getType() {
+        
+        return type;
+        
+    }
+    
+    /**
+     * Retrieves how many arguments this parameter takes.
+     *
+     * @return The arity.
+     */
+    public Arity getArity() {
+        
+        return arity;
+        
+    }
+    
+    /**
+     * Retrieves the enum whose constants this parameter takes.
+     *
+     * @return The enum type, or null if the type of this parameter is not ENUM.
+     */
+    public Class<? extends Enum<?>> getEnumType() {
+        
+        return enumType;
+        
+    }
+    
+    /**
+     * Converts an argument to the value it represents for this parameter.
+     *
+     * @param arg The argument.
+     * @param client The client to use to find users, channels, etc.
+     * @return The converted value, or null if the argument is not valid for this parameter.
+     */
+    Object convert( String arg, IDiscordClient client ) {
+        
+        return converter.convert( arg, client );
+        
+    }
+    
+    @Override
+    public String toString() {
+        
+        String typeName = ( enumType != null ) ? enumType.getSimpleName() : type.toString();
+        switch ( arity ) {
+            
+            case OPTIONAL:
+                return "[" + name + ":" + typeName + "]";
+            
+            case VARARGS:
+                return "[" + name + ":" + typeName + "...]";
+            
+            default:
+                return "<" + name + ":" + typeName + ">";
+            
+        }
+        
+    }
+    
+    /**
+     * Converts arguments to the values of a parameter.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2017-09-25
+     */
+    @FunctionalInterface
+    private interface Converter {
+        
+        /**
+         * Converts an argument.
+         *
+         * @param arg The argument.
+         * @param client The client to use to find users, channels, etc.
+         * @return The converted value, or null if the argument is not valid.
+         */
+        Object convert( String arg, IDiscordClient client );
+        
+    }
+    
+}
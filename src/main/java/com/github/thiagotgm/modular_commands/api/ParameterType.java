@@ -0,0 +1,71 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.api;
+
+import sx.blah.discord.handle.obj.IChannel;
+import sx.blah.discord.handle.obj.IRole;
+import sx.blah.discord.handle.obj.IUser;
+
+/**
+ * Identifies the type of value that a {@link Parameter} of a command takes, and thus what
+ * arguments are valid for it and what object it is converted to.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-25
+ */
+public enum ParameterType {
+    
+    /** Any single argument. Converted to a {@link String}. */
+    STRING,
+    
+    /** A 32-bit integer. Converted to an {@link Integer}. */
+    INTEGER,
+    
+    /** A 64-bit integer. Converted to a {@link Long}. */
+    LONG,
+    
+    /** A mention or the ID of a user. Converted to an {@link IUser}. */
+    USER,
+    
+    /** A mention or the ID of a channel. Converted to an {@link IChannel}. */
+    CHANNEL,
+    
+    /** A mention or the ID of a role. Converted to an {@link IRole}. */
+    ROLE,
+    
+    /**
+     * A duration, such as <tt>10s</tt>, <tt>500ms</tt>, or <tt>1h30m</tt> (supported units are
+     * <tt>ms</tt>, <tt>s</tt>, <tt>m</tt>, <tt>h</tt>, and <tt>d</tt>). Converted to a {@link Long}
+     * that is the duration in milliseconds.
+     */
+    DURATION,
+    
+    /**
+     * The name of a constant of an enum (case-insensitive). Converted to that constant.
+     */
+    ENUM,
+    
+    /**
+     * All the remaining arguments, joined by spaces. Converted to a {@link String}.
+     * <p>
+     * Can only be used in the last parameter.
+     */
+    REST
+    
+}
@@ -0,0 +1,385 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.api;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import sx.blah.discord.api.IDiscordClient;
+import sx.blah.discord.api.events.Event;
+import sx.blah.discord.api.events.IListener;
+import sx.blah.discord.handle.impl.events.guild.GuildEvent;
+import sx.blah.discord.handle.impl.events.guild.GuildLeaveEvent;
+import sx.blah.discord.handle.impl.events.guild.GuildUpdateEvent;
+import sx.blah.discord.handle.impl.events.guild.channel.ChannelDeleteEvent;
+import sx.blah.discord.handle.impl.events.guild.channel.ChannelEvent;
+import sx.blah.discord.handle.impl.events.guild.channel.ChannelUpdateEvent;
+import sx.blah.discord.handle.impl.events.guild.member.GuildMemberEvent;
+import sx.blah.discord.handle.impl.events.guild.member.UserLeaveEvent;
+import sx.blah.discord.handle.impl.events.guild.member.UserRoleUpdateEvent;
+import sx.blah.discord.handle.impl.events.guild.role.RoleDeleteEvent;
+import sx.blah.discord.handle.impl.events.guild.role.RoleUpdateEvent;
+import sx.blah.discord.handle.impl.events.shard.DisconnectedEvent;
+import sx.blah.discord.handle.impl.events.shard.ReconnectSuccessEvent;
+import sx.blah.discord.handle.obj.IChannel;
+import sx.blah.discord.handle.obj.IGuild;
+import sx.blah.discord.handle.obj.IUser;
+
+/**
+ * Cache of the permissions that users have in guilds and guild channels, used by a
+ * {@link CommandHandler} to check whether callers are allowed to call commands.
+ * <p>
+ * Resolving the permissions of a user requires going through all their roles and the permission
+ * overrides of the channel, so it gets expensive in guilds with many roles. This cache keeps the
+ * resolved permissions (as bitmasks, see {@link CommandChain#toMask(java.util.Collection)}) of each
+ * (guild, user) and (channel, user) pair, and listens to the events that may change them in order
+ * to invalidate them:
+ * <ul>
+ *   <li>Role updates and deletions invalidate the whole guild;</li>
+ *   <li>Changes to the roles of a member, and members leaving, invalidate that member;</li>
+ *   <li>Channel updates (including permission overrides) and deletions invalidate that channel;</li>
+ *   <li>Guild updates (such as the owner changing) and leaving a guild invalidate the whole guild;</li>
+ *   <li>Disconnections and reconnections (after which events may have been missed) invalidate
+ *       everything.</li>
+ * </ul>
+ * Permissions in private channels are not cached.
+ * <p>
+ * The cache registers itself as a listener on the dispatcher of each client it is
+ * {@link #attach(IDiscordClient) attached} to. The command handler attaches it to the client of each
+ * message it handles, so it does not need to be registered manually, and detaches it when the
+ * handler is {@link CommandHandler#close() closed}.
+ * <p>
+ * The amount of entries is bounded: when the amount of entries added since the cache was last
+ * cleared reaches the maximum, it is cleared.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-24
+ */
+public final class PermissionCache implements IListener<Event> {
+    
+    /** Default maximum amount of entries in the cache. */
+    public static final int DEFAULT_MAX_ENTRIES = 100000;
+    
+    private static final Logger LOG = LoggerFactory.getLogger( PermissionCache.class );
+    
+    /** Marks guild permissions that are not cached. Masks never use the sign bit. */
+    private static final long UNKNOWN = -1;
+    
+    private final int maxEntries;
+    private final Map<Long, Map<Long, MemberPermissions>> guilds;
+    private final AtomicLong generation;
+    private final AtomicInteger added;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final Set<IDiscordClient> clients;
+    
+    /**
+     * Creates a cache with the default maximum amount of entries.
+     */
+    PermissionCache() {
+        
+        this( DEFAULT_MAX_ENTRIES );
+        
+    }
+    
+    /**
+     * Creates a cache with the given maximum amount of entries.
+     *
+     * @param maxEntries The maximum amount of entries.
+     */
+    PermissionCache( int maxEntries ) {
+        
+        this.maxEntries = maxEntries;
+        this.guilds = new ConcurrentHashMap<>();
+        this.generation = new AtomicLong();
+        this.added = new AtomicInteger();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.clients = ConcurrentHashMap.newKeySet();
+        
+    }
+    
+    /**
+     * Makes this cache listen to the events of the given client, if it was not already.
+     *
+     * @param client The client.
+     */
+    void attach( IDiscordClient client ) {
+        
+        if ( clients.add( client ) ) {
+            client.getDispatcher().registerListener( this );
+            LOG.debug( "Permission cache attached to a client." );
+        }
+        
+    }
+    
+    /**
+     * Stops listening to the events of all the clients this cache was attached to, and clears it.
+     * <p>
+     * Should be called when the command handler that uses this cache is discarded.
+     */
+    public void detach() {
+        
+        for ( IDiscordClient client : clients ) {
+            
+            client.getDispatcher().unregisterListener( this );
+            
+        }
+        clients.clear();
+        clear();
+        
+    }
+    
+    /**
+     * Retrieves the <i>channel-overriden</i> permissions that a user has in a channel.
+     *
+     * @param channel The channel.
+     * @param user The user.
+     * @return The permissions, as a bitmask.
+     */
+    long getPermissions( IChannel channel, IUser user ) {
+        
+        IGuild guild = channel.isPrivate() ? null : channel.getGuild();
+        if ( guild == null ) { // Private channel, not cached.
+            return CommandChain.toMask( channel.getModifiedPermissions( user ) );
+        }
+        
+        MemberPermissions member = getMember( guild, user );
+        Long cached = ( member == null ) ? null : member.channelPermissions.get( channel.getLongID() );
+        if ( cached != null ) {
+            hits.increment();
+            return cached;
+        }
+        
+        misses.increment();
+        reserve();
+        long gen = generation.get();
+        Long permissions = CommandChain.toMask( channel.getModifiedPermissions( user ) );
+        if ( member == null ) {
+            member = getOrCreateMember( guild, user );
+        }
+        member.channelPermissions.put( channel.getLongID(), permissions );
+        if ( generation.get() != gen ) { // Invalidated while resolving. Discard, as it
+            member.channelPermissions.remove( channel.getLongID(), permissions ); // may be outdated.
+        }
+        return permissions;
+        
+    }
+    
+    /**
+     * Retrieves the <i>server-wide</i> permissions that a user has in a guild.
+     *
+     * @param guild The guild.
+     * @param user The user.
+     * @return The permissions, as a bitmask.
+     */
+    long getPermissions( IGuild guild, IUser user ) {
+        
+        MemberPermissions member = getMember( guild, user );
+        long cached = ( member == null ) ? UNKNOWN : member.guildPermissions;
+        if ( cached != UNKNOWN ) {
+            hits.increment();
+            return cached;
+        }
+        
+        misses.increment();
+        reserve();
+        long gen = generation.get();
+        long permissions = CommandChain.toMask( user.getPermissionsForGuild( guild ) );
+        if ( member == null ) {
+            member = getOrCreateMember( guild, user );
+        }
+        member.guildPermissions = permissions;
+        if ( generation.get() != gen ) { // Invalidated while resolving. Discard, as it
+            member.guildPermissions = UNKNOWN; // may be outdated.
+        }
+        return permissions;
+        
+    }
+    
+    /**
+     * Retrieves the cached permissions of a member of a guild.
+     *
+     * @param guild The guild.
+     * @param user The user.
+     * @return The cached permissions, or null if there are none.
+     */
+    private MemberPermissions getMember( IGuild guild, IUser user ) {
+        
+        Map<Long, MemberPermissions> members = guilds.get( guild.getLongID() );
+        return ( members == null ) ? null : members.get( user.getLongID() );
+        
+    }
+    
+    /**
+     * Retrieves the cached permissions of a member of a guild, creating an empty entry for it
+     * if there is none.
+     *
+     * @param guild The guild.
+     * @param user The user.
+     * @return The cached permissions.
+     */
+    private MemberPermissions getOrCreateMember( IGuild guild, IUser user ) {
+        
+        return guilds.computeIfAbsent( guild.getLongID(), ( k ) -> new ConcurrentHashMap<>() )
+                .computeIfAbsent( user.getLongID(), ( k ) -> new MemberPermissions() );
+        
+    }
+    
+    /**
+     * Counts an entry that is about to be added, clearing the cache if it is full.
+     */
+    private void reserve() {
+        
+        if ( added.incrementAndGet() > maxEntries ) {
+            LOG.debug( "Permission cache is full. Clearing." );
+            clear();
+        }
+        
+    }
+    
+    /**
+     * Removes all entries from this cache.
+     */
+    public void clear() {
+        
+        generation.incrementAndGet();
+        guilds.clear();
+        added.set( 0 );
+        
+    }
+    
+    /**
+     * Retrieves how many times the permissions of a user were found in the cache.
+     *
+     * @return The amount of cache hits.
+     */
+    public long getHitCount() {
+        
+        return hits.sum();
+        
+    }
+    
+    /**
+     * Retrieves how many times the permissions of a user were not found in the cache and
+     * had to be resolved. Lookups in private channels are not counted.
+     *
+     * @return The amount of cache misses.
+     */
+    public long getMissCount() {
+        
+        return misses.sum();
+        
+    }
+    
+    /**
+     * Invalidates all entries in a guild.
+     *
+     * @param guild The guild.
+     */
+    private void invalidate( IGuild guild ) {
+        
+        generation.incrementAndGet();
+        guilds.remove( guild.getLongID() );
+        
+    }
+    
+    /**
+     * Invalidates the entries of a member of a guild.
+     *
+     * @param guild The guild.
+     * @param user The user.
+     */
+    private void invalidate( IGuild guild, IUser user ) {
+        
+        generation.incrementAndGet();
+        Map<Long, MemberPermissions> members = guilds.get( guild.getLongID() );
+        if ( members != null ) {
+            members.remove( user.getLongID() );
+        }
+        
+    }
+    
+    /**
+     * Invalidates the entries of a guild channel.
+     *
+     * @param guild The guild.
+     * @param channel The channel.
+     */
+    private void invalidate( IGuild guild, IChannel channel ) {
+        
+        generation.incrementAndGet();
+        Map<Long, MemberPermissions> members = guilds.get( guild.getLongID() );
+        if ( members != null ) {
+            for ( MemberPermissions member : members.values() ) {
+                
+                member.channelPermissions.remove( channel.getLongID() );
+                
+            }
+        }
+        
+    }
+    
+    /**
+     * Invalidates the entries affected by the given event, if any.
+     *
+     * @param event The event.
+     */
+    @Override
+    public void handle( Event event ) {
+        
+        if ( ( event instanceof RoleUpdateEvent ) || ( event instanceof RoleDeleteEvent ) ||
+                ( event instanceof GuildUpdateEvent ) || ( event instanceof GuildLeaveEvent ) ) {
+            invalidate( ( (GuildEvent) event ).getGuild() ); // May affect anyone in the guild.
+        } else if ( ( event instanceof UserRoleUpdateEvent ) || ( event instanceof UserLeaveEvent ) ) {
+            GuildMemberEvent memberEvent = (GuildMemberEvent) event;
+            invalidate( memberEvent.getGuild(), memberEvent.getUser() );
+        } else if ( ( event instanceof ChannelUpdateEvent ) || ( event instanceof ChannelDeleteEvent ) ) {
+            ChannelEvent channelEvent = (ChannelEvent) event;
+            invalidate( channelEvent.getGuild(), channelEvent.getChannel() );
+        } else if ( ( event instanceof DisconnectedEvent ) || ( event instanceof ReconnectSuccessEvent ) ) {
+            clear(); // Events may have been missed.
+        }
+        
+    }
+    
+    /**
+     * Cached permissions of a member of a guild.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2017-09-24
+     */
+    private static class MemberPermissions {
+        
+        /** Server-wide permissions, or {@link PermissionCache#UNKNOWN} if not cached. */
+        volatile long guildPermissions = UNKNOWN;
+        /** Channel-overriden permissions in each channel of the guild. */
+        final Map<Long, Long> channelPermissions = new ConcurrentHashMap<>();
+        
+    }
+    
+}
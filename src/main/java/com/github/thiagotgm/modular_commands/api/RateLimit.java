@@ -0,0 +1,174 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.api;
+
+/**
+ * Limit on how many times a command may be called within a period of time.
+ * <p>
+ * The limit works as a token bucket: each {@link LimitScope scope} (user, channel, etc) starts
+ * with a full bucket of <tt>permits</tt> tokens, each call takes one token, and the bucket is
+ * refilled at a steady rate of <tt>permits</tt> tokens per <tt>period</tt>. Calls made when the
+ * bucket is empty fail with {@link FailureReason#RATE_LIMITED}.
+ * <p>
+ * A rate limit can be written as a string in the form <tt>permits/period [per scope]</tt>, where the
+ * period is a duration such as <tt>10s</tt>, <tt>500ms</tt>, or <tt>1h30m</tt> (supported units are
+ * <tt>ms</tt>, <tt>s</tt>, <tt>m</tt>, <tt>h</tt>, and <tt>d</tt>), and the scope is one of
+ * <tt>user</tt>, <tt>channel</tt>, <tt>guild</tt>, or <tt>global</tt>. If the scope is omitted,
+ * the limit is per user. eg: <tt>5/10s per user</tt>, <tt>100/1m per guild</tt>, <tt>1/2s</tt>.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-22
+ */
+public final class RateLimit {
+    
+    private static final String SLASH = "/";
+    private static final String PER = "per";
+    
+    private final int permits;
+    private final long period;
+    private final LimitScope scope;
+    
+    /**
+     * Creates a rate limit.
+     *
+     * @param permits How many calls are allowed within the period.
+     * @param period The period, in milliseconds.
+     * @param scope Who shares the same limit.
+     * @throws IllegalArgumentException if the amount of permits or the period are not positive.
+     * @throws NullPointerException if the scope is null.
+     */
+    public RateLimit( int permits, long period, LimitScope scope )
+            throws IllegalArgumentException, NullPointerException {
+        
+        if ( permits < 1 ) {
+            throw new IllegalArgumentException( "Amount of permits must be positive." );
+        }
+        if ( period < 1 ) {
+            throw new IllegalArgumentException( "Period must be positive." );
+        }
+        if ( scope == null ) {
+            throw new NullPointerException( "Scope cannot be null." );
+        }
+        
+        this.permits = permits;
+        this.period = period;
+        this.scope = scope;
+        
+    }
+    
+    /**
+     * Parses a rate limit from its string form.
+     *
+     * @param limit The rate limit string.
+     * @return The rate limit.
+     * @throws NullPointerException if the string is null.
+     * @throws IllegalArgumentException if the string is not a valid rate limit.
+     * @see RateLimit
+     */
+    public static RateLimit parse( String limit ) throws NullPointerException, IllegalArgumentException {
+        
+        String[] words = limit.trim().split( "\\s+" );
+        LimitScope scope;
+        if ( words.length == 1 ) {
+            scope = LimitScope.USER; // Default scope.
+        } else if ( ( words.length == 3 ) && words[1].equalsIgnoreCase( PER ) ) {
+            scope = LimitScope.parse( words[2] );
+        } else {
+            throw new IllegalArgumentException( "Invalid rate limit: \"" + limit + "\"." );
+        }
+        
+        int slash = words[0].indexOf( SLASH );
+        if ( slash == -1 ) {
+            throw new IllegalArgumentException( "Invalid rate limit: \"" + limit + "\"." );
+        }
+        int permits;
+        try {
+            permits = Integer.parseInt( words[0].substring( 0, slash ) );
+        } catch ( NumberFormatException e ) {
+            throw new IllegalArgumentException( "Invalid amount of permits in \"" + limit + "\".", e );
+        }
+        long period = Durations.parse( words[0].substring( slash + 1 ) );
+        return new RateLimit( permits, period, scope );
+        
+    }
+    
+    /**
+     * Retrieves how many calls are allowed within the period.
+     *
+     * @return The amount of permits.
+     */
+    public int getPermits() {
+        
+        return permits;
+        
+    }
+    
+    /**
+     * Retrieves the period in which the permits are refilled.
+     *
+     * @return The period, in milliseconds.
+     */
+    public long getPeriod() {
+        
+        return period;
+        
+    }
+    
+    /**
+     * Retrieves who shares the same limit.
+     *
+     * @return The scope of the limit.
+     */
+    public LimitScope getScope() {
+        
+        return scope;
+        
+    }
+    
+    @Override
+    public boolean equals( Object obj ) {
+        
+        if ( !( obj instanceof RateLimit ) ) {
+            return false;
+        }
+        RateLimit limit = (RateLimit) obj;
+        return ( permits == limit.permits ) && ( period == limit.period ) && ( scope == limit.scope );
+        
+    }
+    
+    @Override
+    public int hashCode() {
+        
+        return ( 31 * ( 31 * permits + Long.hashCode( period ) ) ) + scope.hashCode();
+        
+    }
+    
+    /**
+     * Retrieves the string form of this rate limit, that can be given to {@link #parse(String)}.
+     *
+     * @return The rate limit string.
+     */
+    @Override
+    public String toString() {
+        
+        return permits + SLASH + Durations.format( period ) + " " + PER + " " + scope;
+        
+    }
+    
+}
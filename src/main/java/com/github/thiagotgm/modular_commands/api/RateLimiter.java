@@ -0,0 +1,170 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.api;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the token buckets of a {@link RateLimit}, one for each key (user, channel, etc).
+ * <p>
+ * Each bucket is stored as a single timestamp, the time at which it will be full again
+ * (generic cell rate algorithm), and is updated with compare-and-set, so calls never block.
+ * Buckets that are full are equivalent to buckets that don't exist, so they are periodically
+ * removed. The amount of buckets is bounded: if it is reached and no bucket can be removed,
+ * calls from new keys are denied.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-22
+ */
+final class RateLimiter {
+    
+    /** Default maximum amount of buckets kept at once. */
+    static final int DEFAULT_MAX_BUCKETS = 100000;
+    
+    /** Marks a bucket that is being removed. */
+    private static final long REMOVED = -1;
+    /** Minimum time between sweeps for expired buckets. */
+    private static final long MIN_SWEEP_INTERVAL = TimeUnit.SECONDS.toNanos( 1 );
+    /** Time between regular sweeps. */
+    private static final long SWEEP_INTERVAL = TimeUnit.MINUTES.toNanos( 1 );
+    
+    private final RateLimit limit;
+    private final long interval;
+    private final long tolerance;
+    private final int maxBuckets;
+    private final long start;
+    private final Map<Long, AtomicLong> buckets;
+    private final AtomicLong nextSweep;
+    private final AtomicLong lastSweep;
+    
+    /**
+     * Creates a limiter for the given rate limit.
+     *
+     * @param limit The rate limit to enforce.
+     * @param maxBuckets Maximum amount of buckets kept at once.
+     */
+    RateLimiter( RateLimit limit, int maxBuckets ) {
+        
+        long period = TimeUnit.MILLISECONDS.toNanos( limit.getPeriod() );
+        this.limit = limit;
+        this.interval = Math.max( period / limit.getPermits(), 1 ); // Time to refill one token.
+        this.tolerance = period - interval; // How far ahead the bucket may be before it is empty.
+        this.maxBuckets = maxBuckets;
+        this.start = System.nanoTime();
+        this.buckets = new ConcurrentHashMap<>();
+        this.nextSweep = new AtomicLong( Math.max( period, SWEEP_INTERVAL ) );
+        this.lastSweep = new AtomicLong( 0 );
+        
+    }
+    
+    /**
+     * Retrieves the rate limit enforced by this limiter.
+     *
+     * @return The rate limit.
+     */
+    RateLimit getLimit() {
+        
+        return limit;
+        
+    }
+    
+    /**
+     * Retrieves the current time, relative to when this limiter was created.
+     *
+     * @return The current time, in nanoseconds (never negative).
+     */
+    private long now() {
+        
+        return System.nanoTime() - start;
+        
+    }
+    
+    /**
+     * Attempts to take a token from the bucket of the given key.
+     *
+     * @param key The key (user ID, channel ID, etc).
+     * @return true if a token was taken (the call is allowed), false if the bucket is empty
+     *         or there is no space for a new bucket (the call is denied).
+     */
+    boolean tryAcquire( long key ) {
+        
+        long now = now();
+        long next = nextSweep.get();
+        if ( ( now >= next ) && nextSweep.compareAndSet( next, now + Math.max( tolerance + interval,
+                SWEEP_INTERVAL ) ) ) {
+            sweep( now ); // Regular cleanup.
+        }
+        
+        while ( true ) {
+            
+            AtomicLong bucket = buckets.get( key );
+            if ( bucket == null ) { // No bucket, so it is full.
+                if ( ( buckets.size() >= maxBuckets ) && !sweep( now ) ) {
+                    return false; // No space for a new bucket.
+                }
+                bucket = buckets.putIfAbsent( key, new AtomicLong( now + interval ) );
+                if ( bucket == null ) {
+                    return true; // Took the first token.
+                }
+            }
+            long fullAt = bucket.get();
+            if ( fullAt == REMOVED ) { // Bucket expired. Make sure it was removed and try again.
+                buckets.remove( key, bucket );
+                continue;
+            }
+            long from = Math.max( fullAt, now );
+            if ( from - now > tolerance ) {
+                return false; // Bucket is empty.
+            }
+            if ( bucket.compareAndSet( fullAt, from + interval ) ) {
+                return true; // Took a token.
+            }
+            
+        }
+        
+    }
+    
+    /**
+     * Removes all buckets that are full, unless the last sweep was too recent.
+     *
+     * @param now The current time.
+     * @return true if there is space for new buckets after the sweep, false otherwise.
+     */
+    private boolean sweep( long now ) {
+        
+        long last = lastSweep.get();
+        if ( ( now - last >= MIN_SWEEP_INTERVAL ) && lastSweep.compareAndSet( last, now ) ) {
+            for ( Map.Entry<Long, AtomicLong> entry : buckets.entrySet() ) {
+                
+                AtomicLong bucket = entry.getValue();
+                long fullAt = bucket.get();
+                if ( ( fullAt != REMOVED ) && ( fullAt <= now ) && bucket.compareAndSet( fullAt, REMOVED ) ) {
+                    buckets.remove( entry.getKey(), bucket );
+                }
+                
+            }
+        }
+        return buckets.size() < maxBuckets;
+        
+    }
+    
+}
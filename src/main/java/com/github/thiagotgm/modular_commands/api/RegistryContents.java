@@ -0,0 +1,324 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.api;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.thiagotgm.modular_commands.registry.PlaceholderCommandRegistry;
+
+/**
+ * Immutable snapshot of the commands, subregistries, and placeholders of a registry.
+ * <p>
+ * A registry publishes its contents as a single reference to a snapshot, so reading them never
+ * requires a lock. Changes create a new snapshot (copying only the tables that changed) that
+ * replaces the current one.
+ * <p>
+ * The commands that share an identifier (signature or alias) are kept sorted by precedence,
+ * so the first one is the one that the identifier resolves to.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-25
+ */
+final class RegistryContents {
+    
+    /** Snapshot of a registry with nothing registered. */
+    static final RegistryContents EMPTY = new RegistryContents( Collections.emptyMap(),
+            Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(),
+            Collections.emptyMap() );
+    
+    private final Map<String, ICommand> commands;
+    private final Map<String, List<ICommand>> withPrefix;
+    private final Map<String, List<ICommand>> noPrefix;
+    private final Map<String, CommandRegistry> subRegistries;
+    private final List<CommandRegistry> sortedSubRegistries;
+    private final Map<String, PlaceholderCommandRegistry> placeholders;
+    
+    /**
+     * Creates a snapshot with the given tables.
+     *
+     * @param commands Table of commands, stored by name. Must be unmodifiable.
+     * @param withPrefix Table of commands with specified prefix, stored by (each) signature.
+     *                   Must be unmodifiable.
+     * @param noPrefix Table of commands with no specified prefix, stored by (each) alias.
+     *                 Must be unmodifiable.
+     * @param subRegistries Table of subregistries, stored by qualified name. Must be unmodifiable.
+     * @param placeholders Table of placeholders, stored by qualified name. Must be unmodifiable.
+     */
+    private RegistryContents( Map<String, ICommand> commands, Map<String, List<ICommand>> withPrefix,
+            Map<String, List<ICommand>> noPrefix, Map<String, CommandRegistry> subRegistries,
+            Map<String, PlaceholderCommandRegistry> placeholders ) {
+        
+        this.commands = commands;
+        this.withPrefix = withPrefix;
+        this.noPrefix = noPrefix;
+        this.subRegistries = subRegistries;
+        List<CommandRegistry> sorted = new ArrayList<>( subRegistries.values() );
+        Collections.sort( sorted );
+        this.sortedSubRegistries = Collections.unmodifiableList( sorted );
+        this.placeholders = placeholders;
+        
+    }
+    
+    /**
+     * Retrieves the table of commands.
+     *
+     * @return The (unmodifiable) commands, stored by name.
+     */
+    Map<String, ICommand> getCommands() {
+        
+        return commands;
+        
+    }
+    
+    /**
+     * Retrieves the table of commands that specify a prefix.
+     *
+     * @return The (unmodifiable) commands, stored by signature and sorted by precedence.
+     */
+    Map<String, List<ICommand>> getWithPrefix() {
+        
+        return withPrefix;
+        
+    }
+    
+    /**
+     * Retrieves the table of commands that do not specify a prefix.
+     *
+     * @return The (unmodifiable) commands, stored by alias and sorted by precedence.
+     */
+    Map<String, List<ICommand>> getNoPrefix() {
+        
+        return noPrefix;
+        
+    }
+    
+    /**
+     * Retrieves the table of subregistries.
+     *
+     * @return The (unmodifiable) subregistries, stored by qualified name.
+     */
+    Map<String, CommandRegistry> getSubRegistries() {
+        
+        return subRegistries;
+        
+    }
+    
+    /**
+     * Retrieves the subregistries in their natural order.
+     *
+     * @return The (unmodifiable) sorted list of subregistries.
+     * @see CommandRegistry#compareTo(CommandRegistry)
+     */
+    List<CommandRegistry> getSortedSubRegistries() {
+        
+        return sortedSubRegistries;
+        
+    }
+    
+    /**
+     * Retrieves the table of placeholders.
+     *
+     * @return The (unmodifiable) placeholders, stored by qualified name.
+     */
+    Map<String, PlaceholderCommandRegistry> getPlaceholders() {
+        
+        return placeholders;
+        
+    }
+    
+    /**
+     * Creates a snapshot with the given commands added.
+     *
+     * @param added The commands to add. Their names must not be in this snapshot.
+     * @return The new snapshot.
+     */
+    RegistryContents withCommands( Collection<ICommand> added ) {
+        
+        Map<String, ICommand> commands = new HashMap<>( this.commands );
+        Map<String, List<ICommand>> withPrefix = new HashMap<>( this.withPrefix );
+        Map<String, List<ICommand>> noPrefix = new HashMap<>( this.noPrefix );
+        for ( ICommand command : added ) {
+            
+            commands.put( command.getName(), command ); // Add command to main table.
+            boolean prefixed = command.getPrefix() != null;
+            Map<String, List<ICommand>> table = prefixed ? withPrefix : noPrefix;
+            for ( String identifier : prefixed ? command.getSignatures() : command.getAliases() ) {
+                
+                List<ICommand> list = table.get( identifier );
+                list = ( list == null ) ? new ArrayList<>( 1 ) : new ArrayList<>( list );
+                int index = Collections.binarySearch( list, command );
+                list.add( ( index < 0 ) ? ( -index - 1 ) : index, command ); // Keep sorted.
+                table.put( identifier, Collections.unmodifiableList( list ) );
+                
+            }
+            
+        }
+        return new RegistryContents( Collections.unmodifiableMap( commands ),
+                Collections.unmodifiableMap( withPrefix ), Collections.unmodifiableMap( noPrefix ),
+                subRegistries, placeholders );
+        
+    }
+    
+    /**
+     * Creates a snapshot with the given command removed.
+     *
+     * @param command The command to remove. Must be in this snapshot.
+     * @return The new snapshot.
+     */
+    RegistryContents withoutCommand( ICommand command ) {
+        
+        Map<String, ICommand> commands = new HashMap<>( this.commands );
+        commands.remove( command.getName() );
+        boolean prefixed = command.getPrefix() != null;
+        Map<String, List<ICommand>> table = new HashMap<>( prefixed ? this.withPrefix : this.noPrefix );
+        for ( String identifier : prefixed ? command.getSignatures() : command.getAliases() ) {
+            
+            List<ICommand> list = table.get( identifier );
+            if ( list == null ) {
+                continue;
+            }
+            list = new ArrayList<>( list );
+            list.remove( command );
+            if ( list.isEmpty() ) {
+                table.remove( identifier );
+            } else {
+                table.put( identifier, Collections.unmodifiableList( list ) );
+            }
+            
+        }
+        table = Collections.unmodifiableMap( table );
+        return new RegistryContents( Collections.unmodifiableMap( commands ),
+                prefixed ? table : withPrefix, prefixed ? noPrefix : table, subRegistries, placeholders );
+        
+    }
+    
+    /**
+     * Creates a snapshot with no commands.
+     *
+     * @return The new snapshot.
+     */
+    RegistryContents withoutCommands() {
+        
+        return new RegistryContents( Collections.emptyMap(), Collections.emptyMap(),
+                Collections.emptyMap(), subRegistries, placeholders );
+        
+    }
+    
+    /**
+     * Creates a snapshot with the given subregistries and placeholders added.
+     *
+     * @param subRegistries The subregistries to add, stored by qualified name.
+     * @param placeholders The placeholders to add, stored by qualified name.
+     * @return The new snapshot.
+     */
+    RegistryContents withSubRegistries( Map<String, CommandRegistry> subRegistries,
+            Map<String, PlaceholderCommandRegistry> placeholders ) {
+        
+        Map<String, CommandRegistry> newSubRegistries = this.subRegistries;
+        if ( !subRegistries.isEmpty() ) {
+            newSubRegistries = new HashMap<>( this.subRegistries );
+            newSubRegistries.putAll( subRegistries );
+            newSubRegistries = Collections.unmodifiableMap( newSubRegistries );
+        }
+        Map<String, PlaceholderCommandRegistry> newPlaceholders = this.placeholders;
+        if ( !placeholders.isEmpty() ) {
+            newPlaceholders = new HashMap<>( this.placeholders );
+            newPlaceholders.putAll( placeholders );
+            newPlaceholders = Collections.unmodifiableMap( newPlaceholders );
+        }
+        return new RegistryContents( commands, withPrefix, noPrefix, newSubRegistries, newPlaceholders );
+        
+    }
+    
+    /**
+     * Creates a snapshot with the given subregistry added.
+     *
+     * @param qualifiedName The qualified name of the subregistry.
+     * @param subRegistry The subregistry.
+     * @return The new snapshot.
+     */
+    RegistryContents withSubRegistry( String qualifiedName, CommandRegistry subRegistry ) {
+        
+        return withSubRegistries( Collections.singletonMap( qualifiedName, subRegistry ),
+                Collections.emptyMap() );
+        
+    }
+    
+    /**
+     * Creates a snapshot with the given placeholder added.
+     *
+     * @param qualifiedName The qualified name of the placeholder.
+     * @param placeholder The placeholder.
+     * @return The new snapshot.
+     */
+    RegistryContents withPlaceholder( String qualifiedName, PlaceholderCommandRegistry placeholder ) {
+        
+        return withSubRegistries( Collections.emptyMap(),
+                Collections.singletonMap( qualifiedName, placeholder ) );
+        
+    }
+    
+    /**
+     * Creates a snapshot with the subregistry with the given name removed.
+     *
+     * @param qualifiedName The qualified name of the subregistry.
+     * @return The new snapshot.
+     */
+    RegistryContents withoutSubRegistry( String qualifiedName ) {
+        
+        Map<String, CommandRegistry> subRegistries = new HashMap<>( this.subRegistries );
+        subRegistries.remove( qualifiedName );
+        return new RegistryContents( commands, withPrefix, noPrefix,
+                Collections.unmodifiableMap( subRegistries ), placeholders );
+        
+    }
+    
+    /**
+     * Creates a snapshot with the placeholder with the given name removed.
+     *
+     * @param qualifiedName The qualified name of the placeholder.
+     * @return The new snapshot.
+     */
+    RegistryContents withoutPlaceholder( String qualifiedName ) {
+        
+        Map<String, PlaceholderCommandRegistry> placeholders = new HashMap<>( this.placeholders );
+        placeholders.remove( qualifiedName );
+        return new RegistryContents( commands, withPrefix, noPrefix, subRegistries,
+                Collections.unmodifiableMap( placeholders ) );
+        
+    }
+    
+    /**
+     * Creates a snapshot with no subregistries and no placeholders.
+     *
+     * @return The new snapshot.
+     */
+    RegistryContents withoutSubRegistries() {
+        
+        return new RegistryContents( commands, withPrefix, noPrefix, Collections.emptyMap(),
+                Collections.emptyMap() );
+        
+    }
+    
+}
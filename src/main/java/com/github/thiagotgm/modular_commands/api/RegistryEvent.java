@@ -0,0 +1,189 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A change to a {@link CommandRegistry}.
+ * <p>
+ * Events are sent to the listeners of the registry that changed and to the listeners of
+ * every registry above it in the hierarchy, so a listener on the root registry receives
+ * all the changes in the hierarchy. The {@link #getPath() path} of the event identifies
+ * where in the hierarchy the change happened.
+ * <p>
+ * Changes to placeholder registries are not counted in the hierarchy, so they do not
+ * produce events.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-25
+ * @see CommandRegistry#addListener(RegistryListener)
+ */
+public final class RegistryEvent {
+    
+    /**
+     * The kinds of change to a registry.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2017-09-25
+     */
+    public enum Type {
+        
+        /** A command was registered. {@link RegistryEvent#getCommand()} is the command. */
+        COMMAND_REGISTERED,
+        
+        /** A command was unregistered. {@link RegistryEvent#getCommand()} is the command. */
+        COMMAND_UNREGISTERED,
+        
+        /**
+         * A subregistry (along with its own subregistries) was added.
+         * {@link RegistryEvent#getSubRegistry()} is the subregistry.
+         */
+        SUBREGISTRY_ADDED,
+        
+        /**
+         * A subregistry (along with its own subregistries) was removed.
+         * {@link RegistryEvent#getSubRegistry()} is the subregistry.
+         */
+        SUBREGISTRY_REMOVED,
+        
+        /**
+         * The declared prefix of the registry changed. The effective prefix of its
+         * subregistries and commands may also have changed.
+         */
+        PREFIX_CHANGED,
+        
+        /** The registry was enabled or disabled. */
+        ENABLED_CHANGED,
+        
+        /** A context check of the registry was set, added, or removed. */
+        CONTEXT_CHECK_CHANGED
+        
+    }
+    
+    private final Type type;
+    private final List<CommandRegistry> path;
+    private final ICommand command;
+    private final CommandRegistry subRegistry;
+    
+    /**
+     * Creates a new event.
+     *
+     * @param type The type of change.
+     * @param registry The registry that changed.
+     * @param command The command that was registered or unregistered, if any.
+     * @param subRegistry The subregistry that was added or removed, if any.
+     */
+    RegistryEvent( Type type, CommandRegistry registry, ICommand command, CommandRegistry subRegistry ) {
+        
+        this.type = type;
+        List<CommandRegistry> path = new ArrayList<>();
+        for ( CommandRegistry cur = registry; cur != null; cur = cur.getRegistry() ) {
+            
+            path.add( cur );
+            
+        }
+        Collections.reverse( path ); // Root first.
+        this.path = Collections.unmodifiableList( path );
+        this.command = command;
+        this.subRegistry = subRegistry;
+        
+    }
+    
+    /**
+     * Retrieves the type of change.
+     *
+     * @return The type of the event.
+     */
+    public Type getType() {
+        
+        return type;
+        
+    }
+    
+    /**
+     * Retrieves the registry that changed.
+     *
+     * @return The registry where the change happened.
+     */
+    public CommandRegistry getRegistry() {
+        
+        return path.get( path.size() - 1 );
+        
+    }
+    
+    /**
+     * Retrieves the path from the root of the hierarchy to the registry that changed, as
+     * it was when the change happened.
+     *
+     * @return The registries in the path, starting with the root and ending with the
+     *         registry that changed.
+     */
+    public List<CommandRegistry> getPath() {
+        
+        return path;
+        
+    }
+    
+    /**
+     * Retrieves the command that was registered or unregistered.
+     *
+     * @return The command, or null if the event is not about a command.
+     */
+    public ICommand getCommand() {
+        
+        return command;
+        
+    }
+    
+    /**
+     * Retrieves the subregistry that was added or removed.
+     *
+     * @return The subregistry, or null if the event is not about a subregistry.
+     */
+    public CommandRegistry getSubRegistry() {
+        
+        return subRegistry;
+        
+    }
+    
+    @Override
+    public String toString() {
+        
+        StringBuilder builder = new StringBuilder();
+        builder.append( type );
+        builder.append( '@' );
+        builder.append( getRegistry().getQualifiedName() );
+        if ( command != null ) {
+            builder.append( "::\"" );
+            builder.append( command.getName() );
+            builder.append( '"' );
+        }
+        if ( subRegistry != null ) {
+            builder.append( "::" );
+            builder.append( subRegistry.getQualifiedName() );
+        }
+        return builder.toString();
+        
+    }
+    
+}
@@ -0,0 +1,44 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.api;
+
+/**
+ * Listener that is notified of changes to a {@link CommandRegistry} or the registries
+ * under it.
+ * <p>
+ * Listeners are called on the thread that made the change, after the change is visible,
+ * so they should be quick. An exception thrown by a listener is logged and does not
+ * prevent other listeners from being notified.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-25
+ * @see CommandRegistry#addListener(RegistryListener)
+ */
+@FunctionalInterface
+public interface RegistryListener {
+    
+    /**
+     * Called when there is a change to the registry that the listener was added to, or to
+     * one of the registries under it.
+     *
+     * @param event The change.
+     */
+    void onChange( RegistryEvent event );
+    
+}
@@ -17,10 +17,12 @@
 
 package com.github.thiagotgm.modular_commands.command;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.List;
 import java.util.NavigableSet;
 import java.util.Set;
 import java.util.TreeSet;
@@ -28,10 +30,13 @@ import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
+import com.github.thiagotgm.modular_commands.api.ArgumentSchema;
 import com.github.thiagotgm.modular_commands.api.CommandContext;
 import com.github.thiagotgm.modular_commands.api.CommandRegistry;
+import com.github.thiagotgm.modular_commands.api.Cooldown;
 import com.github.thiagotgm.modular_commands.api.FailureReason;
 import com.github.thiagotgm.modular_commands.api.ICommand;
+import com.github.thiagotgm.modular_commands.api.RateLimit;
 
 import sx.blah.discord.handle.obj.Permissions;
 import sx.blah.discord.util.DiscordException;
@@ -95,7 +100,120 @@ public class Command implements ICommand {
     private final NavigableSet<ICommand> subCommands;
     private final boolean canModifySubCommands;
     private final int priority;
+    private final RateLimit rateLimit;
+    private final Cooldown cooldown;
+    private final ArgumentSchema argumentSchema;
+    /** Effective prefix, signatures and registry state as of some generation. */
+    private volatile EffectiveState effectiveState;
 
+    /**
+     * Constructs a new Command with the given settings, no rate limit, no cooldown, and no
+     * argument schema.
+     * 
+     * @param essential Whether the command is {@link #isEssential() essential}
+     *                  (essential commands cannot be disabled).
+     * @param prefix The prefix used to call the command. If <b>null</b>, the command will use the
+     *               registry's prefix.
+     * @param name The name of the command.
+     * @param aliases The aliases used to call the command.
+     * @param subCommand Whether the command is a subcommand.
+     * @param description The description of this command.
+     * @param usage An usage example of this command.
+     * @param commandOperation The operation that should be executed when the command is executed.
+     * @param onSuccessDelay The delay between a successful execution and the execution of the
+     *                       onSuccess operation.
+     * @param onSuccessOperation The operation to be executed after a successful execution of the command.
+     * @param onFailureOperation The operation to be executed if the command could not be
+     *                           successfully executed.
+     * @param replyPrivately Whether the command should always send a reply to the caller on a private
+     *                       channel instead of the channel that the command came from.
+     * @param ignorePublic Whether the command should ignore calls made from public channels.
+     * @param ignorePrivate Whether the command should ignore calls made from private channels.
+     * @param ignoreBots Whether the command should ignore calls made by bot users.
+     * @param deleteCommand Whether the message that deleted the command should be deleted after a
+     *                      successful execution.
+     * @param requiresOwner Whether only the owner of the bot account can call the command.
+     * @param NSFW Whether the command can only be called from a NSFW-marked channel.
+     * @param overrideable Whether the command can be overriden by a command in a subregistry.
+     * @param executeParent Whether the parent command of the command should be executed before the
+     *                      command is executed.
+     * @param requiresParentPermissions Whether the permission requirements of the command's parent
+     *                                  command also need to be satisfied to execute the command.
+     * @param requiredPermissions The <i>channel-overriden</i> permissions that a user needs to
+     *                            have to call the command.
+     * @param requiredGuildPermissions The <i>server-wide</i> permissions that a user needs to
+     *                                 have to call the command.
+     * @param subCommands The subcommands of the command.
+     * @param canModifySubCommands Whether the subcommand set is allowed to be modified after
+     *                             construction.
+     * @param priority The priority of the command.
+     * @throws NullPointerException if any of the non-primitive arguments other than the prefix is null.
+     * @throws IllegalArgumentException if any of the arguments is invalid.
+     * @see #Command(boolean, String, String, Collection, boolean, String, String, Predicate, long, Consumer,
+     *      BiConsumer, boolean, boolean, boolean, boolean, boolean, boolean, boolean, boolean, boolean,
+     *      boolean, EnumSet, EnumSet, Collection, boolean, int, RateLimit, Cooldown,
+     *      ArgumentSchema)
+     */
+    public Command( boolean essential,
+                    String prefix,
+                    String name,
+                    Collection<String> aliases,
+                    boolean subCommand,
+                    String description,
+                    String usage,
+                    Predicate<CommandContext> commandOperation,
+                    long onSuccessDelay,
+                    Consumer<CommandContext> onSuccessOperation,
+                    BiConsumer<CommandContext, FailureReason> onFailureOperation,
+                    boolean replyPrivately,
+                    boolean ignorePublic,
+                    boolean ignorePrivate,
+                    boolean ignoreBots,
+                    boolean deleteCommand,
+                    boolean requiresOwner,
+                    boolean NSFW,
+                    boolean overrideable,
+                    boolean executeParent,
+                    boolean requiresParentPermissions,
+                    EnumSet<Permissions> requiredPermissions,
+                    EnumSet<Permissions> requiredGuildPermissions,
+                    Collection<ICommand> subCommands,
+                    boolean canModifySubCommands,
+                    int priority )
+                            throws NullPointerException, IllegalArgumentException {
+        
+        this( essential,
+              prefix,
+              name,
+              aliases,
+              subCommand,
+              description,
+              usage,
+              commandOperation,
+              onSuccessDelay,
+              onSuccessOperation,
+              onFailureOperation,
+              replyPrivately,
+              ignorePublic,
+              ignorePrivate,
+              ignoreBots,
+              deleteCommand,
+              requiresOwner,
+              NSFW,
+              overrideable,
+              executeParent,
+              requiresParentPermissions,
+              requiredPermissions,
+              requiredGuildPermissions,
+              subCommands,
+              canModifySubCommands,
+              priority,
+              null,
+              null,
+              null );
+        
+    }
+    
     /**
      * Constructs a new Command with the given settings.
      * 
@@ -136,7 +254,12 @@ public class Command implements ICommand {
      * @param canModifySubCommands Whether the subcommand set is allowed to be modified after
      *                             construction.
      * @param priority The priority of the command.
-     * @throws NullPointerException if any of the non-primitive arguments is null.
+     * @param rateLimit The rate limit of the command, or <b>null</b> if the command is not rate limited.
+     * @param cooldown The cooldown of the command, or <b>null</b> if the command has no cooldown.
+     * @param argumentSchema The schema of the arguments of the command, or <b>null</b> if the
+     *                       arguments are not checked.
+     * @throws NullPointerException if any of the non-primitive arguments other than the prefix,
+     *                              rate limit, cooldown, and argument schema is null.
      * @throws IllegalArgumentException if one of these cases is true:
      *         <ul>
      *           <li>The command is a subcommand, and it specifies a prefix (prefix is non-null)
@@ -174,14 +297,17 @@ public class Command implements ICommand {
                     EnumSet<Permissions> requiredGuildPermissions,
                     Collection<ICommand> subCommands,
                     boolean canModifySubCommands,
-                    int priority )
+                    int priority,
+                    RateLimit rateLimit,
+                    Cooldown cooldown,
+                    ArgumentSchema argumentSchema )
                             throws NullPointerException, IllegalArgumentException {
         
         if ( ( name == null ) || ( aliases == null ) || ( description == null ) || ( usage == null ) ||
              ( commandOperation == null ) || ( onSuccessOperation == null ) || ( onFailureOperation == null ) ||
              ( requiredPermissions == null ) || ( requiredGuildPermissions == null ) ||
              ( subCommands == null ) ) {
-            throw new NullPointerException( "No argument other than prefix can be null." );
+            throw new NullPointerException( "No argument other than prefix, rate limit, cooldown, and argument schema can be null." );
         }
         
         if ( subCommand && ( prefix != null ) ) {
@@ -260,6 +386,9 @@ public class Command implements ICommand {
         }
         this.canModifySubCommands = canModifySubCommands;
         this.priority = priority;
+        this.rateLimit = rateLimit;
+        this.cooldown = cooldown;
+        this.argumentSchema = argumentSchema;
         
     }
     
@@ -305,6 +434,9 @@ public class Command implements ICommand {
         }
         this.canModifySubCommands = c.canModifySubCommands;
         this.priority = c.priority;
+        this.rateLimit = c.rateLimit;
+        this.cooldown = c.cooldown;
+        this.argumentSchema = c.argumentSchema;
         
     }
 
@@ -322,6 +454,7 @@ public class Command implements ICommand {
             throw new IllegalStateException( "Cannot disable an essential Command." );
         }
         this.enabled = enabled;
+        CommandRegistry.advanceCommandGeneration();
         
     }
 
@@ -353,6 +486,81 @@ public class Command implements ICommand {
         
     }
 
+    /**
+     * Retrieves the <i>effective</i> prefix of this command.
+     * <p>
+     * The value is cached until the registry of this command changes or a change to a registry
+     * in its tree advances the {@link CommandRegistry#getGeneration() generation} of the tree.
+     *
+     * @return The effective prefix used for this command.
+     * @throws IllegalStateException if called when the command is not registered to any registry,
+     *                               or does not declare a prefix and cannot inherit one.
+     */
+    @Override
+    public String getEffectivePrefix() throws IllegalStateException {
+        
+        String prefix = getEffectiveState().prefix;
+        if ( prefix == null ) {
+            throw new IllegalStateException( "Tried to obtain effective prefix before registering." );
+        }
+        return prefix;
+        
+    }
+    
+    /**
+     * Retrieves the signatures that can be used to call this command.
+     * <p>
+     * The signatures are cached along with the effective prefix, so they are only rebuilt when
+     * the prefix may have changed. The returned list is a copy of the cached one, so it may be
+     * modified.
+     *
+     * @return The signatures of the command, in sorted order.
+     * @throws IllegalStateException if called when the command is not registered to any registry.
+     */
+    @Override
+    public List<String> getSignatures() throws IllegalStateException {
+        
+        List<String> signatures = getEffectiveState().signatures;
+        if ( signatures == null ) {
+            throw new IllegalStateException( "Tried to obtain effective prefix before registering." );
+        }
+        return new ArrayList<>( signatures );
+        
+    }
+    
+    /**
+     * Determines whether this command currently is <i>effectively</i> enabled.
+     * <p>
+     * The state of the registry chain is cached along with the effective prefix.
+     *
+     * @return true if currently <i> effectively enabled</i>, false if <i>effectively disabled</i>.
+     */
+    @Override
+    public boolean isEffectivelyEnabled() {
+        
+        return enabled && getEffectiveState().registryEnabled;
+        
+    }
+    
+    /**
+     * Retrieves the effective state of this command, recomputing it if the registry changed or
+     * the cached state is from an older generation.
+     *
+     * @return The current effective state.
+     */
+    private EffectiveState getEffectiveState() {
+        
+        CommandRegistry registry = this.registry; // Generation is read before the state it depends on.
+        long generation = ( registry != null ) ? registry.getGeneration() : 0;
+        EffectiveState state = effectiveState;
+        if ( ( state == null ) || ( state.generation != generation ) || ( state.registry != registry ) ) {
+            state = new EffectiveState( generation, registry, prefix, aliases );
+            effectiveState = state;
+        }
+        return state;
+        
+    }
+
     @Override
     public String getName() {
 
@@ -523,7 +731,11 @@ public class Command implements ICommand {
         if ( getSubCommandByName( subCommand.getName() ) != null ) {
             return false;
         }
-        return subCommands.add( subCommand );
+        boolean added = subCommands.add( subCommand );
+        if ( added ) {
+            CommandRegistry.advanceCommandGeneration();
+        }
+        return added;
         
     }
 
@@ -537,7 +749,11 @@ public class Command implements ICommand {
         if ( !subCommand.isSubCommand() ) {
             throw new IllegalArgumentException( "Argument is not a subcommand." );
         }
-        return subCommands.remove( subCommand );
+        boolean removed = subCommands.remove( subCommand );
+        if ( removed ) {
+            CommandRegistry.advanceCommandGeneration();
+        }
+        return removed;
         
     }
 
@@ -548,6 +764,27 @@ public class Command implements ICommand {
         
     }
 
+    @Override
+    public RateLimit getRateLimit() {
+
+        return rateLimit;
+        
+    }
+
+    @Override
+    public Cooldown getCooldown() {
+
+        return cooldown;
+        
+    }
+
+    @Override
+    public ArgumentSchema getArgumentSchema() {
+
+        return argumentSchema;
+        
+    }
+
     @Override
     public int hashCode() {
 
@@ -576,5 +813,67 @@ public class Command implements ICommand {
         return builder.toString();
         
     }
+    
+    /**
+     * Effective prefix, signatures, and registry state of a command, as of a certain generation.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2017-09-25
+     */
+    private static final class EffectiveState {
+        
+        /** Generation the state was computed at. */
+        final long generation;
+        /** Registry the command was registered to. */
+        final CommandRegistry registry;
+        /** Effective prefix, or null if there is none. */
+        final String prefix;
+        /** Signatures, or null if there is no effective prefix. */
+        final List<String> signatures;
+        /** Whether the registry chain is effectively enabled. */
+        final boolean registryEnabled;
+        
+        /**
+         * Computes the state of the command.
+         *
+         * @param generation Current generation.
+         * @param registry Registry the command is registered to. May be null.
+         * @param declaredPrefix Prefix declared by the command. May be null.
+         * @param aliases Aliases of the command.
+         */
+        EffectiveState( long generation, CommandRegistry registry, String declaredPrefix,
+                Collection<String> aliases ) {
+            
+            this.generation = generation;
+            this.registry = registry;
+            String effectivePrefix = null;
+            if ( registry != null ) { // Only registered commands have an effective prefix.
+                effectivePrefix = declaredPrefix;
+                if ( effectivePrefix == null ) { // Inherit prefix.
+                    try {
+                        effectivePrefix = registry.getEffectivePrefix();
+                    } catch ( IllegalStateException e ) {
+                        effectivePrefix = null; // Registry is not in a hierarchy with a prefix.
+                    }
+                }
+            }
+            this.prefix = effectivePrefix;
+            if ( effectivePrefix != null ) {
+                List<String> signatures = new ArrayList<>( aliases.size() );
+                for ( String alias : aliases ) {
+                    
+                    signatures.add( effectivePrefix + alias );
+                    
+                }
+                this.signatures = Collections.unmodifiableList( signatures );
+            } else {
+                this.signatures = null;
+            }
+            this.registryEnabled = ( registry == null ) || registry.isEffectivelyEnabled();
+            
+        }
+        
+    }
 
 }
@@ -28,9 +28,13 @@ import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
+import com.github.thiagotgm.modular_commands.api.ArgumentSchema;
 import com.github.thiagotgm.modular_commands.api.CommandContext;
+import com.github.thiagotgm.modular_commands.api.Cooldown;
 import com.github.thiagotgm.modular_commands.api.FailureReason;
 import com.github.thiagotgm.modular_commands.api.ICommand;
+import com.github.thiagotgm.modular_commands.api.Parameter;
+import com.github.thiagotgm.modular_commands.api.RateLimit;
 
 import sx.blah.discord.handle.obj.Permissions;
 
@@ -77,6 +81,9 @@ public class CommandBuilder {
     private Collection<ICommand> subCommands;
     private boolean canModifySubCommands;
     private int priority;
+    private RateLimit rateLimit;
+    private Cooldown cooldown;
+    private ArgumentSchema argumentSchema;
 
     /**
      * Constructs a new builder with default values for all properties (that have default values)
@@ -133,6 +140,9 @@ public class CommandBuilder {
         this.subCommands = new ArrayList<>();
         this.canModifySubCommands = true;
         this.priority = 0;
+        this.rateLimit = null;
+        this.cooldown = null;
+        this.argumentSchema = null;
         
     }
     
@@ -183,6 +193,9 @@ public class CommandBuilder {
         this.subCommands = new ArrayList<>( cb.subCommands );
         this.canModifySubCommands = cb.canModifySubCommands;
         this.priority = cb.priority;
+        this.rateLimit = cb.rateLimit;
+        this.cooldown = cb.cooldown;
+        this.argumentSchema = cb.argumentSchema;
         
     }
     
@@ -244,6 +257,9 @@ public class CommandBuilder {
             this.canModifySubCommands = false; // Threw exception, does not support it.
         }
         this.priority = c.getPriority();
+        this.rateLimit = c.getRateLimit();
+        this.cooldown = c.getCooldown();
+        this.argumentSchema = c.getArgumentSchema();
         
     }
     
@@ -732,6 +748,99 @@ public class CommandBuilder {
         
     }
     
+    /**
+     * Sets the rate limit of the command being built.
+     *
+     * @param rateLimit The rate limit of the command, or null if it should not be rate limited.
+     * @return This builder.
+     * @see ICommand#getRateLimit()
+     */
+    public CommandBuilder withRateLimit( RateLimit rateLimit ) {
+        
+        this.rateLimit = rateLimit;
+        return this;
+        
+    }
+    
+    /**
+     * Sets the rate limit of the command being built from its string form, such as
+     * <tt>"5/10s per user"</tt>.
+     *
+     * @param rateLimit The rate limit of the command.
+     * @return This builder.
+     * @throws NullPointerException if the rate limit string is null.
+     * @throws IllegalArgumentException if the rate limit string is invalid.
+     * @see RateLimit#parse(String)
+     */
+    public CommandBuilder withRateLimit( String rateLimit )
+            throws NullPointerException, IllegalArgumentException {
+        
+        return withRateLimit( RateLimit.parse( rateLimit ) );
+        
+    }
+    
+    /**
+     * Sets the cooldown of the command being built.
+     *
+     * @param cooldown The cooldown of the command, or null if it should not have a cooldown.
+     * @return This builder.
+     * @see ICommand#getCooldown()
+     */
+    public CommandBuilder withCooldown( Cooldown cooldown ) {
+        
+        this.cooldown = cooldown;
+        return this;
+        
+    }
+    
+    /**
+     * Sets the cooldown of the command being built from its string form, such as
+     * <tt>"30s per user"</tt>.
+     *
+     * @param cooldown The cooldown of the command.
+     * @return This builder.
+     * @throws NullPointerException if the cooldown string is null.
+     * @throws IllegalArgumentException if the cooldown string is invalid.
+     * @see Cooldown#parse(String)
+     */
+    public CommandBuilder withCooldown( String cooldown )
+            throws NullPointerException, IllegalArgumentException {
+        
+        return withCooldown( Cooldown.parse( cooldown ) );
+        
+    }
+    
+    /**
+     * Sets the schema of the arguments of the command being built.
+     *
+     * @param argumentSchema The argument schema of the command, or null if its arguments
+     *                       should not be checked.
+     * @return This builder.
+     * @see ICommand#getArgumentSchema()
+     */
+    public CommandBuilder withArguments( ArgumentSchema argumentSchema ) {
+        
+        this.argumentSchema = argumentSchema;
+        return this;
+        
+    }
+    
+    /**
+     * Sets the typed parameters of the command being built.
+     *
+     * @param parameters The parameters of the command, in order.
+     * @return This builder.
+     * @throws NullPointerException if the array or one of the parameters is null.
+     * @throws IllegalArgumentException if the parameters do not form a valid schema.
+     * @see ArgumentSchema
+     */
+    public CommandBuilder withArguments( Parameter... parameters )
+            throws NullPointerException, IllegalArgumentException {
+        
+        return withArguments( new ArgumentSchema( parameters ) );
+        
+    }
+    
     /**
      * Builds a command with the current property values.
      * <p>
@@ -776,7 +885,10 @@ public class CommandBuilder {
                             requiredGuildPermissions,
                             subCommands,
                             canModifySubCommands,
-                            priority );
+                            priority,
+                            rateLimit,
+                            cooldown,
+                            argumentSchema );
         
     }
 
@@ -17,16 +17,15 @@
 
 package com.github.thiagotgm.modular_commands.command.annotation;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -38,11 +37,6 @@ import com.github.thiagotgm.modular_commands.api.FailureReason;
 import com.github.thiagotgm.modular_commands.api.ICommand;
 import com.github.thiagotgm.modular_commands.command.CommandBuilder;
 
-import sx.blah.discord.handle.obj.Permissions;
-import sx.blah.discord.util.DiscordException;
-import sx.blah.discord.util.MissingPermissionsException;
-import sx.blah.discord.util.RateLimitException;
-
 /**
  * Provides a way to parse annotated methods to obtain commands.
  * <p>
@@ -62,7 +56,6 @@ public final class AnnotationParser {
     private static final Logger LOG = LoggerFactory.getLogger( AnnotationParser.class );
     
     private static final Class<?>[] COMMAND_PARAM_TYPES = { CommandContext.class };
-    private static final Class<?>[] SUCCESS_HANDLER_PARAM_TYPES = { CommandContext.class };
     private static final Class<?>[] FAILURE_HANDLER_PARAM_TYPES =
         { CommandContext.class, FailureReason.class };
     
@@ -71,8 +64,8 @@ public final class AnnotationParser {
     
     static {
         
-        registeredSuccessHandlers = new HashMap<>();
-        registeredFailureHandlers = new HashMap<>();
+        registeredSuccessHandlers = new ConcurrentHashMap<>();
+        registeredFailureHandlers = new ConcurrentHashMap<>();
         
     }
     
@@ -83,9 +76,6 @@ public final class AnnotationParser {
     private volatile boolean done;
     private final List<ICommand> mainCommands;
     
-    private final Map<String, Method> toParseMethods;
-    private final Map<String, SubCommand> toParseAnnotations;
-
     /**
      * Constructs a new instance that extracts annotated commands from the given object.
      * 
@@ -100,207 +90,61 @@ public final class AnnotationParser {
         this.done = false;
         this.mainCommands = new LinkedList<>();
         
-        this.toParseMethods = new HashMap<>();
-        this.toParseAnnotations = new HashMap<>();
-
     }
     
     /**
-     * Parses a main command from the given method and the given annotation that was present
-     * on the method.
+     * Creates the command described by the given template, that calls the method of the object.
      *
-     * @param method The method to use as the main command operation.
-     * @param annotation The annotation that marked the method.
-     * @return The main command described by the given annotation that executes the given method.
-     * @throws IllegalArgumentException if the method given or one of the values in the annotation
-     *                                  are invalid.
+     * @param template The template of the command.
+     * @return The command.
+     * @throws IllegalArgumentException if a handler or subcommand specified by the template
+     *                                  does not exist.
      */
-    private ICommand parseMainCommand( Method method, MainCommand annotation )
-            throws IllegalArgumentException {
-        
-        LOG.trace( "Parsing annotated main command \"{}\".", annotation.name() );
+    private ICommand bind( ClassBlueprint.Template template ) throws IllegalArgumentException {
         
-        if ( !Arrays.equals( method.getParameterTypes(), COMMAND_PARAM_TYPES ) ) {
-            throw new IllegalArgumentException( "Method parameters are not valid." );
-        }
-        if ( Modifier.isStatic( method.getModifiers() ) ) {
-            throw new IllegalArgumentException( "Method is static." );
-        }
-        
-        /* Get main command properties */
-        CommandBuilder builder = new CommandBuilder( annotation.name() );
-        builder.essential( annotation.essential() )
-               .withAliases( annotation.aliases() );
-        if ( !annotation.prefix().isEmpty() ) {
-            builder.withPrefix( annotation.prefix() );
-        }
-        builder.withDescription( annotation.description() )
-               .withUsage( annotation.usage() )
-               .onExecute( ( context ) -> {
-                   
-                   return call( method, obj, context );
-                   
-               })
-               .withOnSuccessDelay( annotation.onSuccessDelay() );
-        if ( !annotation.successHandler().isEmpty() ) {
+        CommandBuilder builder = template.newBuilder( obj );
+        String successHandler = template.getSuccessHandler();
+        if ( successHandler != null ) {
             /* Check if there is a SuccessHandler with the specified name */
-            if ( successHandlers.containsKey( annotation.successHandler() ) ) {
-                builder.onSuccess( successHandlers.get( annotation.successHandler() ) );
-            } else if ( registeredSuccessHandlers.containsKey( annotation.successHandler() ) ) {
-                builder.onSuccess( registeredSuccessHandlers.get( annotation.successHandler() ) );
+            if ( successHandlers.containsKey( successHandler ) ) {
+                builder.onSuccess( successHandlers.get( successHandler ) );
+            } else if ( registeredSuccessHandlers.containsKey( successHandler ) ) {
+                builder.onSuccess( registeredSuccessHandlers.get( successHandler ) );
             } else {
-                throw new IllegalArgumentException( "Invalid success handler \"" + annotation.successHandler()
-                        + "\"." );
+                throw new IllegalArgumentException( "Invalid success handler \"" + successHandler + "\"." );
             }
         }
-        if ( !annotation.failureHandler().isEmpty() ) {
+        String failureHandler = template.getFailureHandler();
+        if ( failureHandler != null ) {
             /* Check if there is a FailureHandler with the specified name */
-            if ( failureHandlers.containsKey( annotation.failureHandler() ) ) {
-                builder.onFailure( failureHandlers.get( annotation.failureHandler() ) );
-            } else if ( registeredFailureHandlers.containsKey( annotation.failureHandler() ) ) {
-                builder.onFailure( registeredFailureHandlers.get( annotation.failureHandler() ) );
+            if ( failureHandlers.containsKey( failureHandler ) ) {
+                builder.onFailure( failureHandlers.get( failureHandler ) );
+            } else if ( registeredFailureHandlers.containsKey( failureHandler ) ) {
+                builder.onFailure( registeredFailureHandlers.get( failureHandler ) );
             } else {
-                throw new IllegalArgumentException( "Invalid failure handler \"" + annotation.failureHandler()
-                        + "\"." );
+                throw new IllegalArgumentException( "Invalid failure handler \"" + failureHandler + "\"." );
             }
         }
         
-        /* Get command options */
-        builder.replyPrivately( annotation.replyPrivately() )
-               .ignorePublic( annotation.ignorePublic() )
-               .ignorePrivate( annotation.ignorePrivate() )
-               .ignoreBots( annotation.ignoreBots() )
-               .deleteCommand( annotation.deleteCommand() )
-               .requiresOwner( annotation.requiresOwner() )
-               .NSFW( annotation.NSFW() )
-               .overrideable( annotation.overrideable() );
-        
-        /* Get required permissions */
-        EnumSet<Permissions> permissions = EnumSet.noneOf( Permissions.class );
-        permissions.addAll( Arrays.asList( annotation.requiredPermissions() ) );
-        builder.withRequiredPermissions( permissions );
-        EnumSet<Permissions> guildPermissions = EnumSet.noneOf( Permissions.class );
-        guildPermissions.addAll( Arrays.asList( annotation.requiredGuildPermissions() ) );
-        builder.withRequiredGuildPermissions( guildPermissions );
-        
-        /* Get subcommands and priority */
-        if ( annotation.subCommands().length > 0 ) { // Subcommands were specified.
-            List<ICommand> subCommands = new ArrayList<>( annotation.subCommands().length );
-            for ( String subCommand : annotation.subCommands() ) { // Parse each subcommand.
+        /* Get subcommands */
+        if ( !template.getSubCommands().isEmpty() ) { // Subcommands were specified.
+            List<ICommand> subCommands = new ArrayList<>( template.getSubCommands().size() );
+            for ( String subCommand : template.getSubCommands() ) { // Get each subcommand.
                 
-                if ( !this.subCommands.containsKey( subCommand ) ) { // Check subcommand exists.
+                if ( !this.subCommands.containsKey( subCommand ) ) { // Check subcommand was created.
                     throw new IllegalArgumentException( "Invalid subcommand \"" + subCommand + "\"." );
                 }
-                LOG.info( "\"{}\": Registering subcommand \"{}\".", annotation.name(), subCommand );
-                subCommands.add( this.subCommands.get( subCommand ) );
-                
-            }
-            builder.withSubCommands( subCommands );
-        }
-        builder.canModifySubCommands( annotation.canModifySubCommands() )
-               .withPriority( annotation.priority() );
-        
-        /* Build the command */
-        return builder.build();
-        
-    }
-    
-    /**
-     * Parses a subcommand from the given method and the given annotation that was present
-     * on the method.
-     *
-     * @param method The method to use as the main command operation.
-     * @param annotation The annotation that marked the method.
-     * @return The subcommand described by the given annotation that executes the given method.
-     * @throws IllegalArgumentException if the method given or one of the values in the annotation
-     *                                  are invalid.
-     */
-    private ICommand parseSubCommand( Method method, SubCommand annotation )
-            throws IllegalArgumentException {
-        
-        LOG.trace( "Parsing annotated subcommand \"{}\".", annotation.name() );
-        
-        if ( !Arrays.equals( method.getParameterTypes(), COMMAND_PARAM_TYPES ) ) {
-            throw new IllegalArgumentException( "Method parameters are not valid." );
-        }
-        if ( Modifier.isStatic( method.getModifiers() ) ) {
-            throw new IllegalArgumentException( "Method is static." );
-        }
-        
-        /* Get main command properties */
-        CommandBuilder builder = new CommandBuilder( annotation.name() ).subCommand( true );
-        builder.essential( annotation.essential() )
-               .withAliases( annotation.aliases() );
-        builder.withDescription( annotation.description() )
-               .withUsage( annotation.usage() )
-               .onExecute( ( context ) -> {
-                   
-                   return call( method, obj, context );
-                   
-               })
-               .withOnSuccessDelay( annotation.onSuccessDelay() );
-        if ( !annotation.successHandler().isEmpty() ) {
-            /* Check if there is a SuccessHandler with the specified name */
-            if ( successHandlers.containsKey( annotation.successHandler() ) ) {
-                builder.onSuccess( successHandlers.get( annotation.successHandler() ) );
-            } else if ( registeredSuccessHandlers.containsKey( annotation.successHandler() ) ) {
-                builder.onSuccess( registeredSuccessHandlers.get( annotation.successHandler() ) );
-            } else {
-                throw new IllegalArgumentException( "Invalid success handler \"" + annotation.successHandler()
-                        + "\"." );
-            }
-        }
-        if ( !annotation.failureHandler().isEmpty() ) {
-            /* Check if there is a FailureHandler with the specified name */
-            if ( failureHandlers.containsKey( annotation.failureHandler() ) ) {
-                builder.onFailure( failureHandlers.get( annotation.failureHandler() ) );
-            } else if ( registeredFailureHandlers.containsKey( annotation.failureHandler() ) ) {
-                builder.onFailure( registeredFailureHandlers.get( annotation.failureHandler() ) );
-            } else {
-                throw new IllegalArgumentException( "Invalid failure handler \"" + annotation.failureHandler()
-                        + "\"." );
-            }
-        }
-        
-        /* Get command options */
-        builder.replyPrivately( annotation.replyPrivately() )
-               .ignorePublic( annotation.ignorePublic() )
-               .ignorePrivate( annotation.ignorePrivate() )
-               .ignoreBots( annotation.ignoreBots() )
-               .deleteCommand( annotation.deleteCommand() )
-               .requiresOwner( annotation.requiresOwner() )
-               .NSFW( annotation.NSFW() )
-               .executeParent( annotation.executeParent() )
-               .requiresParentPermissions( annotation.requiresParentPermissions() );
-        
-        /* Get required permissions */
-        EnumSet<Permissions> permissions = EnumSet.noneOf( Permissions.class );
-        permissions.addAll( Arrays.asList( annotation.requiredPermissions() ) );
-        builder.withRequiredPermissions( permissions );
-        EnumSet<Permissions> guildPermissions = EnumSet.noneOf( Permissions.class );
-        guildPermissions.addAll( Arrays.asList( annotation.requiredGuildPermissions() ) );
-        builder.withRequiredGuildPermissions( guildPermissions );
-        
-        /* Get subcommands and priority */
-        if ( annotation.subCommands().length > 0 ) { // Subcommands were specified.
-            List<ICommand> subCommands = new ArrayList<>( annotation.subCommands().length );
-            for ( String subCommand : annotation.subCommands() ) { // Parse each subcommand.
-                
-                if ( subCommand.equals( annotation.name() ) ) {
-                    throw new IllegalArgumentException( "Subcommand cannot be its own subcommand." );
-                }
-                if ( !this.subCommands.containsKey( subCommand ) ) { // Check subcommand exists.
-                    throw new IllegalArgumentException( "Invalid subcommand \"" + subCommand + "\"." );
+                if ( template.isSubCommand() ) {
+                    LOG.info( "\"{}\" (subcommand): Registering subcommand \"{}\".", template.getName(),
+                            subCommand );
+                } else {
+                    LOG.info( "\"{}\": Registering subcommand \"{}\".", template.getName(), subCommand );
                 }
-                LOG.info( "\"{}\" (subcommand): Registering subcommand \"{}\".", annotation.name(),
-                        subCommand );
                 subCommands.add( this.subCommands.get( subCommand ) );
                 
             }
             builder.withSubCommands( subCommands );
         }
-        builder.canModifySubCommands( annotation.canModifySubCommands() )
-               .withPriority( annotation.priority() );
         
         /* Build the command */
         return builder.build();
@@ -308,265 +152,76 @@ public final class AnnotationParser {
     }
     
     /**
-     * Parses a success handler from the given method and the given annotation that was present
-     * on the method.
-     *
-     * @param method The method to use as the handler operation.
-     * @param annotation The annotation that marked the method.
-     * @return A Consumer that runs the given method.
-     * @throws IllegalArgumentException if the method is invalid.
-     */
-    private Consumer<CommandContext> parseSuccessHandler( Method method, SuccessHandler annotation )
-            throws IllegalArgumentException {
-        
-        LOG.trace( "Parsing annotated success handler \"{}\".", annotation.value() );
-        
-        if ( !Arrays.equals( method.getParameterTypes(), SUCCESS_HANDLER_PARAM_TYPES ) ) {
-            throw new IllegalArgumentException( "Method parameters are not valid." );
-        }
-        if ( Modifier.isStatic( method.getModifiers() ) ) {
-            throw new IllegalArgumentException( "Method is static." );
-        }
-        
-        return ( context ) -> {
-            
-            call( method, obj, context );
-            
-        };
-        
-    }
-    
-    /**
-     * Parses a failure handler from the given method and the given annotation that was present
-     * on the method.
-     *
-     * @param method The method to use as the handler operation.
-     * @param annotation The annotation that marked the method.
-     * @return A BiConsumer that runs the given method.
-     * @throws IllegalArgumentException if the method is invalid.
-     */
-    private BiConsumer<CommandContext, FailureReason> parseFailureHandler( Method method,
-            FailureHandler annotation )
-            throws IllegalArgumentException {
-        
-        LOG.trace( "Parsing annotated failure handler \"{}\".", annotation.value() );
-        
-        if ( !Arrays.equals( method.getParameterTypes(), FAILURE_HANDLER_PARAM_TYPES ) ) {
-            throw new IllegalArgumentException( "Method parameters are not valid." );
-        }
-        if ( Modifier.isStatic( method.getModifiers() ) ) {
-            throw new IllegalArgumentException( "Method is static." );
-        }
-        
-        return ( context, reason ) -> {
-            
-            call( method, obj, context, reason );
-            
-        };
-        
-    }
-    
-    /**
-     * Parses all the main commands in the object.
-     */
-    private void parseMainCommands() {
-        
-        LOG.trace( "Parsing annotated main commands." );
-        
-        for ( Method method : obj.getClass().getDeclaredMethods() ) {
-            /* Find each @MainCommand in the class and parse the commands that they declare */
-            for ( MainCommand annotation : method.getDeclaredAnnotationsByType( MainCommand.class ) ) {
-                
-                try {
-                    ICommand mainCommand = parseMainCommand( method, annotation );
-                    mainCommands.add( mainCommand ); // Add command if successfully parsed.
-                } catch ( IllegalArgumentException e ) {
-                    if ( LOG.isErrorEnabled() ) {
-                        LOG.error( "\"" + annotation.name() + "\": Could not parse main command.", e );
-                    }
-                }
-                
-            }
-            
-        }
-        
-    }
-    
-    /**
-     * Parses all the subcommands in the object.
-     */
-    private void parseSubCommands() {
-        
-        LOG.trace( "Parsing annotated subcommands." );
-        
-        /* Get each subcommand that needs to be parsed */
-        for ( Method method : obj.getClass().getDeclaredMethods() ) {
- 
-            for ( SubCommand annotation : method.getDeclaredAnnotationsByType( SubCommand.class ) ) {
-                
-                if ( toParseMethods.containsKey( annotation.name() ) ) {
-                    LOG.error( "Subcommand with repeated name :\"{}\".", annotation.name() );
-                } else {
-                    toParseMethods.put( annotation.name(),  method );
-                    toParseAnnotations.put( annotation.name(), annotation );
-                }
-                
-            }
-            
-        }
-        
-        /* Keep parsing subcommands until no more to parse */
-        while ( !toParseMethods.isEmpty() ) {
-            
-            String next = toParseMethods.keySet().iterator().next(); // Get next subcommand to parse.
-            Method method = toParseMethods.remove( next );
-            SubCommand annotation = toParseAnnotations.remove( next );
-            parseWithDependencies( method, annotation );
-            
-        }
-        
-    }
-    
-    /**
-     * Parses a subcommand, and all of its own subcommands (dependencies), recursively.
+     * Parses all the commands and handlers in the object, retrieving the main commands that were
+     * parsed.
+     * <p>
+     * After the first time this is called, this can be called again without any processing required
+     * (the parsed commands and handlers are buffered).
+     * <p>
+     * The annotations of the class of the object are only read and validated the first time an
+     * object of that class is parsed. After that, parsing other objects of the same class only
+     * needs to create their commands.
      * <p>
-     * e.g., solves the dependencies of the given subcommand, and if successful, parses the
-     * subcommand.
+     * If a {@link CommandRegistrar registrar} was generated at compile time for the class of the
+     * object, it is used to create the commands instead. If the registrar cannot create them
+     * (because it uses a registered handler that is not registered), the annotations are read
+     * through reflection as if there was no registrar.
      *
-     * @param method The method that is marked as the subcommand.
-     * @param annotation The annotation that specifies the subcommand.
-     * @return true if the subcommand (and thus all of its dependencies) were parsed sucessfully.<br>
-     *         false if the subcommand could not be parsed (either due to an issue with the subcommand
-     *         itself or one of its dependencies).
+     * @return The main commands parsed from this object.
      */
-    private boolean parseWithDependencies( Method method, SubCommand annotation ) {
+    public synchronized List<ICommand> parse() {
         
-        /* Parse sub-subcommands (dependencies) */
-        for ( String subCommandName : annotation.subCommands() ) {
-            
-            if ( subCommands.containsKey( subCommandName ) ) {
-                continue; // Subcommand already parsed.
-            }
-            if ( !toParseMethods.containsKey( subCommandName ) ) {
-                LOG.error( "\"{}\": Invalid subcommand \"{}\".", annotation.name(),
-                        subCommandName );
-                return false; // Subcommand is not in the to-parse list, thus it doesn't exist
-            }                 // or a dependency loop exists.
-            Method subCommandMethod = toParseMethods.remove( subCommandName );
-            SubCommand subCommandAnnotation = toParseAnnotations.remove( subCommandName );
-            if ( !parseWithDependencies( subCommandMethod, subCommandAnnotation ) ) { // Parse subcommand.
-                LOG.error( "\"{}\": Failed to parse subcommand \"{}\".", annotation.name(),
-                        subCommandName );
-                return false; // Could not parse sub-subcommand.
-            }
-            
+        if ( done ) {
+            return new ArrayList<>( mainCommands );
         }
         
-        /* Sub-subcommands parsed successfully, now try parsing subcommand */
-        try {
-            ICommand command = parseSubCommand( method, annotation );
-            subCommands.put( annotation.name(), command );
-        } catch ( IllegalArgumentException e ) { // Subcommand method/annotation is invalid.
-            if ( LOG.isErrorEnabled() ) {
-                LOG.error( "\"" + annotation.name() + "\": Could not parse subcommand.", e );
+        ClassBlueprint blueprint = ClassBlueprint.of( obj.getClass() );
+        CommandRegistrar<Object> registrar = blueprint.getRegistrar();
+        if ( registrar != null ) { // Commands can be created without reflection.
+            LOG.debug( "Using generated registrar for instance of class {}.", obj.getClass().getName() );
+            try {
+                mainCommands.addAll( registrar.parse( obj ) );
+                done = true;
+                return new ArrayList<>( mainCommands );
+            } catch ( IllegalArgumentException e ) { // Missing a registered handler.
+                LOG.debug( "Generated registrar could not create the commands, reading annotations.", e );
+                blueprint = ClassBlueprint.scan( obj.getClass() );
             }
-            return false;
         }
         
-        return true; // Parsed successfully.
+        LOG.debug( "Creating annotated commands of instance of class {}.", obj.getClass().getName() );
         
-    }
-    
-    /**
-     * Parses all the success handlers in the object.
-     */
-    private void parseSuccessHandlers() {
+        /* Bind handlers */
+        blueprint.getFailureHandlers().forEach( ( name, handler ) ->
+                failureHandlers.put( name, handler.apply( obj ) ) );
+        blueprint.getSuccessHandlers().forEach( ( name, handler ) ->
+                successHandlers.put( name, handler.apply( obj ) ) );
         
-        LOG.trace( "Parsing annotated success handlers." );
-        /* Check each method */
-        for ( Method method : obj.getClass().getDeclaredMethods() ) {
+        /* Create subcommands (dependencies first), then main commands */
+        for ( ClassBlueprint.Template template : blueprint.getSubCommands() ) {
             
-            if ( Modifier.isStatic( method.getModifiers() ) ) {
-                continue; // Static methods are used for registrable handlers.
-            }
-            
-            SuccessHandler annotation = method.getDeclaredAnnotation( SuccessHandler.class );
-            if ( annotation != null ) { // Method has the annotation.
-                
-                if ( successHandlers.containsKey( annotation.value() ) ) {
-                    LOG.error( "Success handler with repeated name :\"{}\".", annotation.value() );
-                } else {
-                    try { // Try to parse the handler.
-                        Consumer<CommandContext> handler = parseSuccessHandler( method, annotation );
-                        successHandlers.put( annotation.value(), handler );
-                    } catch ( IllegalArgumentException e ) {
-                        LOG.error( "Could not parse success handler.", e );
-                    }
+            try {
+                subCommands.put( template.getName(), bind( template ) );
+            } catch ( IllegalArgumentException e ) {
+                if ( LOG.isErrorEnabled() ) {
+                    LOG.error( "\"" + template.getName() + "\": Could not parse subcommand.", e );
                 }
-                
             }
             
         }
-        
-    }
-    
-    /**
-     * Parses all the failure handlers in the object.
-     */
-    private void parseFailureHandlers() {
-        
-        LOG.trace( "Parsing annotated failure handlers." );
-        /* Check each method */
-        for ( Method method : obj.getClass().getDeclaredMethods() ) {
-            
-            if ( Modifier.isStatic( method.getModifiers() ) ) {
-                continue; // Static methods are used for registrable handlers.
-            }
+        for ( ClassBlueprint.Template template : blueprint.getMainCommands() ) {
             
-            FailureHandler annotation = method.getDeclaredAnnotation( FailureHandler.class );
-            if ( annotation != null ) { // Method has the annotation.
-                
-                if ( failureHandlers.containsKey( annotation.value() ) ) {
-                    LOG.error( "Failure handler with repeated name :\"{}\".", annotation.value() );
-                } else {
-                    try { // Try to parse the handler.
-                        BiConsumer<CommandContext, FailureReason> handler =
-                                parseFailureHandler( method, annotation );
-                        failureHandlers.put( annotation.value(), handler );
-                    } catch ( IllegalArgumentException e ) {
-                        LOG.error( "Could not parse failure handler.", e );
-                    }
+            try {
+                mainCommands.add( bind( template ) );
+            } catch ( IllegalArgumentException e ) {
+                if ( LOG.isErrorEnabled() ) {
+                    LOG.error( "\"" + template.getName() + "\": Could not parse main command.", e );
                 }
-                
             }
             
         }
         
-    }
-    
-    /**
-     * Parses all the commands and handlers in the object, retrieving the main commands that were
-     * parsed.
-     * <p>
-     * After the first time this is called, this can be called again without any processing required
-     * (the parsed commands and handlers are buffered).
-     *
-     * @return The main commands parsed from this object.
-     */
-    public synchronized List<ICommand> parse() {
-        
-        if ( done ) {
-            return new ArrayList<>( mainCommands );
-        }
-        
-        LOG.debug( "Parsing annotated members of instance of class {}.", obj.getClass().getName() );
-        
-        parseFailureHandlers();
-        parseSuccessHandlers();
-        parseSubCommands();
-        parseMainCommands();
-        
-        LOG.debug( "Finished parsing annotated members." );
+        LOG.debug( "Finished creating annotated commands." );
         
         done = true;
         return new ArrayList<>( mainCommands );
@@ -605,11 +260,7 @@ public final class AnnotationParser {
                     "There is already a registered success handler with this name." );
         }
         
-        registeredSuccessHandlers.put( annotation.value(), ( context ) -> {
-            
-            call( method, null, context );
-            
-        });
+        registeredSuccessHandlers.put( annotation.value(), Invokers.successHandler( method ).apply( null ) );
         
     }
     
@@ -643,11 +294,7 @@ public final class AnnotationParser {
                     "There is already a registered failure handler with this name." );
         }
         
-        registeredFailureHandlers.put( annotation.value(), ( context, reason ) -> {
-            
-            call( method, null, context, reason );
-            
-        });
+        registeredFailureHandlers.put( annotation.value(), Invokers.failureHandler( method ).apply( null ) );
         
     }
     
@@ -658,7 +305,7 @@ public final class AnnotationParser {
      */
     private static void registerSuccessHandlers( Class<?> target ) {
         /* Check each method */
-        for ( Method method : target.getClass().getDeclaredMethods() ) {
+        for ( Method method : target.getDeclaredMethods() ) {
             
             if ( !Modifier.isStatic( method.getModifiers() ) ) {
                 continue; // Instance methods are used for parseable handlers.
@@ -686,7 +333,7 @@ public final class AnnotationParser {
      */
     private static void registerFailureHandlers( Class<?> target ) {
         /* Check each method */
-        for ( Method method : target.getClass().getDeclaredMethods() ) {
+        for ( Method method : target.getDeclaredMethods() ) {
             
             if ( !Modifier.isStatic( method.getModifiers() ) ) {
                 continue; // Instance methods are used for parseable handlers.
@@ -727,59 +374,45 @@ public final class AnnotationParser {
         
     }
     
-    /* Support method for calling methods and specifying thrown exceptions */
-    
     /**
-     * Calls the method on the given object with the given arguments, filtering out errors beyond the
-     * expected exceptions.
+     * Retrieves a registered success handler.
+     * <p>
+     * Used by {@link CommandRegistrar registrars} generated at compile time for static handlers.
      *
-     * @param method Method to be called.
-     * @param obj Object to call the method on.
-     * @param args Args to call the method with.
-     * @return If the method returned a boolean value, returns that value.<br>
-     *         If it had no return or any other type or return, returns true (as long as
-     *         the method was invoked successfully/without any exceptions).
-     * @throws RateLimitException if the method threw a RateLimitException.
-     * @throws MissingPermissionsException if the method threw a MissingPermissionsException.
-     * @throws DiscordException if the method threw a DiscordException.
-     * @throws RuntimeException if the method threw an unexpected unchecked exception, throws that
-     *                          exception again. If it threw an unexpected checked exception, or
-     *                          {@link Method#invoke(Object, Object...)} threw a
-     *                          {@link IllegalAccessException} or {@link IllegalArgumentException},
-     *                          throws a RuntimeException whose cause is the exception thrown by
-     *                          {@link Method#invoke(Object, Object...) invoke()}.
+     * @param name The name of the handler.
+     * @return The handler.
+     * @throws IllegalArgumentException if there is no registered success handler with that name.
+     * @see #registerAnnotatedHandlers(Class)
      */
-    private static boolean call( Method method, Object obj, Object... args )
-            throws RateLimitException, MissingPermissionsException, DiscordException, RuntimeException {
-        
-        Object returnValue;
-        try { // Try calling the method.
-            returnValue = method.invoke( obj, args );
-        } catch ( InvocationTargetException e ) {
-            /* Identify the type of exception and rethrow it if possible */
-            Throwable cause = e.getCause();
-            if ( cause instanceof RateLimitException ) {
-                throw (RateLimitException) cause;
-            }
-            if ( cause instanceof MissingPermissionsException ) {
-                throw (MissingPermissionsException) cause;
-            }
-            if ( cause instanceof DiscordException ) {
-                throw (DiscordException) cause;
-            }
-            if ( cause instanceof RuntimeException ) {
-                throw (RuntimeException) cause;
-            }
-            throw new RuntimeException( "Unexpected checked exception.", e );
-        } catch ( IllegalAccessException | IllegalArgumentException e ) {
-            throw new RuntimeException( "Could not call execution method.", e );
+    public static Consumer<CommandContext> getRegisteredSuccessHandler( String name )
+            throws IllegalArgumentException {
+        
+        Consumer<CommandContext> handler = registeredSuccessHandlers.get( name );
+        if ( handler == null ) {
+            throw new IllegalArgumentException( "Invalid success handler \"" + name + "\"." );
         }
+        return handler;
+        
+    }
+    
+    /**
+     * Retrieves a registered failure handler.
+     * <p>
+     * Used by {@link CommandRegistrar registrars} generated at compile time for static handlers.
+     *
+     * @param name The name of the handler.
+     * @return The handler.
+     * @throws IllegalArgumentException if there is no registered failure handler with that name.
+     * @see #registerAnnotatedHandlers(Class)
+     */
+    public static BiConsumer<CommandContext, FailureReason> getRegisteredFailureHandler( String name )
+            throws IllegalArgumentException {
         
-        if ( returnValue instanceof Boolean ) { // Returned a boolean value, so return that too.
-            return ( (Boolean) returnValue ).booleanValue();
-        } else { // Returned something else (or didn't return anything), but finished executing sucessfully.
-            return true;
+        BiConsumer<CommandContext, FailureReason> handler = registeredFailureHandlers.get( name );
+        if ( handler == null ) {
+            throw new IllegalArgumentException( "Invalid failure handler \"" + name + "\"." );
         }
+        return handler;
         
     }
 
@@ -0,0 +1,92 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.command.annotation;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import com.github.thiagotgm.modular_commands.api.ArgumentSchema;
+import com.github.thiagotgm.modular_commands.api.CommandContext;
+import com.github.thiagotgm.modular_commands.api.Parameter;
+import com.github.thiagotgm.modular_commands.api.ParameterType;
+
+/**
+ * Annotation that declares a typed parameter of a command created from a method annotated
+ * with {@link MainCommand} or {@link SubCommand}.<br>
+ * The parameters of the command are the Arg annotations on the method, in the order that
+ * they are declared.
+ * <p>
+ * The values of the parameters are available through
+ * {@link CommandContext#getParameters()}.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-25
+ * @see ArgumentSchema
+ */
+@Documented
+@Target( METHOD )
+@Repeatable( Args.class )
+@Retention( RUNTIME )
+public @interface Arg {
+    
+    /**
+     * Retrieves the name of the parameter.
+     *
+     * @return The name of the parameter.
+     * @see Parameter#getName()
+     */
+    String name();
+    
+    /**
+     * Retrieves the type of the parameter.
+     * <p>
+     * By default, returns {@link ParameterType#STRING}.
+     *
+     * @return The type of the parameter.
+     * @see Parameter#getType()
+     */
+    ParameterType type() default ParameterType.STRING;
+    
+    /**
+     * Retrieves how many arguments the parameter takes.
+     * <p>
+     * By default, returns {@link Parameter.Arity#REQUIRED}.
+     *
+     * @return The arity of the parameter.
+     * @see Parameter#getArity()
+     */
+    Parameter.Arity arity() default Parameter.Arity.REQUIRED;
+    
+    /**
+     * Retrieves the enum whose constants the parameter takes. Must be specified if the
+     * type is {@link ParameterType#ENUM}, and only in that case.
+     * <p>
+     * By default, returns <tt>void.class</tt> (no enum).
+     *
+     * @return The enum type of the parameter.
+     * @see Parameter#getEnumType()
+     */
+    Class<?> enumType() default void.class;
+    
+}
@@ -0,0 +1,800 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.command.annotation;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.thiagotgm.modular_commands.api.ArgumentSchema;
+import com.github.thiagotgm.modular_commands.api.CommandContext;
+import com.github.thiagotgm.modular_commands.api.FailureReason;
+import com.github.thiagotgm.modular_commands.api.Parameter;
+import com.github.thiagotgm.modular_commands.api.ParameterType;
+import com.github.thiagotgm.modular_commands.command.CommandBuilder;
+
+import sx.blah.discord.handle.obj.Permissions;
+
+/**
+ * Everything about the annotated commands and handlers of a class that does not depend on the
+ * object they are parsed from.
+ * <p>
+ * The blueprint of a class is created the first time an object of the class is parsed, and is
+ * reused for every other object of the same class: the annotations are read and validated, the
+ * methods are linked, and the order in which subcommands need to be created is found only once.
+ * Creating the commands of an object then only needs to bind the linked methods to the object
+ * and build the commands.
+ * <p>
+ * If the class has a {@link CommandRegistrar registrar} generated at compile time, the blueprint
+ * only holds the registrar, and the class is not scanned.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-25
+ */
+final class ClassBlueprint {
+    
+    private static final Logger LOG = LoggerFactory.getLogger( ClassBlueprint.class );
+    
+    private static final Class<?>[] COMMAND_PARAM_TYPES = { CommandContext.class };
+    private static final Class<?>[] SUCCESS_HANDLER_PARAM_TYPES = { CommandContext.class };
+    private static final Class<?>[] FAILURE_HANDLER_PARAM_TYPES =
+        { CommandContext.class, FailureReason.class };
+    
+    /** Blueprints of each class that was parsed. */
+    private static final ClassValue<ClassBlueprint> BLUEPRINTS = new ClassValue<ClassBlueprint>() {
+        
+        @Override
+        protected ClassBlueprint computeValue( Class<?> type ) {
+            
+            return new ClassBlueprint( type, true );
+            
+        }
+        
+    };
+    
+    /** Blueprints of classes that were scanned even though they have a registrar. */
+    private static final ClassValue<ClassBlueprint> SCANNED = new ClassValue<ClassBlueprint>() {
+        
+        @Override
+        protected ClassBlueprint computeValue( Class<?> type ) {
+            
+            return new ClassBlueprint( type, false );
+            
+        }
+        
+    };
+    
+    private final CommandRegistrar<Object> registrar;
+    private final Map<String, Function<Object, Consumer<CommandContext>>> successHandlers;
+    private final Map<String, Function<Object, BiConsumer<CommandContext, FailureReason>>> failureHandlers;
+    private final List<Template> subCommands;
+    private final List<Template> mainCommands;
+    
+    /* Only used while scanning */
+    private final Map<String, Method> toParseMethods;
+    private final Map<String, SubCommand> toParseAnnotations;
+    private final Map<String, Template> parsedSubCommands;
+    
+    /**
+     * Creates the blueprint of the given class.
+     *
+     * @param c The class.
+     * @param useRegistrar Whether the registrar of the class should be used if it has one,
+     *                     instead of scanning the class.
+     */
+    private ClassBlueprint( Class<?> c, boolean useRegistrar ) {
+        
+        this.registrar = useRegistrar ? getRegistrar( c ) : null;
+        this.successHandlers = new HashMap<>();
+        this.failureHandlers = new HashMap<>();
+        this.subCommands = new ArrayList<>();
+        this.mainCommands = new ArrayList<>();
+        
+        this.toParseMethods = new LinkedHashMap<>();
+        this.toParseAnnotations = new HashMap<>();
+        this.parsedSubCommands = new HashMap<>();
+        
+        if ( registrar != null ) {
+            LOG.debug( "Found generated registrar for class {}.", c.getName() );
+        } else {
+            LOG.debug( "Scanning annotated members of class {}.", c.getName() );
+            Method[] methods = c.getDeclaredMethods();
+            scanFailureHandlers( methods );
+            scanSuccessHandlers( methods );
+            scanSubCommands( methods );
+            scanMainCommands( methods );
+            LOG.debug( "Finished scanning annotated members." );
+        }
+        
+        toParseMethods.clear();
+        toParseAnnotations.clear();
+        parsedSubCommands.clear();
+        
+    }
+    
+    /**
+     * Retrieves the blueprint of the given class, creating it if this is the first time it was
+     * requested.
+     *
+     * @param c The class.
+     * @return The blueprint of the class.
+     */
+    static ClassBlueprint of( Class<?> c ) {
+        
+        return BLUEPRINTS.get( c );
+        
+    }
+    
+    /**
+     * Retrieves the blueprint of the given class, made by scanning the class even if it has
+     * a {@link CommandRegistrar registrar}.
+     *
+     * @param c The class.
+     * @return The scanned blueprint of the class.
+     */
+    static ClassBlueprint scan( Class<?> c ) {
+        
+        return SCANNED.get( c );
+        
+    }
+    
+    /**
+     * Retrieves the registrar generated at compile time for the class.
+     *
+     * @return The registrar of the class, or null if it does not have one.
+     */
+    CommandRegistrar<Object> getRegistrar() {
+        
+        return registrar;
+        
+    }
+    
+    /**
+     * Retrieves the success handlers of the class.
+     *
+     * @return The factories that create each success handler given the object, by name.
+     */
+    Map<String, Function<Object, Consumer<CommandContext>>> getSuccessHandlers() {
+        
+        return Collections.unmodifiableMap( successHandlers );
+        
+    }
+    
+    /**
+     * Retrieves the failure handlers of the class.
+     *
+     * @return The factories that create each failure handler given the object, by name.
+     */
+    Map<String, Function<Object, BiConsumer<CommandContext, FailureReason>>> getFailureHandlers() {
+        
+        return Collections.unmodifiableMap( failureHandlers );
+        
+    }
+    
+    /**
+     * Retrieves the subcommands of the class, ordered so that each subcommand comes after
+     * all of its own subcommands.
+     *
+     * @return The subcommands.
+     */
+    List<Template> getSubCommands() {
+        
+        return Collections.unmodifiableList( subCommands );
+        
+    }
+    
+    /**
+     * Retrieves the main commands of the class.
+     *
+     * @return The main commands.
+     */
+    List<Template> getMainCommands() {
+        
+        return Collections.unmodifiableList( mainCommands );
+        
+    }
+    
+    /**
+     * Creates the template of a command from the given method and the given properties, that are
+     * common to main commands and subcommands.
+     *
+     * @param method The method to use as the command operation.
+     * @param name The name of the command.
+     * @param builder The builder for the command, with the properties that are specific to the
+     *                type of command already set.
+     * @param subCommand Whether the command is a subcommand.
+     * @param successHandler The name of the success handler.
+     * @param failureHandler The name of the failure handler.
+     * @param subCommands The names of the subcommands.
+     * @param rateLimit The rate limit.
+     * @param cooldown The cooldown.
+     * @param canModifySubCommands Whether the subcommand set can be modified.
+     * @param priority The priority.
+     * @return The template.
+     * @throws IllegalArgumentException if the method given or one of the values are invalid.
+     */
+    private Template parseCommand( Method method, String name, CommandBuilder builder,
+            boolean subCommand, String successHandler, String failureHandler, String[] subCommands,
+            String rateLimit, String cooldown, boolean canModifySubCommands, int priority )
+            throws IllegalArgumentException {
+        
+        if ( !Arrays.equals( method.getParameterTypes(), COMMAND_PARAM_TYPES ) ) {
+            throw new IllegalArgumentException( "Method parameters are not valid." );
+        }
+        if ( Modifier.isStatic( method.getModifiers() ) ) {
+            throw new IllegalArgumentException( "Method is static." );
+        }
+        
+        /* Check that the subcommands exist */
+        for ( String subCommandName : subCommands ) {
+            
+            if ( !parsedSubCommands.containsKey( subCommandName ) ) {
+                throw new IllegalArgumentException( "Invalid subcommand \"" + subCommandName + "\"." );
+            }
+            
+        }
+        
+        if ( !rateLimit.isEmpty() ) {
+            builder.withRateLimit( rateLimit );
+        }
+        if ( !cooldown.isEmpty() ) {
+            builder.withCooldown( cooldown );
+        }
+        builder.withArguments( parseArguments( method ) );
+        builder.canModifySubCommands( canModifySubCommands )
+               .withPriority( priority );
+        
+        return new Template( name, builder, subCommand, Invokers.command( method ),
+                successHandler.isEmpty() ? null : successHandler,
+                failureHandler.isEmpty() ? null : failureHandler, subCommands );
+        
+    }
+    
+    /**
+     * Parses a main command from the given method and the given annotation that was present
+     * on the method.
+     *
+     * @param method The method to use as the main command operation.
+     * @param annotation The annotation that marked the method.
+     * @return The template of the main command described by the given annotation that executes
+     *         the given method.
+     * @throws IllegalArgumentException if the method given or one of the values in the annotation
+     *                                  are invalid.
+     */
+    private Template parseMainCommand( Method method, MainCommand annotation )
+            throws IllegalArgumentException {
+        
+        LOG.trace( "Parsing annotated main command \"{}\".", annotation.name() );
+        
+        /* Get main command properties */
+        CommandBuilder builder = new CommandBuilder( annotation.name() );
+        builder.essential( annotation.essential() )
+               .withAliases( annotation.aliases() );
+        if ( !annotation.prefix().isEmpty() ) {
+            builder.withPrefix( annotation.prefix() );
+        }
+        builder.withDescription( annotation.description() )
+               .withUsage( annotation.usage() )
+               .withOnSuccessDelay( annotation.onSuccessDelay() );
+        
+        /* Get command options */
+        builder.replyPrivately( annotation.replyPrivately() )
+               .ignorePublic( annotation.ignorePublic() )
+               .ignorePrivate( annotation.ignorePrivate() )
+               .ignoreBots( annotation.ignoreBots() )
+               .deleteCommand( annotation.deleteCommand() )
+               .requiresOwner( annotation.requiresOwner() )
+               .NSFW( annotation.NSFW() )
+               .overrideable( annotation.overrideable() );
+        
+        /* Get required permissions */
+        builder.withRequiredPermissions( permissionSet( annotation.requiredPermissions() ) );
+        builder.withRequiredGuildPermissions( permissionSet( annotation.requiredGuildPermissions() ) );
+        
+        return parseCommand( method, annotation.name(), builder, false, annotation.successHandler(),
+                annotation.failureHandler(), annotation.subCommands(), annotation.rateLimit(),
+                annotation.cooldown(), annotation.canModifySubCommands(), annotation.priority() );
+        
+    }
+    
+    /**
+     * Parses a subcommand from the given method and the given annotation that was present
+     * on the method.
+     *
+     * @param method The method to use as the main command operation.
+     * @param annotation The annotation that marked the method.
+     * @return The template of the subcommand described by the given annotation that executes
+     *         the given method.
+     * @throws IllegalArgumentException if the method given or one of the values in the annotation
+     *                                  are invalid.
+     */
+    private Template parseSubCommand( Method method, SubCommand annotation )
+            throws IllegalArgumentException {
+        
+        LOG.trace( "Parsing annotated subcommand \"{}\".", annotation.name() );
+        
+        if ( Arrays.asList( annotation.subCommands() ).contains( annotation.name() ) ) {
+            throw new IllegalArgumentException( "Subcommand cannot be its own subcommand." );
+        }
+        
+        /* Get main command properties */
+        CommandBuilder builder = new CommandBuilder( annotation.name() ).subCommand( true );
+        builder.essential( annotation.essential() )
+               .withAliases( annotation.aliases() );
+        builder.withDescription( annotation.description() )
+               .withUsage( annotation.usage() )
+               .withOnSuccessDelay( annotation.onSuccessDelay() );
+        
+        /* Get command options */
+        builder.replyPrivately( annotation.replyPrivately() )
+               .ignorePublic( annotation.ignorePublic() )
+               .ignorePrivate( annotation.ignorePrivate() )
+               .ignoreBots( annotation.ignoreBots() )
+               .deleteCommand( annotation.deleteCommand() )
+               .requiresOwner( annotation.requiresOwner() )
+               .NSFW( annotation.NSFW() )
+               .executeParent( annotation.executeParent() )
+               .requiresParentPermissions( annotation.requiresParentPermissions() );
+        
+        /* Get required permissions */
+        builder.withRequiredPermissions( permissionSet( annotation.requiredPermissions() ) );
+        builder.withRequiredGuildPermissions( permissionSet( annotation.requiredGuildPermissions() ) );
+        
+        return parseCommand( method, annotation.name(), builder, true, annotation.successHandler(),
+                annotation.failureHandler(), annotation.subCommands(), annotation.rateLimit(),
+                annotation.cooldown(), annotation.canModifySubCommands(), annotation.priority() );
+        
+    }
+    
+    /**
+     * Creates a set with the given permissions.
+     *
+     * @param permissions The permissions.
+     * @return The set.
+     */
+    private static EnumSet<Permissions> permissionSet( Permissions[] permissions ) {
+        
+        EnumSet<Permissions> set = EnumSet.noneOf( Permissions.class );
+        set.addAll( Arrays.asList( permissions ) );
+        return set;
+        
+    }
+    
+    /**
+     * Parses the argument schema declared by the {@link Arg} annotations present on the
+     * given method.
+     *
+     * @param method The method of the command.
+     * @return The argument schema of the command, or null if the method has no Arg annotations.
+     * @throws IllegalArgumentException if one of the annotations is invalid or the parameters do not
+     *                                  form a valid schema.
+     */
+    @SuppressWarnings( "unchecked" )
+    private static ArgumentSchema parseArguments( Method method ) throws IllegalArgumentException {
+        
+        Arg[] args = method.getAnnotationsByType( Arg.class );
+        if ( args.length == 0 ) {
+            return null; // No schema.
+        }
+        List<Parameter> parameters = new ArrayList<>( args.length );
+        for ( Arg arg : args ) { // Parse each parameter.
+            
+            if ( arg.type() == ParameterType.ENUM ) {
+                if ( !arg.enumType().isEnum() ) {
+                    throw new IllegalArgumentException( "Parameter \"" + arg.name() +
+                            "\" must specify an enum type." );
+                }
+                parameters.add( new Parameter( arg.name(), (Class<? extends Enum<?>>) arg.enumType(),
+                        arg.arity() ) );
+            } else {
+                if ( arg.enumType() != void.class ) {
+                    throw new IllegalArgumentException( "Parameter \"" + arg.name() +
+                            "\" is not an enum parameter." );
+                }
+                parameters.add( new Parameter( arg.name(), arg.type(), arg.arity() ) );
+            }
+            
+        }
+        return new ArgumentSchema( parameters );
+        
+    }
+    
+    /**
+     * Parses a success handler from the given method and the given annotation that was present
+     * on the method.
+     *
+     * @param method The method to use as the handler operation.
+     * @param annotation The annotation that marked the method.
+     * @return The factory that creates a Consumer that runs the given method.
+     * @throws IllegalArgumentException if the method is invalid.
+     */
+    private static Function<Object, Consumer<CommandContext>> parseSuccessHandler( Method method,
+            SuccessHandler annotation ) throws IllegalArgumentException {
+        
+        LOG.trace( "Parsing annotated success handler \"{}\".", annotation.value() );
+        
+        if ( !Arrays.equals( method.getParameterTypes(), SUCCESS_HANDLER_PARAM_TYPES ) ) {
+            throw new IllegalArgumentException( "Method parameters are not valid." );
+        }
+        
+        return Invokers.successHandler( method );
+        
+    }
+    
+    /**
+     * Parses a failure handler from the given method and the given annotation that was present
+     * on the method.
+     *
+     * @param method The method to use as the handler operation.
+     * @param annotation The annotation that marked the method.
+     * @return The factory that creates a BiConsumer that runs the given method.
+     * @throws IllegalArgumentException if the method is invalid.
+     */
+    private static Function<Object, BiConsumer<CommandContext, FailureReason>> parseFailureHandler(
+            Method method, FailureHandler annotation ) throws IllegalArgumentException {
+        
+        LOG.trace( "Parsing annotated failure handler \"{}\".", annotation.value() );
+        
+        if ( !Arrays.equals( method.getParameterTypes(), FAILURE_HANDLER_PARAM_TYPES ) ) {
+            throw new IllegalArgumentException( "Method parameters are not valid." );
+        }
+        
+        return Invokers.failureHandler( method );
+        
+    }
+    
+    /**
+     * Scans all the main commands in the class.
+     *
+     * @param methods The methods declared by the class.
+     */
+    private void scanMainCommands( Method[] methods ) {
+        
+        LOG.trace( "Parsing annotated main commands." );
+        
+        for ( Method method : methods ) {
+            /* Find each @MainCommand in the class and parse the commands that they declare */
+            for ( MainCommand annotation : method.getDeclaredAnnotationsByType( MainCommand.class ) ) {
+                
+                try {
+                    mainCommands.add( parseMainCommand( method, annotation ) );
+                } catch ( IllegalArgumentException e ) {
+                    if ( LOG.isErrorEnabled() ) {
+                        LOG.error( "\"" + annotation.name() + "\": Could not parse main command.", e );
+                    }
+                }
+                
+            }
+            
+        }
+        
+    }
+    
+    /**
+     * Scans all the subcommands in the class.
+     *
+     * @param methods The methods declared by the class.
+     */
+    private void scanSubCommands( Method[] methods ) {
+        
+        LOG.trace( "Parsing annotated subcommands." );
+        
+        /* Get each subcommand that needs to be parsed */
+        for ( Method method : methods ) {
+            
+            for ( SubCommand annotation : method.getDeclaredAnnotationsByType( SubCommand.class ) ) {
+                
+                if ( toParseMethods.containsKey( annotation.name() ) ) {
+                    LOG.error( "Subcommand with repeated name :\"{}\".", annotation.name() );
+                } else {
+                    toParseMethods.put( annotation.name(),  method );
+                    toParseAnnotations.put( annotation.name(), annotation );
+                }
+                
+            }
+            
+        }
+        
+        /* Keep parsing subcommands until no more to parse */
+        while ( !toParseMethods.isEmpty() ) {
+            
+            String next = toParseMethods.keySet().iterator().next(); // Get next subcommand to parse.
+            Method method = toParseMethods.remove( next );
+            SubCommand annotation = toParseAnnotations.remove( next );
+            parseWithDependencies( method, annotation );
+            
+        }
+        
+    }
+    
+    /**
+     * Parses a subcommand, and all of its own subcommands (dependencies), recursively.
+     * <p>
+     * e.g., solves the dependencies of the given subcommand, and if successful, parses the
+     * subcommand. Subcommands are added to the subcommand list in the order that they are
+     * parsed, so each one is after its dependencies.
+     *
+     * @param method The method that is marked as the subcommand.
+     * @param annotation The annotation that specifies the subcommand.
+     * @return true if the subcommand (and thus all of its dependencies) were parsed sucessfully.<br>
+     *         false if the subcommand could not be parsed (either due to an issue with the subcommand
+     *         itself or one of its dependencies).
+     */
+    private boolean parseWithDependencies( Method method, SubCommand annotation ) {
+        
+        /* Parse sub-subcommands (dependencies) */
+        for ( String subCommandName : annotation.subCommands() ) {
+            
+            if ( parsedSubCommands.containsKey( subCommandName ) ) {
+                continue; // Subcommand already parsed.
+            }
+            if ( !toParseMethods.containsKey( subCommandName ) ) {
+                LOG.error( "\"{}\": Invalid subcommand \"{}\".", annotation.name(),
+                        subCommandName );
+                return false; // Subcommand is not in the to-parse list, thus it doesn't exist
+            }                 // or a dependency loop exists.
+            Method subCommandMethod = toParseMethods.remove( subCommandName );
+            SubCommand subCommandAnnotation = toParseAnnotations.remove( subCommandName );
+            if ( !parseWithDependencies( subCommandMethod, subCommandAnnotation ) ) { // Parse subcommand.
+                LOG.error( "\"{}\": Failed to parse subcommand \"{}\".", annotation.name(),
+                        subCommandName );
+                return false; // Could not parse sub-subcommand.
+            }
+            
+        }
+        
+        /* Sub-subcommands parsed successfully, now try parsing subcommand */
+        try {
+            Template template = parseSubCommand( method, annotation );
+            parsedSubCommands.put( annotation.name(), template );
+            subCommands.add( template );
+        } catch ( IllegalArgumentException e ) { // Subcommand method/annotation is invalid.
+            if ( LOG.isErrorEnabled() ) {
+                LOG.error( "\"" + annotation.name() + "\": Could not parse subcommand.", e );
+            }
+            return false;
+        }
+        
+        return true; // Parsed successfully.
+        
+    }
+    
+    /**
+     * Scans all the success handlers in the class.
+     *
+     * @param methods The methods declared by the class.
+     */
+    private void scanSuccessHandlers( Method[] methods ) {
+        
+        LOG.trace( "Parsing annotated success handlers." );
+        /* Check each method */
+        for ( Method method : methods ) {
+            
+            if ( Modifier.isStatic( method.getModifiers() ) ) {
+                continue; // Static methods are used for registrable handlers.
+            }
+            
+            SuccessHandler annotation = method.getDeclaredAnnotation( SuccessHandler.class );
+            if ( annotation != null ) { // Method has the annotation.
+                
+                if ( successHandlers.containsKey( annotation.value() ) ) {
+                    LOG.error( "Success handler with repeated name :\"{}\".", annotation.value() );
+                } else {
+                    try { // Try to parse the handler.
+                        successHandlers.put( annotation.value(), parseSuccessHandler( method, annotation ) );
+                    } catch ( IllegalArgumentException e ) {
+                        LOG.error( "Could not parse success handler.", e );
+                    }
+                }
+                
+            }
+            
+        }
+        
+    }
+    
+    /**
+     * Scans all the failure handlers in the class.
+     *
+     * @param methods The methods declared by the class.
+     */
+    private void scanFailureHandlers( Method[] methods ) {
+        
+        LOG.trace( "Parsing annotated failure handlers." );
+        /* Check each method */
+        for ( Method method : methods ) {
+            
+            if ( Modifier.isStatic( method.getModifiers() ) ) {
+                continue; // Static methods are used for registrable handlers.
+            }
+            
+            FailureHandler annotation = method.getDeclaredAnnotation( FailureHandler.class );
+            if ( annotation != null ) { // Method has the annotation.
+                
+                if ( failureHandlers.containsKey( annotation.value() ) ) {
+                    LOG.error( "Failure handler with repeated name :\"{}\".", annotation.value() );
+                } else {
+                    try { // Try to parse the handler.
+                        failureHandlers.put( annotation.value(), parseFailureHandler( method, annotation ) );
+                    } catch ( IllegalArgumentException e ) {
+                        LOG.error( "Could not parse failure handler.", e );
+                    }
+                }
+                
+            }
+            
+        }
+        
+    }
+    
+    /**
+     * Retrieves the registrar generated at compile time for the given class, if there is one.
+     *
+     * @param c The class.
+     * @return The registrar of the class, or null if it does not have one.
+     * @see CommandRegistrar
+     */
+    @SuppressWarnings( "unchecked" )
+    private static CommandRegistrar<Object> getRegistrar( Class<?> c ) {
+        
+        String registrarName = c.getName() + CommandRegistrar.SUFFIX;
+        try {
+            Class<?> registrar = Class.forName( registrarName, true, c.getClassLoader() );
+            if ( !CommandRegistrar.class.isAssignableFrom( registrar ) ) {
+                LOG.warn( "Class {} is not a command registrar.", registrarName );
+                return null;
+            }
+            return (CommandRegistrar<Object>) registrar.newInstance();
+        } catch ( ClassNotFoundException e ) {
+            return null; // No registrar.
+        } catch ( InstantiationException | IllegalAccessException e ) {
+            LOG.warn( "Could not instantiate command registrar " + registrarName + ".", e );
+            return null;
+        }
+        
+    }
+    
+    /**
+     * The parts of a command that do not depend on the object it is parsed from.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2017-09-25
+     */
+    static final class Template {
+        
+        private final String name;
+        private final CommandBuilder builder;
+        private final boolean subCommand;
+        private final Function<Object, Predicate<CommandContext>> operation;
+        private final String successHandler;
+        private final String failureHandler;
+        private final List<String> subCommands;
+        
+        /**
+         * Creates a new template.
+         *
+         * @param name The name of the command.
+         * @param builder The builder with all the properties of the command that do not depend on
+         *                the object. Must not be modified after this.
+         * @param subCommand Whether the command is a subcommand.
+         * @param operation The factory for the command operation.
+         * @param successHandler The name of the success handler, or null if none.
+         * @param failureHandler The name of the failure handler, or null if none.
+         * @param subCommands The names of the subcommands.
+         */
+        Template( String name, CommandBuilder builder, boolean subCommand,
+                Function<Object, Predicate<CommandContext>> operation, String successHandler,
+                String failureHandler, String[] subCommands ) {
+            
+            this.name = name;
+            this.builder = builder;
+            this.subCommand = subCommand;
+            this.operation = operation;
+            this.successHandler = successHandler;
+            this.failureHandler = failureHandler;
+            this.subCommands = Collections.unmodifiableList( Arrays.asList( subCommands.clone() ) );
+            
+        }
+        
+        /**
+         * Retrieves the name of the command.
+         *
+         * @return The name.
+         */
+        String getName() {
+            
+            return name;
+            
+        }
+        
+        /**
+         * Creates a builder for the command, with all the properties that do not depend on
+         * the object already set.
+         *
+         * @param obj The object whose method is called by the command.
+         * @return The builder.
+         */
+        CommandBuilder newBuilder( Object obj ) {
+            
+            return new CommandBuilder( name, builder ).onExecute( operation.apply( obj ) );
+            
+        }
+        
+        /**
+         * Retrieves whether the command is a subcommand.
+         *
+         * @return true if it is a subcommand, false if it is a main command.
+         */
+        boolean isSubCommand() {
+            
+            return subCommand;
+            
+        }
+        
+        /**
+         * Retrieves the name of the success handler of the command.
+         *
+         * @return The name, or null if the command does not specify one.
+         */
+        String getSuccessHandler() {
+            
+            return successHandler;
+            
+        }
+        
+        /**
+         * Retrieves the name of the failure handler of the command.
+         *
+         * @return The name, or null if the command does not specify one.
+         */
+        String getFailureHandler() {
+            
+            return failureHandler;
+            
+        }
+        
+        /**
+         * Retrieves the names of the subcommands of the command.
+         *
+         * @return The names.
+         */
+        List<String> getSubCommands() {
+            
+            return subCommands;
+            
+        }
+        
+    }
+    
+}
@@ -0,0 +1,57 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.command.annotation;
+
+import java.util.List;
+
+import com.github.thiagotgm.modular_commands.api.ICommand;
+
+/**
+ * Creates the annotated commands of an object without using reflection.
+ * <p>
+ * Implementations of this interface are generated at compile time by the
+ * <tt>ModularCommands-processor</tt> annotation processor, one for each class that has annotated
+ * commands or handlers. The registrar of a class is a top-level class in the same package, and
+ * its name is the binary name of the class (so the names of enclosing classes are separated by
+ * <tt>$</tt>, for nested classes) followed by {@value #SUFFIX}. Since <tt>$</tt> is reserved for
+ * generated names, it cannot be the name of a class written by hand.
+ * <p>
+ * When parsing an object, {@link AnnotationParser} uses the registrar of its class if there is one,
+ * and only falls back to reading the annotations through reflection if there isn't.
+ * The registrar of a class is only instantiated once, and the same instance is used for all
+ * objects of the class, so registrars should not keep any state.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-25
+ * @param <T> The type of object whose commands are created.
+ */
+public interface CommandRegistrar<T> {
+    
+    /** Suffix of the names of generated registrars. */
+    String SUFFIX = "$$CommandRegistrar";
+    
+    /**
+     * Creates the annotated commands of the given object.
+     *
+     * @param obj The object whose methods are called by the commands.
+     * @return The main commands of the object.
+     */
+    List<ICommand> parse( T obj );
+    
+}
@@ -0,0 +1,430 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.command.annotation;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.thiagotgm.modular_commands.api.CommandContext;
+import com.github.thiagotgm.modular_commands.api.FailureReason;
+
+import sx.blah.discord.util.DiscordException;
+import sx.blah.discord.util.MissingPermissionsException;
+import sx.blah.discord.util.RateLimitException;
+
+/**
+ * Creates the operations that call annotated methods.
+ * <p>
+ * Instead of calling the methods through reflection every time, each method is linked once,
+ * when it is parsed: an implementation of the functional interface that the operation uses is
+ * generated with {@link LambdaMetafactory}, so calling it is the same as calling a lambda.
+ * If that is not possible (for example, if the class of the method was loaded by a class loader
+ * that cannot be seen from this library), the method is called through a {@link MethodHandle}
+ * instead.
+ * <p>
+ * Linking a method gives a factory that binds the operation to an object, so a method only needs
+ * to be linked once no matter how many objects of its class are parsed.
+ * <p>
+ * Exceptions thrown by the methods are not wrapped. Unchecked exceptions (including
+ * {@link RateLimitException}, {@link MissingPermissionsException}, and {@link DiscordException})
+ * and errors are thrown again as they are, and checked exceptions are wrapped in a RuntimeException.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-25
+ */
+final class Invokers {
+    
+    private static final Logger LOG = LoggerFactory.getLogger( Invokers.class );
+    
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    
+    private static final MethodType PREDICATE_TYPE = MethodType.methodType( boolean.class, Object.class );
+    private static final MethodType CONSUMER_TYPE = MethodType.methodType( void.class, Object.class );
+    private static final MethodType FUNCTION_TYPE = MethodType.methodType( Object.class, Object.class );
+    private static final MethodType BI_CONSUMER_TYPE =
+            MethodType.methodType( void.class, Object.class, Object.class );
+    
+    /**
+     * Not instantiable.
+     */
+    private Invokers() {}
+    
+    /**
+     * Creates a factory for the operation of a command that calls the given method.
+     * <p>
+     * If the method returns a boolean value, the operation returns that value. Else, the operation
+     * returns true whenever the method finishes executing without throwing an exception.
+     *
+     * @param method The method. Must take a single {@link CommandContext}.
+     * @return The factory that creates the command operation given the object to call the method
+     *         on (null if the method is static).
+     * @throws IllegalArgumentException if the method cannot be accessed.
+     */
+    static Function<Object, Predicate<CommandContext>> command( Method method )
+            throws IllegalArgumentException {
+        
+        return command( method, true );
+        
+    }
+    
+    /**
+     * Creates a factory for the operation of a command that calls the given method, optionally
+     * always using a method handle instead of a generated implementation (so that the fallback
+     * can be measured).
+     *
+     * @param method The method. Must take a single {@link CommandContext}.
+     * @param allowGenerated If false, the method is always called through a method handle.
+     * @return The factory that creates the command operation given the object to call the method
+     *         on (null if the method is static).
+     * @throws IllegalArgumentException if the method cannot be accessed.
+     * @see #command(Method)
+     */
+    @SuppressWarnings( "unchecked" )
+    static Function<Object, Predicate<CommandContext>> command( Method method, boolean allowGenerated )
+            throws IllegalArgumentException {
+        
+        MethodHandle handle = unreflect( method );
+        Class<?> returnType = method.getReturnType();
+        if ( returnType == boolean.class ) { // Return the value directly.
+            Function<Object, Object> factory = allowGenerated ?
+                    generate( method, handle, Predicate.class, "test", PREDICATE_TYPE ) : null;
+            if ( factory != null ) {
+                return ( obj ) -> {
+                    
+                    Predicate<CommandContext> generated = (Predicate<CommandContext>) factory.apply( obj );
+                    return ( context ) -> {
+                        
+                        try {
+                            return generated.test( context );
+                        } catch ( Throwable e ) { // Method may throw checked exceptions.
+                            throw rethrow( e );
+                        }
+                        
+                    };
+                    
+                };
+            }
+            return ( obj ) -> {
+                
+                MethodHandle target = bind( handle, obj, boolean.class, CommandContext.class );
+                return ( context ) -> {
+                    
+                    try {
+                        return (boolean) target.invokeExact( context );
+                    } catch ( Throwable e ) {
+                        throw rethrow( e );
+                    }
+                    
+                };
+                
+            };
+        } else if ( returnType == void.class ) { // Succeeds if it finishes.
+            Function<Object, Consumer<CommandContext>> factory = successHandler( method, allowGenerated );
+            return ( obj ) -> {
+                
+                Consumer<CommandContext> operation = factory.apply( obj );
+                return ( context ) -> {
+                    
+                    operation.accept( context );
+                    return true;
+                    
+                };
+                
+            };
+        } else { // May return a Boolean, check what it returned.
+            Function<Object, Object> factory = allowGenerated ?
+                    generate( method, handle, Function.class, "apply", FUNCTION_TYPE ) : null;
+            return ( obj ) -> {
+                
+                Function<CommandContext, Object> generated = ( factory != null ) ?
+                        (Function<CommandContext, Object>) factory.apply( obj ) : null;
+                MethodHandle target = ( generated == null ) ?
+                        bind( handle, obj, Object.class, CommandContext.class ) : null;
+                return ( context ) -> {
+                    
+                    Object returnValue;
+                    try {
+                        returnValue = ( generated != null ) ? generated.apply( context ) :
+                                                              (Object) target.invokeExact( context );
+                    } catch ( Throwable e ) {
+                        throw rethrow( e );
+                    }
+                    return ( returnValue instanceof Boolean ) ? (Boolean) returnValue : true;
+                    
+                };
+                
+            };
+        }
+        
+    }
+    
+    /**
+     * Creates a factory for a success handler that calls the given method. The value returned by
+     * the method, if any, is ignored.
+     *
+     * @param method The method. Must take a single {@link CommandContext}.
+     * @return The factory that creates the success handler given the object to call the method
+     *         on (null if the method is static).
+     * @throws IllegalArgumentException if the method cannot be accessed.
+     */
+    static Function<Object, Consumer<CommandContext>> successHandler( Method method )
+            throws IllegalArgumentException {
+        
+        return successHandler( method, true );
+        
+    }
+    
+    /**
+     * Creates a factory for a success handler that calls the given method, optionally always
+     * using a method handle instead of a generated implementation.
+     *
+     * @param method The method. Must take a single {@link CommandContext}.
+     * @param allowGenerated If false, the method is always called through a method handle.
+     * @return The factory that creates the success handler given the object to call the method
+     *         on (null if the method is static).
+     * @throws IllegalArgumentException if the method cannot be accessed.
+     * @see #successHandler(Method)
+     */
+    @SuppressWarnings( "unchecked" )
+    private static Function<Object, Consumer<CommandContext>> successHandler( Method method,
+            boolean allowGenerated ) throws IllegalArgumentException {
+        
+        MethodHandle handle = unreflect( method );
+        Function<Object, Object> factory = allowGenerated ?
+                generate( method, handle, Consumer.class, "accept", CONSUMER_TYPE ) : null;
+        if ( factory != null ) {
+            return ( obj ) -> {
+                
+                Consumer<CommandContext> generated = (Consumer<CommandContext>) factory.apply( obj );
+                return ( context ) -> {
+                    
+                    try {
+                        generated.accept( context );
+                    } catch ( Throwable e ) { // Method may throw checked exceptions.
+                        throw rethrow( e );
+                    }
+                    
+                };
+                
+            };
+        }
+        return ( obj ) -> {
+            
+            MethodHandle target = bind( handle, obj, void.class, CommandContext.class );
+            return ( context ) -> {
+                
+                try {
+                    target.invokeExact( context );
+                } catch ( Throwable e ) {
+                    throw rethrow( e );
+                }
+                
+            };
+            
+        };
+        
+    }
+    
+    /**
+     * Creates a factory for a failure handler that calls the given method. The value returned by
+     * the method, if any, is ignored.
+     *
+     * @param method The method. Must take a {@link CommandContext} and a {@link FailureReason}.
+     * @return The factory that creates the failure handler given the object to call the method
+     *         on (null if the method is static).
+     * @throws IllegalArgumentException if the method cannot be accessed.
+     */
+    @SuppressWarnings( "unchecked" )
+    static Function<Object, BiConsumer<CommandContext, FailureReason>> failureHandler( Method method )
+            throws IllegalArgumentException {
+        
+        MethodHandle handle = unreflect( method );
+        Function<Object, Object> factory = generate( method, handle, BiConsumer.class, "accept",
+                BI_CONSUMER_TYPE );
+        if ( factory != null ) {
+            return ( obj ) -> {
+                
+                BiConsumer<CommandContext, FailureReason> generated =
+                        (BiConsumer<CommandContext, FailureReason>) factory.apply( obj );
+                return ( context, reason ) -> {
+                    
+                    try {
+                        generated.accept( context, reason );
+                    } catch ( Throwable e ) { // Method may throw checked exceptions.
+                        throw rethrow( e );
+                    }
+                    
+                };
+                
+            };
+        }
+        return ( obj ) -> {
+            
+            MethodHandle target = bind( handle, obj, void.class, CommandContext.class, FailureReason.class );
+            return ( context, reason ) -> {
+                
+                try {
+                    target.invokeExact( context, reason );
+                } catch ( Throwable e ) {
+                    throw rethrow( e );
+                }
+                
+            };
+            
+        };
+        
+    }
+    
+    /**
+     * Obtains a method handle for the given method.
+     *
+     * @param method The method.
+     * @return The method handle.
+     * @throws IllegalArgumentException if the method cannot be accessed.
+     */
+    private static MethodHandle unreflect( Method method ) throws IllegalArgumentException {
+        
+        try {
+            return LOOKUP.unreflect( method );
+        } catch ( IllegalAccessException e ) {
+            throw new IllegalArgumentException( "Method cannot be accessed.", e );
+        }
+        
+    }
+    
+    /**
+     * Generates an implementation of a functional interface that calls the given method directly,
+     * obtaining a factory that creates instances of it.
+     *
+     * @param method The method.
+     * @param handle The handle of the method.
+     * @param type The functional interface.
+     * @param name The name of the abstract method of the interface.
+     * @param erasedType The (erased) type of the abstract method of the interface.
+     * @return The factory that creates an instance of the implementation given the object to call
+     *         the method on (null if the method is static), or null if it could not be generated.
+     */
+    private static Function<Object, Object> generate( Method method, MethodHandle handle, Class<?> type,
+            String name, MethodType erasedType ) {
+        
+        if ( !isVisible( method.getDeclaringClass() ) ) {
+            LOG.debug( "Class of method {} is not visible, using a method handle.", method );
+            return null;
+        }
+        boolean isStatic = Modifier.isStatic( method.getModifiers() );
+        /* Type of the generated method, with the parameter and return types of the method */
+        MethodType instantiatedType = isStatic ? handle.type() : handle.type().dropParameterTypes( 0, 1 );
+        if ( erasedType.returnType() == void.class ) {
+            instantiatedType = instantiatedType.changeReturnType( void.class );
+        } else if ( erasedType.returnType() == Object.class ) {
+            instantiatedType = instantiatedType.changeReturnType( Object.class );
+        }
+        MethodType factoryType = isStatic ? MethodType.methodType( type ) :
+                                            MethodType.methodType( type, method.getDeclaringClass() );
+        MethodHandle factory;
+        try {
+            CallSite site = LambdaMetafactory.metafactory( LOOKUP, name, factoryType, erasedType, handle,
+                    instantiatedType );
+            factory = site.getTarget();
+        } catch ( LambdaConversionException e ) {
+            LOG.debug( "Could not generate invoker for method " + method + ", using a method handle.", e );
+            return null;
+        }
+        return ( obj ) -> {
+            
+            try {
+                return isStatic ? factory.invoke() : factory.invoke( obj );
+            } catch ( Throwable e ) {
+                throw rethrow( e );
+            }
+            
+        };
+        
+    }
+    
+    /**
+     * Determines if the given class can be seen from the class loader of this library, so that
+     * generated classes can refer to it.
+     *
+     * @param c The class.
+     * @return true if it is visible, false otherwise.
+     */
+    private static boolean isVisible( Class<?> c ) {
+        
+        try {
+            return Class.forName( c.getName(), false, Invokers.class.getClassLoader() ) == c;
+        } catch ( ClassNotFoundException e ) {
+            return false;
+        }
+        
+    }
+    
+    /**
+     * Binds a method handle to the given object (if not static) and adapts it to the given type,
+     * so it can be called with {@link MethodHandle#invokeExact(Object...) invokeExact}.
+     *
+     * @param handle The method handle.
+     * @param obj The object to bind to, or null if the method is static.
+     * @param returnType The return type to adapt to.
+     * @param parameterTypes The parameter types to adapt to.
+     * @return The adapted handle.
+     */
+    private static MethodHandle bind( MethodHandle handle, Object obj, Class<?> returnType,
+            Class<?>... parameterTypes ) {
+        
+        MethodHandle bound = ( obj == null ) ? handle : handle.bindTo( obj );
+        return bound.asType( MethodType.methodType( returnType, parameterTypes ) );
+        
+    }
+    
+    /**
+     * Obtains the exception to throw when a method throws the given exception.
+     * <p>
+     * Unchecked exceptions and errors are thrown directly, and checked exceptions
+     * are wrapped in a RuntimeException that is returned.
+     *
+     * @param e The exception thrown by the method.
+     * @return The RuntimeException to throw.
+     */
+    private static RuntimeException rethrow( Throwable e ) {
+        
+        if ( e instanceof RuntimeException ) {
+            throw (RuntimeException) e;
+        }
+        if ( e instanceof Error ) {
+            throw (Error) e;
+        }
+        return new RuntimeException( "Unexpected checked exception.", e );
+        
+    }
+    
+}
@@ -27,7 +27,9 @@ import java.lang.annotation.Target;
 
 import com.github.thiagotgm.modular_commands.api.ICommand;
 import com.github.thiagotgm.modular_commands.api.CommandContext;
+import com.github.thiagotgm.modular_commands.api.Cooldown;
 import com.github.thiagotgm.modular_commands.api.FailureReason;
+import com.github.thiagotgm.modular_commands.api.RateLimit;
 import com.github.thiagotgm.modular_commands.command.CommandBuilder;
 
 import sx.blah.discord.handle.obj.Permissions;
@@ -291,5 +293,29 @@ public @interface MainCommand {
      * @see ICommand#getPriority()
      */
     int priority() default 0;
+    
+    /**
+     * Retrieves the rate limit of the command, in the form <tt>permits/period [per scope]</tt>
+     * (eg <tt>"5/10s per user"</tt>).
+     * <p>
+     * By default, returns an empty string (no rate limit).
+     *
+     * @return The rate limit of the command, or an empty string if none.
+     * @see ICommand#getRateLimit()
+     * @see RateLimit
+     */
+    String rateLimit() default "";
+    
+    /**
+     * Retrieves the cooldown of the command, in the form <tt>duration [per scope]</tt>
+     * (eg <tt>"30s per user"</tt>).
+     * <p>
+     * By default, returns an empty string (no cooldown).
+     *
+     * @return The cooldown of the command, or an empty string if none.
+     * @see ICommand#getCooldown()
+     * @see Cooldown
+     */
+    String cooldown() default "";
 
 }
@@ -0,0 +1,374 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.executor;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.thiagotgm.modular_commands.api.CommandExecutor;
+
+import sx.blah.discord.handle.impl.events.guild.channel.message.MessageReceivedEvent;
+
+/**
+ * Command executor that runs tasks in a fixed-size pool of threads, while guaranteeing that
+ * tasks triggered in the same guild (or channel, depending on the {@link Scope}) are executed
+ * one at a time, in the order they were submitted.
+ * <p>
+ * Tasks from different guilds/channels run in parallel. Each guild/channel only occupies one
+ * thread at a time, and gives it up after each task, so a guild with many queued tasks (or a
+ * slow command) cannot starve the others.
+ * <p>
+ * The total amount of tasks waiting for execution is bounded. Tasks submitted while the executor
+ * is at capacity are rejected.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-21
+ */
+public class OrderedCommandExecutor implements CommandExecutor {
+    
+    /** Default maximum amount of tasks waiting for execution. */
+    public static final int DEFAULT_CAPACITY = 1000;
+    
+    private static final Logger LOG = LoggerFactory.getLogger( OrderedCommandExecutor.class );
+    
+    private static final AtomicInteger poolCount = new AtomicInteger();
+    
+    /**
+     * The scopes in which the execution order of tasks can be kept.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2017-09-21
+     */
+    public enum Scope {
+        
+        /**
+         * Tasks triggered in the same guild are executed in order. Tasks triggered in private
+         * channels are ordered by channel.
+         */
+        GUILD,
+        
+        /** Tasks triggered in the same channel are executed in order. */
+        CHANNEL
+        
+    }
+    
+    private final int parallelism;
+    private final int capacity;
+    private final Scope scope;
+    private final ExecutorService pool;
+    private final ConcurrentHashMap<Long, SerialQueue> queues;
+    private final AtomicInteger queued;
+    private final LongAdder completed;
+    private final LongAdder rejected;
+    
+    /**
+     * Creates an executor with one thread for each available processor, the
+     * {@link #DEFAULT_CAPACITY default capacity}, and that keeps order by guild.
+     */
+    public OrderedCommandExecutor() {
+        
+        this( Runtime.getRuntime().availableProcessors(), DEFAULT_CAPACITY, Scope.GUILD );
+        
+    }
+    
+    /**
+     * Creates an executor with the given settings.
+     *
+     * @param parallelism The amount of threads that execute tasks.
+     * @param capacity The maximum amount of tasks that may be waiting for execution.
+     * @param scope The scope in which task order is kept.
+     * @throws IllegalArgumentException if the parallelism or capacity is not positive.
+     * @throws NullPointerException if the scope is null.
+     */
+    public OrderedCommandExecutor( int parallelism, int capacity, Scope scope )
+            throws IllegalArgumentException, NullPointerException {
+        
+        if ( parallelism < 1 ) {
+            throw new IllegalArgumentException( "Parallelism must be positive." );
+        }
+        if ( capacity < 1 ) {
+            throw new IllegalArgumentException( "Capacity must be positive." );
+        }
+        if ( scope == null ) {
+            throw new NullPointerException( "Scope cannot be null." );
+        }
+        
+        this.parallelism = parallelism;
+        this.capacity = capacity;
+        this.scope = scope;
+        
+        final String poolName = "Command Executor " + poolCount.incrementAndGet();
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor( parallelism, parallelism, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), ( r ) -> {
+                    
+                    Thread thread = new Thread( r, poolName + " - Worker " + threadCount.incrementAndGet() );
+                    thread.setDaemon( true );
+                    return thread;
+                    
+                });
+        this.queues = new ConcurrentHashMap<>();
+        this.queued = new AtomicInteger();
+        this.completed = new LongAdder();
+        this.rejected = new LongAdder();
+        
+    }
+    
+    /**
+     * Determines the key that identifies the order that a task triggered by the given
+     * event should be executed in.
+     *
+     * @param event The triggering event.
+     * @return The ordering key.
+     */
+    private long getKey( MessageReceivedEvent event ) {
+        
+        if ( ( scope == Scope.GUILD ) && ( event.getGuild() != null ) ) {
+            return event.getGuild().getLongID();
+        } else {
+            return event.getChannel().getLongID();
+        }
+        
+    }
+    
+    @Override
+    public void execute( MessageReceivedEvent event, Runnable task )
+            throws NullPointerException, RejectedExecutionException {
+        
+        if ( ( event == null ) || ( task == null ) ) {
+            throw new NullPointerException( "Arguments cannot be null." );
+        }
+        if ( pool.isShutdown() ) {
+            rejected.increment();
+            throw new RejectedExecutionException( "Executor was shut down." );
+        }
+        
+        int current;
+        do { // Reserve a spot.
+            
+            current = queued.get();
+            if ( current >= capacity ) {
+                rejected.increment();
+                throw new RejectedExecutionException( "Executor is at full capacity." );
+            }
+            
+        } while ( !queued.compareAndSet( current, current + 1 ) );
+        
+        final boolean[] created = new boolean[ 1 ];
+        SerialQueue queue = queues.compute( getKey( event ), ( key, q ) -> {
+            
+            if ( q == null ) { // No tasks running for this key.
+                q = new SerialQueue( key );
+                created[0] = true;
+            }
+            q.tasks.add( task );
+            return q;
+            
+        });
+        if ( created[0] ) { // Start draining the new queue.
+            schedule( queue );
+        }
+        
+    }
+    
+    /**
+     * Schedules the given queue to have its next task executed by the pool.
+     *
+     * @param queue The queue to execute.
+     */
+    private void schedule( SerialQueue queue ) {
+        
+        try {
+            pool.execute( queue );
+        } catch ( RejectedExecutionException e ) { // Pool was terminated.
+            LOG.error( "Could not schedule command tasks.", e );
+            queues.computeIfPresent( queue.key, ( k, q ) -> {
+                
+                rejected.add( q.tasks.size() );
+                queued.addAndGet( -q.tasks.size() );
+                return null; // Drop the tasks.
+                
+            });
+        }
+        
+    }
+    
+    /**
+     * Retrieves the amount of threads used to execute tasks.
+     *
+     * @return The parallelism.
+     */
+    public int getParallelism() {
+        
+        return parallelism;
+        
+    }
+    
+    /**
+     * Retrieves the maximum amount of tasks that may be waiting for execution.
+     *
+     * @return The capacity.
+     */
+    public int getCapacity() {
+        
+        return capacity;
+        
+    }
+    
+    /**
+     * Retrieves the scope in which task order is kept.
+     *
+     * @return The scope.
+     */
+    public Scope getScope() {
+        
+        return scope;
+        
+    }
+    
+    @Override
+    public int getQueueDepth() {
+        
+        return queued.get();
+        
+    }
+    
+    /**
+     * Retrieves the amount of guilds/channels (depending on the scope) that currently have
+     * tasks running or waiting for execution.
+     *
+     * @return The amount of active guilds/channels.
+     */
+    public int getActiveQueues() {
+        
+        return queues.size();
+        
+    }
+    
+    /**
+     * Retrieves the amount of tasks that were executed.
+     *
+     * @return The amount of completed tasks.
+     */
+    public long getCompletedCount() {
+        
+        return completed.sum();
+        
+    }
+    
+    /**
+     * Retrieves the amount of tasks that were rejected.
+     *
+     * @return The amount of rejected tasks.
+     */
+    public long getRejectedCount() {
+        
+        return rejected.sum();
+        
+    }
+    
+    @Override
+    public void shutdown() {
+        
+        pool.shutdown();
+        
+    }
+    
+    /**
+     * Tasks waiting for execution for a particular guild/channel.
+     * <p>
+     * Each time it is run, executes the next task, then gives the thread back to the pool,
+     * rescheduling itself if there are more tasks left. The queue is rescheduled (or removed)
+     * even if the task throws an {@link Error}, so later tasks for the same guild/channel are
+     * not stalled.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2017-09-21
+     */
+    private class SerialQueue implements Runnable {
+        
+        private final long key;
+        /** Tasks not yet executed. Only accessed within the queue map's lock for the key. */
+        private final Queue<Runnable> tasks;
+        
+        /**
+         * Creates a new queue for the given key.
+         *
+         * @param key The ordering key.
+         */
+        public SerialQueue( long key ) {
+            
+            this.key = key;
+            this.tasks = new ArrayDeque<>();
+            
+        }
+        
+        @Override
+        public void run() {
+            
+            boolean hasNext = false;
+            try {
+                do { // If the pool was shut down, finishes the queue in this thread instead.
+                    
+                    final Runnable[] next = new Runnable[ 1 ];
+                    queues.computeIfPresent( key, ( k, q ) -> {
+                        
+                        next[0] = q.tasks.poll();
+                        return q;
+                        
+                    });
+                    queued.decrementAndGet();
+                    try {
+                        next[0].run();
+                    } catch ( RuntimeException e ) {
+                        LOG.error( "Unexpected exception thrown by command task.", e );
+                    } finally { // Errors are propagated, but the task still counts as done.
+                        completed.increment();
+                        hasNext = queues.computeIfPresent( key, ( k, q ) -> {
+                            
+                            return q.tasks.isEmpty() ? null : q; // Remove if no tasks left.
+                            
+                        }) != null;
+                    }
+                    
+                } while ( hasNext && pool.isShutdown() );
+            } finally {
+                if ( hasNext ) { // Give the thread to the next queue.
+                    schedule( this );
+                }
+            }
+            
+        }
+        
+    }
+    
+}
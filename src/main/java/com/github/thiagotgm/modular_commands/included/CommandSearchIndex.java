@@ -0,0 +1,249 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.included;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import com.github.thiagotgm.modular_commands.api.ICommand;
+
+/**
+ * Inverted index over the names, aliases, descriptions, and usages of commands, used to
+ * search for commands by keywords.
+ * <p>
+ * Text is split into lowercase terms (sequences of letters and digits). A search term
+ * matches any indexed term that starts with it, and a command only matches a search if
+ * it matches every search term. Matches are ranked by how relevant the fields where the
+ * terms were found are (name, then aliases, then description, then usage), with exact
+ * term matches ranking higher than prefix matches.
+ * <p>
+ * Commands are added and removed individually, so the index can be kept up to date as
+ * commands change without being rebuilt.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-25
+ */
+final class CommandSearchIndex {
+    
+    private static final Pattern SEPARATOR = Pattern.compile( "[^\\p{L}\\p{N}]+" );
+    
+    private static final int NAME_WEIGHT = 8;
+    private static final int ALIAS_WEIGHT = 6;
+    private static final int DESCRIPTION_WEIGHT = 2;
+    private static final int USAGE_WEIGHT = 1;
+    /** Multiplier of the weight of a term that is matched exactly. */
+    private static final int EXACT_MULTIPLIER = 2;
+    
+    /** Indexed terms of each command, with their weights. */
+    private final Map<ICommand, Map<String, Integer>> documents;
+    /** Commands that have each term, with the weight of the term in the command. */
+    private final NavigableMap<String, Map<ICommand, Integer>> postings;
+    
+    /**
+     * Creates an empty index.
+     */
+    CommandSearchIndex() {
+        
+        this.documents = new HashMap<>();
+        this.postings = new TreeMap<>();
+        
+    }
+    
+    /**
+     * Splits a text into search terms.
+     *
+     * @param text The text to split.
+     * @return The lowercase terms in the text, in order.
+     */
+    static List<String> tokenize( String text ) {
+        
+        List<String> terms = new ArrayList<>();
+        for ( String term : SEPARATOR.split( text.toLowerCase( Locale.ROOT ) ) ) {
+            
+            if ( !term.isEmpty() ) {
+                terms.add( term );
+            }
+            
+        }
+        return terms;
+        
+    }
+    
+    /**
+     * Adds the terms in a text to the terms of a command.
+     *
+     * @param terms The terms of the command.
+     * @param text The text to add.
+     * @param weight The weight of the field that the text is from.
+     */
+    private static void addTerms( Map<String, Integer> terms, String text, int weight ) {
+        
+        if ( text == null ) {
+            return; // Nothing to add.
+        }
+        for ( String term : tokenize( text ) ) {
+            
+            terms.merge( term, weight, Math::max ); // Keep the most relevant field.
+            
+        }
+        
+    }
+    
+    /**
+     * Adds a command to the index. If it was already indexed, it is re-indexed.
+     *
+     * @param command The command to add.
+     */
+    synchronized void add( ICommand command ) {
+        
+        remove( command );
+        Map<String, Integer> terms = new HashMap<>();
+        addTerms( terms, command.getName(), NAME_WEIGHT );
+        for ( String alias : command.getAliases() ) {
+            
+            addTerms( terms, alias, ALIAS_WEIGHT );
+            
+        }
+        addTerms( terms, command.getDescription(), DESCRIPTION_WEIGHT );
+        addTerms( terms, command.getUsage(), USAGE_WEIGHT );
+        
+        documents.put( command, terms );
+        for ( Map.Entry<String, Integer> term : terms.entrySet() ) {
+            
+            postings.computeIfAbsent( term.getKey(), ( t ) -> new HashMap<>() )
+                    .put( command, term.getValue() );
+            
+        }
+        
+    }
+    
+    /**
+     * Removes a command from the index, if it is indexed.
+     *
+     * @param command The command to remove.
+     */
+    synchronized void remove( ICommand command ) {
+        
+        Map<String, Integer> terms = documents.remove( command );
+        if ( terms == null ) {
+            return; // Not indexed.
+        }
+        for ( String term : terms.keySet() ) {
+            
+            Map<ICommand, Integer> commands = postings.get( term );
+            commands.remove( command );
+            if ( commands.isEmpty() ) {
+                postings.remove( term );
+            }
+            
+        }
+        
+    }
+    
+    /**
+     * Removes all commands from the index.
+     */
+    synchronized void clear() {
+        
+        documents.clear();
+        postings.clear();
+        
+    }
+    
+    /**
+     * Searches for the commands that match the given search terms.
+     *
+     * @param query The search terms.
+     * @param filter Only commands that pass this filter are included in the results. It is
+     *               applied before limiting the amount of results.
+     * @param maxResults The maximum amount of results.
+     * @return The matching commands, from most to least relevant. If there are no
+     *         search terms, the list is empty.
+     */
+    synchronized List<ICommand> search( String query, Predicate<ICommand> filter, int maxResults ) {
+        
+        List<String> queryTerms = tokenize( query );
+        if ( queryTerms.isEmpty() ) {
+            return Collections.emptyList(); // Nothing to search for.
+        }
+        
+        Map<ICommand, Integer> scores = null;
+        for ( String queryTerm : queryTerms ) { // Score each search term.
+            
+            Map<ICommand, Integer> termScores = new HashMap<>();
+            for ( Map.Entry<String, Map<ICommand, Integer>> term :
+                    postings.subMap( queryTerm, true, queryTerm + Character.MAX_VALUE, false ).entrySet() ) {
+                // Each indexed term that starts with the search term.
+                int multiplier = term.getKey().equals( queryTerm ) ? EXACT_MULTIPLIER : 1;
+                for ( Map.Entry<ICommand, Integer> match : term.getValue().entrySet() ) {
+                    
+                    termScores.merge( match.getKey(), match.getValue() * multiplier, Math::max );
+                    
+                }
+                
+            }
+            if ( scores == null ) { // First term.
+                scores = termScores;
+            } else { // Only keep commands that match all terms so far.
+                scores.keySet().retainAll( termScores.keySet() );
+                for ( Map.Entry<ICommand, Integer> score : scores.entrySet() ) {
+                    
+                    score.setValue( score.getValue() + termScores.get( score.getKey() ) );
+                    
+                }
+            }
+            if ( scores.isEmpty() ) {
+                return Collections.emptyList(); // No command matches all terms.
+            }
+            
+        }
+        
+        final Map<ICommand, Integer> finalScores = scores;
+        List<ICommand> results = new ArrayList<>( scores.keySet() );
+        results.removeIf( filter.negate() );
+        results.sort( ( c1, c2 ) -> { // Highest score first, ties broken by name.
+            
+            int comp = finalScores.get( c2 ).compareTo( finalScores.get( c1 ) );
+            return ( comp != 0 ) ? comp : c1.getName().compareTo( c2.getName() );
+            
+        });
+        return ( results.size() > maxResults ) ? results.subList( 0, maxResults ) : results;
+        
+    }
+    
+    /**
+     * Retrieves the amount of commands in the index.
+     *
+     * @return The amount of indexed commands.
+     */
+    synchronized int size() {
+        
+        return documents.size();
+        
+    }
+    
+}
@@ -18,15 +18,22 @@
 package com.github.thiagotgm.modular_commands.included;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.Stack;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -36,9 +43,12 @@ import org.slf4j.LoggerFactory;
 import com.github.thiagotgm.modular_commands.api.CommandContext;
 import com.github.thiagotgm.modular_commands.api.CommandRegistry;
 import com.github.thiagotgm.modular_commands.api.ICommand;
+import com.github.thiagotgm.modular_commands.api.RegistryEvent;
+import com.github.thiagotgm.modular_commands.api.RegistryListener;
 import com.github.thiagotgm.modular_commands.command.annotation.MainCommand;
 import com.github.thiagotgm.modular_commands.command.annotation.SubCommand;
 import com.github.thiagotgm.modular_commands.registry.ClientCommandRegistry;
+import com.github.thiagotgm.modular_commands.registry.PlaceholderCommandRegistry;
 
 import sx.blah.discord.api.IDiscordClient;
 import sx.blah.discord.handle.obj.IMessage;
@@ -60,6 +70,7 @@ public class HelpCommand {
     private static final String REGISTRY_LIST_SUBCOMMAND_NAME = "Registry List";
     private static final String REGISTRY_DETAILS_SUBCOMMAND_NAME = "Registry Details";
     private static final String PUBLIC_HELP_SUBCOMMAND_NAME = "Public Default Help Command";
+    private static final String SEARCH_SUBCOMMAND_NAME = "Command Search";
     
     private static final String BLOCK_PREFIX = "```\n";
     private static final String BLOCK_SUFFIX = "```";
@@ -71,16 +82,41 @@ public class HelpCommand {
     private static final String SUBREGISTRY_PATH_DELIMITER = "::";
     private static final String COMMAND_TITLE = "[COMMAND DETAILS]\n";
     private static final String REGISTRY_TITLE = "[REGISTRY DETAILS]\n";
+    private static final String SEARCH_TITLE = "[SEARCH RESULTS]\n";
     private static final String DISABLED_TAG = "[DISABLED] ";
     
     private static final String EMPTY_REGISTRY = "<no commands>\n";
+    private static final String NO_RESULTS = "<no matching commands>\n";
+    
+    /** Maximum amount of commands listed in search results. */
+    private static final int MAX_SEARCH_RESULTS = 25;
+    
+    /** Key of the page with the list of all commands. */
+    private static final Object COMMAND_LIST_PAGE = "Command List";
+    /** Key of the page with the commands of each registry. */
+    private static final Object REGISTRY_LIST_PAGE = "Registry List";
     
     private static final Pattern DESCRIPTION_PATTERN =
             Pattern.compile( "\\s*(.*?)\\s*(?:\\n\\s*(.*?)\\s*)?", Pattern.DOTALL );
     
     private ClientCommandRegistry registry;
-    private volatile long lastUpdated;
-    private Map<ICommand, List<String>> buffer;
+    private final RegistryListener listener;
+    /** Callable signatures of each command in the registry. Replaced (never modified) on updates. */
+    private volatile Map<ICommand, List<String>> buffer;
+    /** Incremented whenever the buffer is replaced. */
+    private volatile long bufferVersion;
+    /** Rendered help pages. Discarded when out of date. */
+    private final AtomicReference<PageCache> pages;
+    /** Commands whose signatures may have changed since the last update. */
+    private Set<ICommand> pending;
+    private final Object pendingLock;
+    /* Only used while updating the buffer */
+    /** All the signatures of each buffered command, callable or not. */
+    private final Map<ICommand, List<String>> signatures;
+    /** The buffered commands that have each signature. */
+    private final Map<String, Set<ICommand>> signatureOwners;
+    /** Index of the buffered commands, for searching. */
+    private final CommandSearchIndex searchIndex;
 
     /**
      * Constructs a new instance.
@@ -88,54 +124,161 @@ public class HelpCommand {
     public HelpCommand() {
         
         this.registry = null;
-        this.lastUpdated = 0;
+        this.listener = this::onRegistryChange;
+        this.buffer = Collections.emptyMap();
+        this.bufferVersion = 0;
+        this.pages = new AtomicReference<>();
+        this.pending = new HashSet<>();
+        this.pendingLock = new Object();
+        this.signatures = new HashMap<>();
+        this.signatureOwners = new HashMap<>();
+        this.searchIndex = new CommandSearchIndex();
         
     }
     
     /**
-     * Builds the command-signature buffer to reflect the current state of the registry.
+     * Records the commands whose signatures may have been affected by a change to the
+     * registry, so that they are updated in the buffer before it is used again.
+     *
+     * @param event The change to the registry.
      */
-    private void bufferCommandList() {
+    private void onRegistryChange( RegistryEvent event ) {
         
-        LOG.info( "Buffering command aliases." );
-        buffer = new HashMap<>(); // Initialize new buffer.
-        bufferRegistry( registry ); // Start buffering from the root registry.
-        lastUpdated = System.currentTimeMillis(); // Record update time.
-        LOG.info( "Buffering finished." );
+        Collection<ICommand> changed;
+        switch ( event.getType() ) {
+            
+            case COMMAND_REGISTERED:
+            case COMMAND_UNREGISTERED:
+                changed = Collections.singleton( event.getCommand() );
+                break;
+            
+            case SUBREGISTRY_ADDED:
+            case SUBREGISTRY_REMOVED: // Every command in the subregistry was added/removed.
+                changed = event.getSubRegistry().getCommands();
+                break;
+            
+            case PREFIX_CHANGED: // Every command under the registry may have a new prefix.
+                changed = event.getRegistry().getCommands();
+                break;
+            
+            default:
+                return; // Does not change signatures.
+            
+        }
+        synchronized ( pendingLock ) {
+            pending.addAll( changed );
+        }
         
     }
     
     /**
-     * Buffers the commands from a given registry and its subregistries.
+     * Updates the buffer with the current state of the given commands.
+     * <p>
+     * A change to a command can only change which command a signature resolves to if the
+     * command has (or had) that signature, so only the commands that share a signature
+     * with one of the given commands are checked again.
      *
-     * @param registry The registry to get commands from.
+     * @param changed The commands that may have changed.
      */
-    private void bufferRegistry( CommandRegistry registry ) {
+    private void updateBuffer( Set<ICommand> changed ) {
+        
+        LOG.debug( "Updating buffer of {} commands.", changed.size() );
+        
+        /* Update the signatures of the changed commands */
+        Set<String> affected = new HashSet<>();
+        for ( ICommand command : changed ) {
+            
+            List<String> old = signatures.remove( command );
+            if ( old != null ) { // Was buffered. Forget its old signatures.
+                for ( String signature : old ) {
+                    
+                    Set<ICommand> owners = signatureOwners.get( signature );
+                    owners.remove( command );
+                    if ( owners.isEmpty() ) {
+                        signatureOwners.remove( signature );
+                    }
+                    
+                }
+                affected.addAll( old );
+            }
+            if ( isListed( command ) ) { // Record current signatures.
+                List<String> current = command.getSignatures();
+                signatures.put( command, current );
+                for ( String signature : current ) {
+                    
+                    signatureOwners.computeIfAbsent( signature, ( s ) -> new HashSet<>() ).add( command );
+                    
+                }
+                affected.addAll( current );
+                searchIndex.add( command );
+            } else {
+                searchIndex.remove( command );
+            }
+            
+        }
         
-        for ( ICommand command : registry.getCommands() ) { // Check each command in the 
+        /* Recheck every command that has an affected signature */
+        Set<ICommand> toCheck = new HashSet<>( changed );
+        for ( String signature : affected ) {
+            
+            Set<ICommand> owners = signatureOwners.get( signature );
+            if ( owners != null ) {
+                toCheck.addAll( owners );
+            }
+            
+        }
+        Map<String, ICommand> resolved = new HashMap<>(); // Each signature is only parsed once.
+        Map<ICommand, List<String>> newBuffer = new HashMap<>( buffer );
+        for ( ICommand command : toCheck ) {
             
-            List<String> signatures = new ArrayList<>( command.getAliases().size() );
-            for ( String signature : command.getSignatures() ) { // Check each of the command
-                                                                 // signatures.
-                if ( this.registry.parseCommand( signature, false ) == command ) {
-                    signatures.add( signature ); // Signature is callable. Record it.
+            List<String> all = signatures.get( command );
+            if ( all == null ) {
+                newBuffer.remove( command ); // No longer in the registry.
+                continue;
+            }
+            List<String> callable = new ArrayList<>( all.size() );
+            for ( String signature : all ) { // Check each of the command signatures.
+                
+                ICommand target = resolved.computeIfAbsent( signature,
+                        ( s ) -> registry.parseCommand( s, false ) );
+                if ( target == command ) {
+                    callable.add( signature ); // Signature is callable. Record it.
                 }
                 
             }
-            buffer.put( command, signatures ); // Store valid signatures in buffer.
+            newBuffer.put( command, Collections.unmodifiableList( callable ) );
             
         }
+        buffer = Collections.unmodifiableMap( newBuffer ); // Publish.
+        bufferVersion++; // Rendered pages are out of date.
         
-        for ( CommandRegistry subRegistry : registry.getSubRegistries() ) {
+    }
+    
+    /**
+     * Determines whether a command is part of the current registry hierarchy (registered
+     * to the root registry or to a subregistry that is not under a placeholder).
+     *
+     * @param command The command to check.
+     * @return true if the command is part of the hierarchy, false otherwise.
+     */
+    private boolean isListed( ICommand command ) {
+        
+        for ( CommandRegistry cur = command.getRegistry(); cur != null; cur = cur.getRegistry() ) {
             
-            bufferRegistry( subRegistry ); // Buffer subregistries.
+            if ( cur == registry ) {
+                return true;
+            }
+            if ( cur instanceof PlaceholderCommandRegistry ) {
+                return false; // Placeholders are not part of the hierarchy.
+            }
             
         }
+        return false;
         
     }
     
     /**
-     * Checks if the current buffer is up-to-date, and rebuilds it if it is not.
+     * Checks if the current buffer is up-to-date, and updates it if it is not.
      * <p>
      * After the call to this method, the buffer will reflect the current state of the
      * registry the command is registered to.
@@ -144,11 +287,31 @@ public class HelpCommand {
      */
     private synchronized void ensureUpdatedBuffer( ClientCommandRegistry curRegistry ) {
         
-        if ( ( registry != curRegistry ) || // Registry updated or changed registries
-             ( registry.getLastChanged() > lastUpdated ) ) { // since last buffer was made.
+        if ( registry != curRegistry ) { // Changed registries. Listen to the new one.
+            LOG.info( "Buffering command aliases." );
+            if ( registry != null ) {
+                registry.removeListener( listener );
+            }
             registry = curRegistry;
-            bufferCommandList(); // Update buffer.
+            signatures.clear();
+            signatureOwners.clear();
+            searchIndex.clear();
+            buffer = Collections.emptyMap();
+            bufferVersion++;
+            curRegistry.addListener( listener );
+            synchronized ( pendingLock ) { // Everything needs to be buffered.
+                pending = new HashSet<>( curRegistry.getCommands() );
+            }
         }
+        Set<ICommand> changed;
+        synchronized ( pendingLock ) {
+            if ( pending.isEmpty() ) {
+                return; // Up to date.
+            }
+            changed = pending;
+            pending = new HashSet<>();
+        }
+        updateBuffer( changed );
         
     }
     
@@ -203,8 +366,8 @@ public class HelpCommand {
     private String formatCommandShort( ICommand command ) {
         
         List<String> signatureList = buffer.get( command );
-        if ( signatureList.isEmpty() ) {
-            return null; // Command has no callable signatures.
+        if ( ( signatureList == null ) || signatureList.isEmpty() ) {
+            return null; // Command has no callable signatures (or was not buffered yet).
         }
         String signatures = signatureList.toString(); // Get signature list.
         StringBuilder builder = new StringBuilder();
@@ -258,7 +421,7 @@ public class HelpCommand {
                 
             }
         } else {
-            List<String> signatureList = buffer.get( command );
+            List<String> signatureList = buffer.getOrDefault( command, Collections.emptyList() );
             int prefixSize = effectivePrefix.length();
             for ( String signature : signatureList ) {
                 // Get each callable alias.
@@ -411,12 +574,31 @@ public class HelpCommand {
             }
             
         }
+        return splitBlocks( commandStrings, firstBlockReduction, EMPTY_REGISTRY );
         
-        /* Adds all formatted commands into different lines */
+    }
+    
+    /**
+     * Splits lines into blocks, keeping their order.
+     * <p>
+     * All blocks are small enough to fit into a single message with the {@link #BLOCK_PREFIX} and
+     * {@link #BLOCK_SUFFIX}. If the first block needs to be smaller, the reduction to its maximum
+     * size can be specified.
+     *
+     * @param lines The lines to split.
+     * @param firstBlockReduction How much the maximum size of the first block is smaller than the
+     *                            normal block size.
+     * @param empty The block to use if there are no lines.
+     * @return The lines split in blocks.
+     */
+    private static List<String> splitBlocks( Collection<String> lines, int firstBlockReduction,
+            String empty ) {
+        
+        /* Adds all lines into different blocks */
         List<String> blocks = new ArrayList<>();
         StringBuilder builder = new StringBuilder();
         int maxBlockLength = BLOCK_SIZE - firstBlockReduction;
-        for ( String commandString : commandStrings ) {
+        for ( String commandString : lines ) {
             
             if ( ( builder.length() + commandString.length() + 1 ) > maxBlockLength ) {
                 // Reached max block length.
@@ -435,7 +617,7 @@ public class HelpCommand {
         }
         
         if ( blocks.isEmpty() ) {
-            blocks.add( EMPTY_REGISTRY ); // Ensure at least one block.
+            blocks.add( empty ); // Ensure at least one block.
         }
         
         return blocks;
@@ -455,33 +637,15 @@ public class HelpCommand {
             priority = Integer.MAX_VALUE,
             canModifySubCommands = false,
             subCommands = { REGISTRY_LIST_SUBCOMMAND_NAME, REGISTRY_DETAILS_SUBCOMMAND_NAME, 
-                    PUBLIC_HELP_SUBCOMMAND_NAME }
+                    SEARCH_SUBCOMMAND_NAME, PUBLIC_HELP_SUBCOMMAND_NAME }
             )
     public boolean helpCommand( CommandContext context ) {
         
         update( context );
         
+        List<String> messages;
         if ( context.getArgs().isEmpty() ) { // No command specified.
-            RequestBuilder request = new RequestBuilder( this.registry.getClient() )
-                    .shouldBufferRequests( true );
-            List<String> blocks = formatCommandList( registry.getCommands(), LIST_TITLE.length() );
-            MessageBuilder builder = context.getReplyBuilder();
-            final String first = BLOCK_PREFIX + LIST_TITLE + blocks.get( 0 ) + BLOCK_SUFFIX;
-            request.doAction( () -> {
-                builder.withContent( first ).build();
-                return true;
-            });
-            for ( int i = 1; i < blocks.size(); i++ ) {
-                
-                final String next = BLOCK_PREFIX + blocks.get( i ) + BLOCK_SUFFIX;
-                request.andThen( () -> {
-                    builder.withContent( next ).build();
-                    return true;
-                });
-                builder.withContent( next ).build();
-                
-            }
-            request.execute();
+            messages = getPage( COMMAND_LIST_PAGE, this::renderCommandList );
         } else { // A command was specified.
             Iterator<String> args = context.getArgs().iterator();
             ICommand command = registry.parseCommand( args.next(), false );
@@ -500,13 +664,16 @@ public class HelpCommand {
                 }
                 
             }
-            MessageBuilder builder = context.getReplyBuilder();
-            builder.withContent( BLOCK_PREFIX );
-            builder.appendContent( COMMAND_TITLE );
-            builder.appendContent( formatCommandLong( command, parent, mainCommand ) );
-            builder.appendContent( BLOCK_SUFFIX );
-            builder.build(); // Send message.
+            final ICommand target = command;
+            final ICommand targetParent = parent;
+            messages = getPage( Arrays.asList( mainCommand, parent, command ), () -> {
+                
+                return Collections.singletonList( BLOCK_PREFIX + COMMAND_TITLE +
+                        formatCommandLong( target, targetParent, mainCommand ) + BLOCK_SUFFIX );
+                
+            });
         }
+        send( context.getReplyBuilder(), messages );
         
         return true;
         
@@ -552,12 +719,13 @@ public class HelpCommand {
         }
         
         /* Send details */
-        MessageBuilder builder = context.getReplyBuilder();
-        builder.withContent( BLOCK_PREFIX );
-        builder.appendContent( REGISTRY_TITLE );
-        builder.appendContent( formatRegistry( target ) );
-        builder.appendContent( BLOCK_SUFFIX );
-        builder.build(); // Send message.
+        final CommandRegistry details = target;
+        send( context.getReplyBuilder(), getPage( details, () -> {
+            
+            return Collections.singletonList( BLOCK_PREFIX + REGISTRY_TITLE +
+                    formatRegistry( details ) + BLOCK_SUFFIX );
+            
+        }));
         
         return true;
         
@@ -578,16 +746,58 @@ public class HelpCommand {
         
         update( context );
         
+        send( context.getReplyBuilder(), getPage( REGISTRY_LIST_PAGE, this::renderRegistryList ) );
+        
+    }
+    
+    /**
+     * Renders the list of all the commands in the registry.
+     *
+     * @return The messages that make up the list.
+     */
+    private List<String> renderCommandList() {
+        
+        return toMessages( LIST_TITLE,
+                formatCommandList( registry.getCommands(), LIST_TITLE.length() ) );
+        
+    }
+    
+    /**
+     * Makes the messages that display the given blocks, with a title before the first block.
+     *
+     * @param title The title.
+     * @param blocks The blocks to display.
+     * @return The messages.
+     */
+    private static List<String> toMessages( String title, List<String> blocks ) {
+        
+        List<String> messages = new ArrayList<>( blocks.size() );
+        messages.add( BLOCK_PREFIX + title + blocks.get( 0 ) + BLOCK_SUFFIX );
+        for ( int i = 1; i < blocks.size(); i++ ) {
+            
+            messages.add( BLOCK_PREFIX + blocks.get( i ) + BLOCK_SUFFIX );
+            
+        }
+        return Collections.unmodifiableList( messages );
+        
+    }
+    
+    /**
+     * Renders the list of the commands in the registry, categorized by the subregistries
+     * that they are registered in.
+     *
+     * @return The messages that make up the list.
+     */
+    private List<String> renderRegistryList() {
+        
         Stack<CommandRegistry> registries = new Stack<>();
-        registries.push( registry );
-        final MessageBuilder builder = context.getReplyBuilder();
+        registries.push( this.registry );
+        List<String> messages = new ArrayList<>();
         
         String lastBlock = "";
         while ( !registries.isEmpty() ) { // For each registry.
             
             CommandRegistry registry = registries.pop();
-            RequestBuilder request = new RequestBuilder( this.registry.getClient() )
-                    .shouldBufferRequests( true );
             
             /* Get registry path */
             List<String> pathList = new LinkedList<>();
@@ -613,12 +823,7 @@ public class HelpCommand {
                     title = lastBlock + "\n" + title; // Send it before the title.
                 } else { // No space. Send the leftover block on its own.
                     blocks = null;
-                    final String leftover = BLOCK_PREFIX + lastBlock + BLOCK_SUFFIX;;
-                    new RequestBuilder( this.registry.getClient() ).shouldBufferRequests( true )
-                            .doAction( () -> {
-                                builder.withContent( leftover ).build();
-                                return true;
-                            }).execute();
+                    messages.add( BLOCK_PREFIX + lastBlock + BLOCK_SUFFIX );
                 }
             }
             lastBlock = "";
@@ -627,22 +832,13 @@ public class HelpCommand {
                         title.length() );             // leftover and there was no space.
             }
             
-            /* Makes and sends the command list for the current registry */
+            /* Makes the command list for the current registry */
             blocks.set( 0, title + blocks.get( 0 ) ); // Add title to the first block.
-            request.doAction( () -> {
-                return true;
-            });
-            for ( int i = 0; i < blocks.size() - 1; i++ ) { // Message all blocks except the last.
+            for ( int i = 0; i < blocks.size() - 1; i++ ) { // All blocks except the last.
                 
-                final String next = BLOCK_PREFIX + blocks.get( i ) + BLOCK_SUFFIX;
-                request.andThen( () -> {
-                    builder.withContent( next ).build();
-                    return true;
-                });
-                builder.withContent( next ).build();
+                messages.add( BLOCK_PREFIX + blocks.get( i ) + BLOCK_SUFFIX );
                 
             }
-            request.execute();
             lastBlock = blocks.get( blocks.size() - 1 );
             
             for ( CommandRegistry subRegistry : registry.getSubRegistries().descendingSet() ) {
@@ -653,16 +849,125 @@ public class HelpCommand {
             
         }
         if ( !lastBlock.isEmpty() ) { // There was a block leftover.
-            final String leftover = BLOCK_PREFIX + lastBlock + BLOCK_SUFFIX;;
-            new RequestBuilder( this.registry.getClient() ).shouldBufferRequests( true )
-                    .doAction( () -> { // Print leftover block.
-                        builder.withContent( leftover ).build();
-                        return true;
-                    }).execute();
+            messages.add( BLOCK_PREFIX + lastBlock + BLOCK_SUFFIX );
+        }
+        return Collections.unmodifiableList( messages );
+        
+    }
+    
+    /**
+     * Retrieves a rendered help page, rendering it if it is not cached.
+     * <p>
+     * The cached pages are discarded whenever the buffer is updated or the
+     * {@link CommandRegistry#getGeneration() generation} of the registry or the
+     * {@link CommandRegistry#getCommandGeneration() generation of commands} changes, so a page is
+     * only rendered once between changes to the registry, no matter how many times it is requested.
+     *
+     * @param key The key that identifies the page.
+     * @param renderer Renders the page if it is not cached.
+     * @return The messages that make up the page.
+     */
+    private List<String> getPage( Object key, Supplier<List<String>> renderer ) {
+        
+        /* Read before rendering, so a page rendered from newer state is never kept past a change */
+        long version = bufferVersion;
+        ClientCommandRegistry cur = registry;
+        long generation = ( cur != null ) ? cur.getGeneration() : 0;
+        long commandGeneration = CommandRegistry.getCommandGeneration();
+        PageCache cache = pages.get();
+        while ( ( cache == null ) || ( cache.version != version ) || ( cache.generation != generation ) ||
+                ( cache.commandGeneration != commandGeneration ) ) {
+            
+            if ( ( cache != null ) && ( cache.version >= version ) && ( cache.generation >= generation ) &&
+                    ( cache.commandGeneration >= commandGeneration ) ) {
+                return renderer.get(); // Changed since read, page might be out of date, so don't cache.
+            }
+            PageCache fresh = new PageCache( version, generation, commandGeneration ); // Out of date.
+            if ( pages.compareAndSet( cache, fresh ) ) {
+                cache = fresh;
+            } else { // Another thread replaced it first, use its cache if it is up to date.
+                cache = pages.get();
+            }
+            
         }
+        return cache.pages.computeIfAbsent( key, ( k ) -> renderer.get() );
+        
+    }
+    
+    /**
+     * Sends the messages of a page, in order.
+     *
+     * @param builder The builder to send the messages with.
+     * @param messages The messages to send.
+     */
+    private void send( MessageBuilder builder, List<String> messages ) {
+        
+        if ( messages.isEmpty() ) {
+            return; // Nothing to send.
+        }
+        RequestBuilder request = new RequestBuilder( registry.getClient() )
+                .shouldBufferRequests( true );
+        final String first = messages.get( 0 );
+        request.doAction( () -> {
+            builder.withContent( first ).build();
+            return true;
+        });
+        for ( int i = 1; i < messages.size(); i++ ) {
+            
+            final String next = messages.get( i );
+            request.andThen( () -> {
+                builder.withContent( next ).build();
+                return true;
+            });
+            
+        }
+        request.execute();
         
     }
 
+    @SubCommand(
+            name = SEARCH_SUBCOMMAND_NAME,
+            aliases = { "search" },
+            description = "Searches for commands by keywords.\nDisplays the commands whose "
+                    + "name, aliases, description, or usage have words that start with each of "
+                    + "the search terms, from most to least relevant.",
+            usage = "{}help search [here] <search terms...>",
+            essential = true,
+            replyPrivately = true,
+            canModifySubCommands = false,
+            subCommands = { PUBLIC_HELP_SUBCOMMAND_NAME }
+            )
+    public boolean searchCommand( CommandContext context ) {
+        
+        if ( context.getArgs().isEmpty() ) {
+            return false; // No search terms.
+        }
+        
+        update( context );
+        
+        Map<ICommand, List<String>> callable = buffer;
+        List<ICommand> results = searchIndex.search( String.join( " ", context.getArgs() ), ( command ) -> {
+            
+            List<String> signatureList = callable.get( command ); // Only commands that can be
+            return ( signatureList != null ) && !signatureList.isEmpty(); // displayed count.
+            
+        }, MAX_SEARCH_RESULTS );
+        List<String> lines = new ArrayList<>( results.size() );
+        for ( ICommand command : results ) { // Keep the order of relevance.
+            
+            String formatted = formatCommandShort( command );
+            if ( formatted != null ) { // Include the command if it has callable signatures.
+                lines.add( formatted );
+            }
+            
+        }
+        send( context.getReplyBuilder(), toMessages( SEARCH_TITLE,
+                splitBlocks( lines, SEARCH_TITLE.length(), NO_RESULTS ) ) );
+        
+        return true;
+        
+    }
+    
     @SubCommand(
             name = PUBLIC_HELP_SUBCOMMAND_NAME,
             aliases = { "here" },
@@ -678,5 +983,41 @@ public class HelpCommand {
         // Do nothing.
         
     }
+    
+    /**
+     * Rendered help pages, valid for a certain buffer version and generations.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2017-09-25
+     */
+    private static final class PageCache {
+        
+        /** Version of the buffer the pages were rendered from. */
+        final long version;
+        /** Generation of the registry tree the pages were rendered at. */
+        final long generation;
+        /** Generation of commands the pages were rendered at. */
+        final long commandGeneration;
+        /** The rendered pages, by key. */
+        final Map<Object, List<String>> pages;
+        
+        /**
+         * Creates a new, empty cache.
+         *
+         * @param version Current version of the buffer.
+         * @param generation Current generation of the registry tree.
+         * @param commandGeneration Current generation of commands.
+         */
+        PageCache( long version, long generation, long commandGeneration ) {
+            
+            this.version = version;
+            this.generation = generation;
+            this.commandGeneration = commandGeneration;
+            this.pages = new ConcurrentHashMap<>();
+            
+        }
+        
+    }
 
 }
@@ -17,6 +17,8 @@
 
 package com.github.thiagotgm.modular_commands.registry;
 
+import java.util.Collection;
+
 import com.github.thiagotgm.modular_commands.api.CommandRegistry;
 import com.github.thiagotgm.modular_commands.api.ICommand;
 
@@ -94,5 +96,17 @@ public class PlaceholderCommandRegistry extends CommandRegistry {
         throw new UnsupportedOperationException( "A placeholder registry cannot register commands." );
         
     }
+    
+    /**
+     * Placeholder registries cannot register commands. This method throws an exception.
+     *
+     * @throws UnsupportedOperationException if called.
+     */
+    @Override
+    public void registerAllCommands( Collection<ICommand> commands ) throws UnsupportedOperationException {
+        
+        throw new UnsupportedOperationException( "A placeholder registry cannot register commands." );
+        
+    }
 
 }
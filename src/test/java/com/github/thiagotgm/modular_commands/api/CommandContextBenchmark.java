@@ -0,0 +1,196 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.api;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.github.thiagotgm.modular_commands.command.CommandBuilder;
+
+import sx.blah.discord.handle.impl.events.guild.channel.message.MessageReceivedEvent;
+import sx.blah.discord.handle.obj.IChannel;
+import sx.blah.discord.handle.obj.IGuild;
+import sx.blah.discord.handle.obj.IMessage;
+import sx.blah.discord.handle.obj.IUser;
+import sx.blah.discord.util.MessageBuilder;
+
+/**
+ * Measures what is allocated to build the {@link CommandContext} of each command dispatch,
+ * before and after the context was made lazy.
+ * <p>
+ * The <tt>eager</tt> benchmark builds the context the way it was built before: copying the
+ * argument list, reading the message, author, channel and guild into fields, and creating the
+ * reply builder. The <tt>lazy</tt> benchmark builds it the way the handler does now, and
+ * <tt>lazyWithReply</tt> also requests the reply builder, as a command that replies would.
+ * <p>
+ * Run through the main method (using the test classpath), which enables the GC profiler. Its
+ * <tt>gc.alloc.rate.norm</tt> result is the amount of bytes allocated by each dispatch.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-25
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class CommandContextBenchmark {
+    
+    /**
+     * Context built the way CommandContext was built before it was made lazy.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2017-09-25
+     */
+    private static class EagerContext {
+        
+        final ICommand command;
+        final MessageReceivedEvent event;
+        final List<String> args;
+        final IMessage message;
+        final IUser author;
+        final IChannel channel;
+        final IGuild guild;
+        final MessageBuilder replyBuilder;
+        
+        /**
+         * Builds the context.
+         *
+         * @param event The event that triggered the command.
+         * @param command The command being executed.
+         * @param args The arguments passed in to the command.
+         */
+        EagerContext( MessageReceivedEvent event, ICommand command, List<String> args ) {
+            
+            this.command = command;
+            this.event = event;
+            this.args = Collections.unmodifiableList( new ArrayList<>( args ) );
+            this.message = event.getMessage();
+            this.author = event.getAuthor();
+            this.channel = event.getChannel();
+            this.guild = event.getGuild();
+            this.replyBuilder = new MessageBuilder( event.getClient() );
+            this.replyBuilder.withChannel( this.channel ); // Command does not reply privately.
+            
+        }
+        
+    }
+    
+    private MessageReceivedEvent event;
+    private ICommand command;
+    private List<String> args;
+    
+    /**
+     * Makes a stub of the given interface whose methods return the given value if they return
+     * an object of its type, and null otherwise.
+     *
+     * @param type The interface.
+     * @param value The value to return, or null.
+     * @param <T> The type of the interface.
+     * @return The stub.
+     */
+    private static <T> T stub( Class<T> type, Object value ) {
+        
+        return type.cast( Proxy.newProxyInstance( type.getClassLoader(), new Class<?>[] { type },
+                ( proxy, method, methodArgs ) -> {
+                    
+                    if ( method.getName().equals( "hashCode" ) ) {
+                        return System.identityHashCode( proxy );
+                    }
+                    if ( method.getName().equals( "equals" ) ) {
+                        return proxy == methodArgs[0];
+                    }
+                    return method.getReturnType().isInstance( value ) ? value : null;
+                    
+                }) );
+        
+    }
+    
+    /**
+     * Creates the event and command of the dispatch.
+     */
+    @Setup
+    public void setUp() {
+        
+        IChannel channel = stub( IChannel.class, null );
+        event = new MessageReceivedEvent( stub( IMessage.class, channel ) );
+        command = new CommandBuilder( "bench" ).withAliases( new String[] { "bench" } )
+                .onExecute( ( context ) -> true ).build();
+        args = Arrays.asList( "first", "second", "third" );
+        
+    }
+    
+    @Benchmark
+    public Object eager() {
+        
+        return new EagerContext( event, command, new ArrayList<>( args ) );
+        
+    }
+    
+    @Benchmark
+    public Object lazy() {
+        
+        return new CommandContext( event, command, new ArrayList<>( args ), false );
+        
+    }
+    
+    @Benchmark
+    public Object lazyWithReply() {
+        
+        CommandContext context = new CommandContext( event, command, new ArrayList<>( args ), false );
+        context.getReplyBuilder();
+        return context;
+        
+    }
+    
+    /**
+     * Runs the benchmark with the GC profiler.
+     *
+     * @param args Ignored.
+     * @throws RunnerException if the benchmark failed.
+     */
+    public static void main( String[] args ) throws RunnerException {
+        
+        new Runner( new OptionsBuilder().include( CommandContextBenchmark.class.getName() )
+                .addProfiler( GCProfiler.class ).build() ).run();
+        
+    }
+    
+}
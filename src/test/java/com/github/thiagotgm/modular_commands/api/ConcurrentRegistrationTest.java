@@ -0,0 +1,161 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import com.github.thiagotgm.modular_commands.command.CommandBuilder;
+import com.github.thiagotgm.modular_commands.registry.ClientCommandRegistry;
+
+import sx.blah.discord.api.IDiscordClient;
+import sx.blah.discord.modules.IModule;
+
+/**
+ * Tests for registering commands into the same registry tree from multiple threads.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-25
+ */
+public class ConcurrentRegistrationTest {
+    
+    /** Number of times each race is run. */
+    private static final int ROUNDS = 200;
+    /** Number of commands registered by each thread. */
+    private static final int COMMANDS = 50;
+    
+    /**
+     * Creates a stub of the given interface, where every method other than <tt>equals</tt>,
+     * <tt>hashCode</tt>, and <tt>getName</tt> returns null.
+     *
+     * @param type The interface.
+     * @param name The value returned by <tt>getName</tt>.
+     * @param <T> The type of the interface.
+     * @return The stub.
+     */
+    private static <T> T stub( Class<T> type, String name ) {
+        
+        return type.cast( Proxy.newProxyInstance( type.getClassLoader(), new Class<?>[] { type },
+                ( proxy, method, args ) -> {
+                    
+                    switch ( method.getName() ) {
+                        
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode( proxy );
+                        case "getName":
+                            return name;
+                        default:
+                            return null;
+                        
+                    }
+                    
+                } ) );
+        
+    }
+    
+    /**
+     * Creates commands with the names <tt>command0</tt> to <tt>command<i>n</i></tt>.
+     *
+     * @return The commands.
+     */
+    private static List<ICommand> commands() {
+        
+        List<ICommand> commands = new ArrayList<>( COMMANDS );
+        for ( int i = 0; i < COMMANDS; i++ ) {
+            
+            commands.add( new CommandBuilder( "command" + i ).withAliases( new String[] { "alias" + i } )
+                    .onExecute( ( context ) -> { return true; } ).build() );
+            
+        }
+        return commands;
+        
+    }
+    
+    /**
+     * Registers the given commands into the given registry from a new thread, once the latch
+     * is released.
+     *
+     * @param registry The registry.
+     * @param commands The commands.
+     * @param start The latch that starts the registration.
+     * @return The thread.
+     */
+    private static Thread register( CommandRegistry registry, List<ICommand> commands, CountDownLatch start ) {
+        
+        Thread thread = new Thread( () -> {
+            
+            try {
+                start.await();
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            registry.registerAllCommands( commands );
+            
+        } );
+        thread.start();
+        return thread;
+        
+    }
+    
+    @Test
+    public void testSiblingBulkRegistration() throws InterruptedException {
+        
+        for ( int round = 0; round < ROUNDS; round++ ) {
+            
+            CommandRegistry root = new ClientCommandRegistry( stub( IDiscordClient.class, null ) );
+            CommandRegistry first = root.getSubRegistry( stub( IModule.class, "first" ) );
+            CommandRegistry second = root.getSubRegistry( stub( IModule.class, "second" ) );
+            
+            CountDownLatch start = new CountDownLatch( 1 );
+            Thread firstThread = register( first, commands(), start );
+            Thread secondThread = register( second, commands(), start );
+            start.countDown();
+            firstThread.join();
+            secondThread.join();
+            
+            int registered = first.getRegisteredCommands().size() + second.getRegisteredCommands().size();
+            assertEquals( "Round " + round + ": each name should be registered once.", COMMANDS, registered );
+            for ( int i = 0; i < COMMANDS; i++ ) {
+                
+                String name = "command" + i;
+                ICommand inFirst = first.getCommand( name );
+                ICommand inSecond = second.getCommand( name );
+                assertTrue( "Round " + round + ": \"" + name + "\" should be in exactly one registry.",
+                        ( inFirst == null ) != ( inSecond == null ) );
+                ICommand winner = ( inFirst != null ) ? inFirst : inSecond;
+                assertEquals( winner, root.getCommand( name ) );
+                assertEquals( ( inFirst != null ) ? first : second, winner.getRegistry() );
+                
+            }
+            
+        }
+        
+    }
+    
+}
@@ -0,0 +1,185 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.api;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+/**
+ * Differential tests of {@link CommandHandler#splitArgs(String)} against the regex-based
+ * implementation that it replaced.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-25
+ */
+public class SplitArgsTest {
+    
+    /* Regexes used by the old implementation */
+    private static final String WHITE_SPACE_REGEX = "\\s+";
+    private static final Pattern WHITE_SPACE = Pattern.compile( WHITE_SPACE_REGEX );
+    private static final Pattern QUOTED_ARG = Pattern.compile(
+            "\\A\".*\"(?:" + WHITE_SPACE_REGEX + ".*)?\\Z", Pattern.DOTALL );
+    private static final Pattern CLOSING_QUOTE = Pattern.compile(
+            "\"(?:" + WHITE_SPACE_REGEX + "|\\Z)" );
+    
+    /** Characters used to build random argument strings. */
+    private static final char[] ALPHABET = { 'a', 'b', '"', '"', '\\', ' ', ' ', '\t', '\n',
+            '\r', '\u000B', '\f', '\u0085', '\u2028', '\u2029', '\u00A0', '\u3000' };
+    
+    /**
+     * The old, recursive implementation of splitArgs.
+     *
+     * @param argString The argument string to be split.
+     * @return The arguments in the given string.
+     */
+    private static List<String> legacySplitArgs( String argString ) {
+        
+        if ( argString.isEmpty() ) {
+            return new LinkedList<>();
+        }
+        
+        Pattern regex;
+        if ( QUOTED_ARG.matcher( argString ).matches() ) { // Next argument is between quotes.
+            regex = CLOSING_QUOTE;
+            argString = argString.substring( 1 ); // Remove the first quote.
+        } else { // Next argument ends at the next space.
+            regex = WHITE_SPACE;
+        }
+        String[] split = regex.split( argString, 2 ); // Split off the first argument.
+        List<String> args = legacySplitArgs( ( split.length == 2 ) ? split[1] : "" );
+        args.add( 0, split[0] ); // Insert first arg at the beginning.
+        
+        return args;
+        
+    }
+    
+    /**
+     * Escapes the non-printable characters of a string, for failure messages.
+     *
+     * @param str The string.
+     * @return The escaped string.
+     */
+    private static String escape( String str ) {
+        
+        StringBuilder builder = new StringBuilder();
+        for ( char c : str.toCharArray() ) {
+            
+            if ( ( c >= ' ' ) && ( c <= '~' ) ) {
+                builder.append( c );
+            } else {
+                builder.append( String.format( "\\u%04X", (int) c ) );
+            }
+            
+        }
+        return builder.toString();
+        
+    }
+    
+    /**
+     * Checks that both implementations split the given strings the same way.
+     *
+     * @param argStrings The strings to split.
+     */
+    private static void assertSameSplit( String... argStrings ) {
+        
+        for ( String argString : argStrings ) {
+            
+            assertEquals( "Split of \"" + escape( argString ) + "\"",
+                    legacySplitArgs( argString ), CommandHandler.splitArgs( argString ) );
+            
+        }
+        
+    }
+    
+    @Test
+    public void testUnquoted() {
+        
+        assertSameSplit( "", "a", "abc", "a b c", "a  b\tc\nd", "a\r\nb", "a\u000Bb\fc" );
+        
+    }
+    
+    @Test
+    public void testQuoted() {
+        
+        assertSameSplit( "\"a\"", "\"a b\"", "\"a b\" c", "c \"a b\"", "\"a\" \"b\"",
+                "\"\"", "\"\" a", "a \"\" b", "\"a\tb\"\nc", "\"a b\"  \"c d\"" );
+        
+    }
+    
+    @Test
+    public void testUnterminated() {
+        
+        assertSameSplit( "\"", "\"a", "\"a b", "a \"b c", "\"a\"b", "\"a\"b c", "a\" b\"",
+                "\"a b\"c d" );
+        
+    }
+    
+    @Test
+    public void testInnerQuotes() {
+        
+        assertSameSplit( "\"a\"b\"", "\"a\"b\" c", "\"a \"b\" c\"", "\\\"a b\\\"", "\"a \\\" b\"",
+                "\"a\\\" b\"", "\"\\\"\"", "\"\"\"", "\"\"\" \"" );
+        
+    }
+    
+    @Test
+    public void testUnicodeWhitespace() {
+        
+        assertSameSplit( "a\u00A0b", "a\u3000b", "\"a\u2003b\"", "a\u0085b", "a\u2028b",
+                "\"abc\"\u2028", "\"abc\"\u0085", "\"abc\"\u2029", "\"a b\"\u2028",
+                "\"abc\"\u2028x", "\"abc\"\u2028\u2028", "\"a\"\u2028 b", "x \"abc\"\u2029",
+                "\"\"\u0085", "\"abc\"\u00A0" );
+        
+    }
+    
+    @Test
+    public void testFinalLineTerminator() {
+        
+        assertEquals( Arrays.asList( "\"abc\"\u2028" ), CommandHandler.splitArgs( "\"abc\"\u2028" ) );
+        assertEquals( Arrays.asList( "abc", "\u2028" ), CommandHandler.splitArgs( "\"abc\" \u2028" ) );
+        
+    }
+    
+    @Test
+    public void testRandom() {
+        
+        Random random = new Random( 42 );
+        char[] chars = new char[ 12 ];
+        for ( int i = 0; i < 200000; i++ ) {
+            
+            int length = random.nextInt( chars.length + 1 );
+            for ( int j = 0; j < length; j++ ) {
+                
+                chars[j] = ALPHABET[ random.nextInt( ALPHABET.length ) ];
+                
+            }
+            assertSameSplit( new String( chars, 0, length ) );
+            
+        }
+        
+    }
+    
+}
@@ -0,0 +1,151 @@
+/*
+ * This file is part of ModularCommands.
+ *
+ * ModularCommands is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ModularCommands is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ModularCommands. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.thiagotgm.modular_commands.command.annotation;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.github.thiagotgm.modular_commands.api.CommandContext;
+
+/**
+ * Compares the ways of calling an annotated command method: through reflection (as was done before
+ * {@link Invokers}), through the invoker generated with LambdaMetafactory, through the method handle
+ * fallback, and through a hand-written lambda.
+ * <p>
+ * Can be run through the main method, using the test classpath.
+ *
+ * @version 1.0
+ * @author ThiagoTGM
+ * @since 2017-09-25
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class InvokerBenchmark {
+    
+    /**
+     * Object with the command method being called.
+     *
+     * @version 1.0
+     * @author ThiagoTGM
+     * @since 2017-09-25
+     */
+    public static class Commands {
+        
+        private int calls;
+        
+        /**
+         * The command method. Ignores the context, and alternates the return value so that it
+         * is not constant.
+         *
+         * @param context The context of the command.
+         * @return Whether the amount of calls so far is even.
+         */
+        public boolean command( CommandContext context ) {
+            
+            return ( ++calls & 1 ) == 0;
+            
+        }
+        
+    }
+    
+    private Commands commands;
+    private Method method;
+    private Predicate<CommandContext> generated;
+    private Predicate<CommandContext> handle;
+    private Predicate<CommandContext> lambda;
+    /** The command method does not use the context, so none is made. */
+    private CommandContext context;
+    
+    /**
+     * Creates the different ways of calling the command method.
+     *
+     * @throws NoSuchMethodException if the command method is not found.
+     */
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        
+        commands = new Commands();
+        method = Commands.class.getMethod( "command", CommandContext.class );
+        generated = Invokers.command( method, true ).apply( commands );
+        handle = Invokers.command( method, false ).apply( commands );
+        lambda = ( context ) -> commands.command( context );
+        context = null;
+        
+    }
+    
+    @Benchmark
+    public boolean reflection() throws IllegalAccessException, InvocationTargetException {
+        
+        return (Boolean) method.invoke( commands, context );
+        
+    }
+    
+    @Benchmark
+    public boolean generatedInvoker() {
+        
+        return generated.test( context );
+        
+    }
+    
+    @Benchmark
+    public boolean methodHandle() {
+        
+        return handle.test( context );
+        
+    }
+    
+    @Benchmark
+    public boolean directLambda() {
+        
+        return lambda.test( context );
+        
+    }
+    
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Ignored.
+     * @throws RunnerException if the benchmark failed.
+     */
+    public static void main( String[] args ) throws RunnerException {
+        
+        new Runner( new OptionsBuilder().include( InvokerBenchmark.class.getName() ).build() ).run();
+        
+    }
+    
+}